@@ -0,0 +1,40 @@
+package com.simpsonn.mancala.benchmark;
+
+import com.simpsonn.mancala.model.components.Board;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * helpers shared by the benchmarks for keeping games moving without tripping
+ * over the rules
+ */
+final class BenchmarkGames {
+
+	private BenchmarkGames() {
+	}
+
+	/**
+	 * find the first pit the player whose turn it is can legally start a move from
+	 * @param game - the game to look at
+	 * @return the pit id (1 based) or -1 if the game is over
+	 */
+	static int firstPlayablePit(Game game) {
+
+		int firstPit;
+		if (game.getGameState() == GameState.PLAYER_1_TURN) {
+			firstPit = 0;
+		} else if (game.getGameState() == GameState.PLAYER_2_TURN) {
+			firstPit = Board.NUMBER_OF_PITS + 1;
+		} else {
+			return -1;
+		}
+		int[] stones = game.getBoard().getStoneCounts();
+		for (int pit = firstPit; pit < firstPit + Board.NUMBER_OF_PITS; pit++) {
+			if (stones[pit] > 0) {
+				return pit + 1;
+			}
+		}
+		return -1;
+	}
+
+}
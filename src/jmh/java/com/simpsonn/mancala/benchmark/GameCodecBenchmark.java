@@ -0,0 +1,113 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+import com.simpsonn.mancala.persistence.GameCodec;
+import com.simpsonn.mancala.persistence.GameSnapshot;
+
+/**
+ * compares turning a game into bytes and back with {@link GameCodec} against
+ * Jackson JSON of the same snapshot. The size of each encoding is printed
+ * when the benchmark starts, run it with -prof gc to see the allocation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameCodecBenchmark {
+
+	ObjectMapper mapper;
+	GameSnapshot snapshot;
+	GameSnapshot decoded;
+	ByteBuffer heapBuffer;
+	ByteBuffer directBuffer;
+	ByteBuffer encoded;
+	byte[] json;
+
+	@Setup(Level.Trial)
+	public void setupGame() throws IOException {
+
+		Game game = new Game();
+		game.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, new SearchEngine(10, 1, 1), 250));
+		GameController controller = new GameController();
+		for (int move = 0; move < 10; move++) {
+			int pitId = BenchmarkGames.firstPlayablePit(game);
+			if (pitId < 0) {
+				break;
+			}
+			controller.makeMove(game, pitId);
+		}
+		snapshot = GameSnapshot.of(game);
+		decoded = GameSnapshot.empty();
+		heapBuffer = ByteBuffer.allocate(GameCodec.ENCODED_SIZE);
+		directBuffer = ByteBuffer.allocateDirect(GameCodec.ENCODED_SIZE);
+		encoded = ByteBuffer.allocate(GameCodec.ENCODED_SIZE);
+		GameCodec.encode(snapshot, encoded);
+		// the snapshot has no setters so Jackson reads and writes its fields
+		mapper = new ObjectMapper().setVisibility(PropertyAccessor.ALL, Visibility.NONE)
+				.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+		json = mapper.writeValueAsBytes(snapshot);
+		System.out.printf("%nencoded size: binary %d bytes, json %d bytes%n", GameCodec.ENCODED_SIZE, json.length);
+	}
+
+	@Benchmark
+	public ByteBuffer encodeBinary() {
+
+		heapBuffer.clear();
+		GameCodec.encode(snapshot, heapBuffer);
+		return heapBuffer;
+	}
+
+	@Benchmark
+	public ByteBuffer encodeBinaryDirect() {
+
+		directBuffer.clear();
+		GameCodec.encode(snapshot, directBuffer);
+		return directBuffer;
+	}
+
+	@Benchmark
+	public GameSnapshot decodeBinary() {
+
+		encoded.clear();
+		GameCodec.decode(encoded, decoded);
+		return decoded;
+	}
+
+	@Benchmark
+	public byte[] encodeJson() throws IOException {
+
+		return mapper.writeValueAsBytes(snapshot);
+	}
+
+	@Benchmark
+	public GameSnapshot decodeJson() throws IOException {
+
+		return mapper.readValue(json, GameSnapshot.class);
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * measures the game engine on its own, how many moves a second it can make and
+ * how much it costs to set up a new game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameControllerBenchmark {
+
+	GameController controller;
+	Game game;
+
+	@Setup(Level.Trial)
+	public void setupGame() {
+
+		controller = new GameController();
+		game = new Game();
+	}
+
+	@Benchmark
+	public Game makeMove() {
+
+		int pitId = BenchmarkGames.firstPlayablePit(game);
+		if (pitId < 0) {
+			// the game is over, start a fresh one and carry on
+			game = new Game();
+			pitId = 1;
+		}
+		controller.makeMove(game, pitId);
+		return game;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Game createGame() {
+
+		return new Game();
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.simpsonn.mancala.TestServices;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameIdGenerator;
+import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+
+/**
+ * compares creating a batch of games one request at a time with creating them
+ * all in one call, and the cost of generating game ids, with several threads
+ * creating games at once as they would at the start of a tournament. Games are
+ * removed again straight after they are created so the pool gets to recycle them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class GameCreationBenchmark {
+
+	@Param({"1000"})
+	int gamesPerBatch;
+
+	MancalaServiceImpl service;
+
+	@Setup(Level.Trial)
+	public void createService() {
+
+		GameLocks locks = new GameLocks(1024);
+		GameRegistry registry = new GameRegistry(65536, 1_000_000);
+		service = TestServices.newService(locks, registry, new GamePool(locks, 65536));
+	}
+
+	@Benchmark
+	public void createOneAtATime(Blackhole blackhole) {
+
+		for (int i = 0; i < gamesPerBatch; i++) {
+			CreateGameResponse created = service.createNewGame().getBody();
+			service.removeGame(created.getId());
+			blackhole.consume(created);
+		}
+	}
+
+	@Benchmark
+	public void createInBulk(Blackhole blackhole) {
+
+		List<CreateGameResponse> created = service.createNewGames(gamesPerBatch).getBody();
+		for (CreateGameResponse game : created) {
+			service.removeGame(game.getId());
+		}
+		blackhole.consume(created);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Game newGameWithSharedSecureRandomId() {
+
+		return new Game(UUID.randomUUID());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Game newGameWithPerThreadSecureRandomId() {
+
+		return new Game(GameIdGenerator.newGameId());
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.controller.IllegalMoveException;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * measures what it costs to refuse a move which breaks the rules, thrown as an
+ * exception with a stack trace as moves used to be, thrown as an exception
+ * without one, and returned as a result code. Also measures finding every
+ * legal move at once
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IllegalMoveBenchmark {
+
+	// pit 8 belongs to player 2, so it can never be played on player 1's first turn
+	private static final int OPPONENTS_PIT = 8;
+
+	GameController controller;
+	Game game;
+
+	@Setup(Level.Trial)
+	public void setupGame() {
+
+		controller = new GameController();
+		game = new Game();
+	}
+
+	@Benchmark
+	public String exceptionWithStackTrace() {
+
+		try {
+			checkMoveThrowing(game, OPPONENTS_PIT);
+			return null;
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public String exceptionWithoutStackTrace() {
+
+		try {
+			controller.makeMove(game, OPPONENTS_PIT);
+			return null;
+		} catch (IllegalMoveException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public String resultCode() {
+
+		int outcome = controller.tryMove(game, OPPONENTS_PIT);
+		return MoveOutcome.isIllegal(outcome) ? IllegalMove.describe(MoveOutcome.illegalReason(outcome)) : null;
+	}
+
+	@Benchmark
+	public int legalMoves() {
+
+		return controller.getLegalMoves(game);
+	}
+
+	// how moves were checked before, each broken rule thrown as an exception with its stack trace filled in
+	private static void checkMoveThrowing(Game game, int pitId) {
+
+		int reason = KalahRules.checkMove(game.getBoard().getStoneCounts(), BoardTopology.PLAYER_1, pitId - 1);
+		if (reason != IllegalMove.NONE) {
+			throw new IllegalArgumentException(IllegalMove.describe(reason));
+		}
+	}
+
+}
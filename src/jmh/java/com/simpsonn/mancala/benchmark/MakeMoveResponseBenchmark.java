@@ -0,0 +1,101 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.TestServices;
+import com.simpsonn.mancala.model.response.BoardStatus;
+import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+
+/**
+ * measures turning the response to a move into the json which is sent back to
+ * the player, in each of the board formats. writeBoard copies the board into a
+ * new status the way the service does for every move and writes just that, so
+ * the gc profiler shows what the board adds to each response
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MakeMoveResponseBenchmark {
+
+	@Param({ "MAP", "ARRAY" })
+	BoardStatus.Format format;
+
+	ObjectMapper objectMapper;
+	MakeMoveResponse response;
+	int[] stones;
+	CountingStream out = new CountingStream();
+
+	@Setup(Level.Trial)
+	public void createResponse() {
+
+		objectMapper = new ObjectMapper();
+		GameLocks locks = new GameLocks(1);
+		GameRegistry registry = new GameRegistry(1, 1);
+		MancalaServiceImpl service = TestServices.newService(locks, registry, new GamePool(locks, 0));
+		UUID gameId = service.createNewGame().getBody().getId();
+		response = service.makeMove(gameId, 3).getBody();
+		stones = service.getGameById(gameId).getBoard().getStoneCounts().clone();
+		response.setStatus(new BoardStatus(stones, format));
+	}
+
+	@Benchmark
+	public byte[] serializeResponse() throws JsonProcessingException {
+
+		return objectMapper.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public long writeBoard() throws IOException {
+
+		objectMapper.writeValue(out, new BoardStatus(stones, format));
+		return out.count;
+	}
+
+	// counts the bytes written without keeping them, so only the writing is measured
+	static final class CountingStream extends OutputStream {
+
+		long count;
+
+		@Override
+		public void write(int b) {
+
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+
+			count += len;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.simpsonn.mancala.TestServices;
+import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+
+/**
+ * measures creating games and making moves through the service as the number
+ * of live games grows, both should cost the same with a thousand games in
+ * progress as they do with a million
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class MancalaServiceBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	int liveGames;
+
+	MancalaServiceImpl service;
+	UUID[] gameIds;
+	int seed = 0x2545F491;
+
+	@Setup(Level.Trial)
+	public void createGames() {
+
+		// leave room for the game the create benchmark adds before it removes it again
+		GameLocks locks = new GameLocks(1024);
+		GameRegistry registry = new GameRegistry(liveGames, liveGames + 1);
+		service = TestServices.newService(locks, registry, new GamePool(locks, 1024));
+		gameIds = new UUID[liveGames];
+		for (int i = 0; i < liveGames; i++) {
+			gameIds[i] = service.createNewGame().getBody().getId();
+		}
+	}
+
+	@Benchmark
+	public ResponseEntity<MakeMoveResponse> makeMoveInRandomGame() {
+
+		int slot = nextSlot();
+		int pitId = BenchmarkGames.firstPlayablePit(service.getGameById(gameIds[slot]));
+		if (pitId < 0) {
+			// the game is over so swap it for a new one to keep the number of live games steady
+			service.removeGame(gameIds[slot]);
+			gameIds[slot] = service.createNewGame().getBody().getId();
+			pitId = 1;
+		}
+		return service.makeMove(gameIds[slot], pitId);
+	}
+
+	@Benchmark
+	public ResponseEntity<CreateGameResponse> createNewGame() {
+
+		// remove the game straight away so the number of live games stays steady
+		ResponseEntity<CreateGameResponse> response = service.createNewGame();
+		service.removeGame(response.getBody().getId());
+		return response;
+	}
+
+	// xorshift so that picking the next game costs next to nothing and hits the whole registry
+	private int nextSlot() {
+
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return (seed & Integer.MAX_VALUE) % liveGames;
+	}
+
+}
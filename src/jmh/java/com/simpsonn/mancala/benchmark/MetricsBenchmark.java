@@ -0,0 +1,75 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.metrics.MoveMetrics;
+import com.simpsonn.mancala.metrics.ServiceMetrics;
+import com.simpsonn.mancala.service.GameRegistry;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * measures what recording metrics adds to each move, counting the outcome of
+ * a move and timing a service call against the prometheus registry the
+ * application publishes with, timing every call and timing the default share of calls
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+	@Param({ "1", "0.0625" })
+	double timingSampleRate;
+
+	MoveMetrics moveMetrics;
+	ServiceMetrics serviceMetrics;
+	int move;
+
+	@Setup(Level.Trial)
+	public void setupMetrics() {
+
+		PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+		moveMetrics = new MoveMetrics(registry);
+		serviceMetrics = new ServiceMetrics(registry, new GameRegistry(1, 1), timingSampleRate);
+	}
+
+	@Benchmark
+	public void countMoveOutcome() {
+
+		// cycle through plain moves, extra turns and captures
+		int outcome = (move++ % 3) == 0 ? MoveOutcome.NONE : (move & 1) == 0 ? MoveOutcome.EXTRA_TURN : MoveOutcome.CAPTURE;
+		moveMetrics.moveMade(outcome);
+	}
+
+	@Benchmark
+	public long readClock() {
+
+		// the floor for timing anything, two of these are needed per timing
+		return System.nanoTime();
+	}
+
+	@Benchmark
+	public void timeMove() {
+
+		serviceMetrics.moveHandled(serviceMetrics.startTiming());
+	}
+
+}
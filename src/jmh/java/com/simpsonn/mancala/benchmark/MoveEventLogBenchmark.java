@@ -0,0 +1,70 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.logging.MoveEventLog;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * measures what recording move events costs the thread making the move, run
+ * it with -prof gc to see the allocation per move, which should be nothing
+ * whether games are sampled or not
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveEventLogBenchmark {
+
+	@Param({ "0", "1" })
+	double sampleRate;
+
+	MoveEventLog moveEvents;
+	GameController controller;
+	Game game;
+
+	@Setup(Level.Trial)
+	public void setupGame() {
+
+		moveEvents = new MoveEventLog(65536, sampleRate, event -> { });
+		controller = new GameController(moveEvents);
+		game = new Game();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopWriter() {
+
+		moveEvents.shutdown();
+	}
+
+	@Benchmark
+	public Game makeMove() {
+
+		int pitId = BenchmarkGames.firstPlayablePit(game);
+		if (pitId < 0) {
+			// the game is over, start a fresh one and carry on
+			game = new Game();
+			pitId = 1;
+		}
+		controller.makeMove(game, pitId);
+		return game;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * measures how the search scales with the number of threads, each operation
+ * is a search of the opening position to a fixed depth starting from an empty
+ * table. The speed up for n threads is the score for n threads divided by the
+ * score for 1 thread, and the scaling efficiency is the speed up divided by n.
+ * Thread counts above the number of cores on the machine only show the cost of
+ * the threads getting in each other's way
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+	@Param({"1", "2", "4", "8", "16", "32"})
+	int threads;
+
+	@Param({"14"})
+	int depth;
+
+	SearchEngine engine;
+	int[] opening;
+
+	@Setup(Level.Trial)
+	public void setupEngine() {
+
+		engine = new SearchEngine(1000, 64, threads);
+		opening = new Game().getBoard().getStoneCounts().clone();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable() {
+
+		engine.getTable().clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopEngine() {
+
+		engine.shutdown();
+	}
+
+	@Benchmark
+	public SearchResult searchOpening() {
+
+		return engine.searchToDepth(opening, BoardTopology.PLAYER_1, depth);
+	}
+
+}
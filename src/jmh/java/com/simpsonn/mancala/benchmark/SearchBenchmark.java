@@ -0,0 +1,86 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.engine.TranspositionTable;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * measures the computer player's search from the opening position to a fixed
+ * depth, with and without a transposition table. The nodes counter gives the
+ * number of positions looked at per second, the table is cleared before each
+ * search so one search does not get the answers from the last
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"8", "10", "12"})
+	int depth;
+
+	@Param({"false", "true"})
+	boolean useTable;
+
+	TranspositionTable table;
+	AlphaBetaSearch search;
+	int[] opening;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class NodeCounter {
+
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void resetCounter() {
+
+			nodes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setupSearch() {
+
+		table = useTable ? new TranspositionTable(16) : null;
+		search = new AlphaBetaSearch(table);
+		opening = new Game().getBoard().getStoneCounts().clone();
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable() {
+
+		if (table != null) {
+			table.clear();
+		}
+	}
+
+	@Benchmark
+	public SearchResult searchOpening(NodeCounter counter) {
+
+		SearchResult result = search.search(opening, BoardTopology.PLAYER_1, depth);
+		counter.nodes += result.getNodes();
+		return result;
+	}
+
+}
@@ -0,0 +1,332 @@
+package com.simpsonn.mancala.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.controller.GameSocketProtocol;
+import com.simpsonn.mancala.model.components.Board;
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * a load test comparing moves made over the game web socket with moves made
+ * through the rest api, run against an application which is already running.
+ * Every connection plays a game of its own, making a move, waiting for the
+ * board to come back and then making the next one from it, so there are as many
+ * moves in flight as there are connections. The same number of games is played
+ * both ways and the moves per second, the round trip times and the bytes sent
+ * back for each move are printed for each.
+ *
+ * the arguments are the address of the application, the number of
+ * connections and the most moves to make in each game, by default
+ * http://localhost:8080 10000 20. The application needs to accept that many
+ * connections, see the README.
+ */
+public final class SocketLoadTest {
+
+	private static final int MAX_GAMES_PER_BATCH = 10000;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private SocketLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		String address = args.length > 0 ? args[0] : "http://localhost:8080";
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int moves = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		// keep a connection open for every client so the rest clients are not held up opening new ones
+		System.setProperty("http.maxConnections", String.valueOf(connections));
+
+		Results socket = playOverSockets(address, createGames(address, connections), moves);
+		Results rest = playOverRest(address, createGames(address, connections), moves);
+		System.out.printf("%-12s %10s %12s %10s %10s %10s %14s%n", "transport", "moves", "moves/s", "p50 us", "p99 us", "max us",
+				"bytes/move");
+		socket.print("web socket");
+		rest.print("rest");
+	}
+
+	private static List<UUID> createGames(String address, int count) throws IOException {
+
+		List<UUID> gameIds = new ArrayList<>(count);
+		while (gameIds.size() < count) {
+			int batch = Math.min(MAX_GAMES_PER_BATCH, count - gameIds.size());
+			HttpURLConnection connection = (HttpURLConnection) new URL(address + "/games/bulk?count=" + batch).openConnection();
+			connection.setRequestMethod("POST");
+			try (InputStream in = connection.getInputStream()) {
+				for (JsonNode game : MAPPER.readTree(in)) {
+					gameIds.add(UUID.fromString(game.get("id").asText()));
+				}
+			}
+		}
+		return gameIds;
+	}
+
+	private static Results playOverSockets(String address, List<UUID> gameIds, int moves) throws Exception {
+
+		String socketAddress = address.replaceFirst("^http", "ws") + "/games/socket";
+		StandardWebSocketClient client = new StandardWebSocketClient();
+		Results results = new Results(gameIds.size() * moves);
+		CountDownLatch finished = new CountDownLatch(gameIds.size());
+		List<SocketPlayer> players = new ArrayList<>(gameIds.size());
+		for (UUID gameId : gameIds) {
+			SocketPlayer player = new SocketPlayer(gameId, moves, results, finished);
+			player.session = client.doHandshake(player, socketAddress).get(30, TimeUnit.SECONDS);
+			players.add(player);
+		}
+		System.out.printf("opened %d web sockets%n", players.size());
+		results.start();
+		for (SocketPlayer player : players) {
+			player.send(GameSocketProtocol.join(player.gameId));
+		}
+		finished.await();
+		results.stop();
+		for (SocketPlayer player : players) {
+			player.session.close();
+		}
+		return results;
+	}
+
+	private static Results playOverRest(String address, List<UUID> gameIds, int moves) throws InterruptedException {
+
+		Results results = new Results(gameIds.size() * moves);
+		CountDownLatch ready = new CountDownLatch(gameIds.size());
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger threadCount = new AtomicInteger();
+		// a blocking client needs a thread for every connection, so keep their stacks small
+		ExecutorService threads = Executors.newFixedThreadPool(gameIds.size(),
+				task -> new Thread(null, task, "rest-player-" + threadCount.incrementAndGet(), 256 * 1024));
+		for (UUID gameId : gameIds) {
+			threads.execute(() -> {
+				ready.countDown();
+				try {
+					start.await();
+					playOverRest(address, gameId, moves, results);
+				} catch (IOException | InterruptedException e) {
+					results.failed.incrementAndGet();
+				}
+			});
+		}
+		ready.await();
+		results.start();
+		start.countDown();
+		threads.shutdown();
+		threads.awaitTermination(1, TimeUnit.HOURS);
+		results.stop();
+		return results;
+	}
+
+	private static void playOverRest(String address, UUID gameId, int moves, Results results) throws IOException {
+
+		String gameAddress = address + "/games/" + gameId + "/pits/";
+		int[] stones = new int[Board.NUMBER_OF_PITS * 2 + 2];
+		Arrays.fill(stones, 6);
+		GameState gameState = GameState.PLAYER_1_TURN;
+		for (int move = 0; move < moves; move++) {
+			int pitId = choosePit(stones, gameState);
+			if (pitId < 0) {
+				return;
+			}
+			long sent = System.nanoTime();
+			HttpURLConnection connection = (HttpURLConnection) new URL(gameAddress + pitId).openConnection();
+			connection.setRequestMethod("PUT");
+			byte[] body;
+			try (InputStream in = connection.getInputStream()) {
+				body = readFully(in);
+			}
+			results.moveMade(System.nanoTime() - sent, body.length);
+			JsonNode response = MAPPER.readTree(body);
+			JsonNode status = response.get("status");
+			for (int position = 0; position < stones.length; position++) {
+				// the board is an array or the original map depending on game.response.board-format
+				stones[position] = (status.isArray() ? status.get(position) : status.get(String.valueOf(position + 1))).asInt();
+			}
+			gameState = fromDescription(response.get("gameState").asText());
+		}
+	}
+
+	// the response body has to be read to the end for the connection to be kept open, it is usually sent in chunks
+	private static byte[] readFully(InputStream in) throws IOException {
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+		byte[] buffer = new byte[512];
+		for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+			body.write(buffer, 0, read);
+		}
+		return body.toByteArray();
+	}
+
+	// the first pit with stones in it for the player to move, or -1 if the game is over
+	private static int choosePit(int[] stones, GameState gameState) {
+
+		int firstPit;
+		if (gameState == GameState.PLAYER_1_TURN) {
+			firstPit = 0;
+		} else if (gameState == GameState.PLAYER_2_TURN) {
+			firstPit = Board.NUMBER_OF_PITS + 1;
+		} else {
+			return -1;
+		}
+		for (int pit = firstPit; pit < firstPit + Board.NUMBER_OF_PITS; pit++) {
+			if (stones[pit] > 0) {
+				return pit + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static GameState fromDescription(String description) {
+
+		for (GameState gameState : GameState.values()) {
+			if (gameState.getDescription().equals(description)) {
+				return gameState;
+			}
+		}
+		throw new IllegalArgumentException("unknown game state " + description);
+	}
+
+	// plays one game over its own web socket, each update that comes back is answered with the next move
+	private static final class SocketPlayer extends BinaryWebSocketHandler {
+
+		private final UUID gameId;
+		private final int moves;
+		private final Results results;
+		private final CountDownLatch finished;
+		private final int[] stones = new int[Board.NUMBER_OF_PITS * 2 + 2];
+		private volatile WebSocketSession session;
+		private int movesMade;
+		private volatile long sent;
+		private boolean done;
+
+		SocketPlayer(UUID gameId, int moves, Results results, CountDownLatch finished) {
+
+			this.gameId = gameId;
+			this.moves = moves;
+			this.results = results;
+			this.finished = finished;
+		}
+
+		@Override
+		protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+
+			ByteBuffer update = message.getPayload();
+			long now = System.nanoTime();
+			if (sent != 0) {
+				results.moveMade(now - sent, update.remaining());
+				movesMade++;
+			}
+			if (GameSocketProtocol.getResult(update) != GameSocketProtocol.OK) {
+				results.failed.incrementAndGet();
+				finish();
+				return;
+			}
+			for (int position = 0; position < stones.length; position++) {
+				stones[position] = GameSocketProtocol.getStones(update, position);
+			}
+			int pitId = choosePit(stones, GameSocketProtocol.getGameState(update));
+			if (pitId < 0 || movesMade == moves) {
+				finish();
+				return;
+			}
+			sent = System.nanoTime();
+			send(GameSocketProtocol.move(GameSocketProtocol.getSlot(update), pitId));
+		}
+
+		@Override
+		public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+
+			finish();
+		}
+
+		void send(byte[] frame) {
+
+			try {
+				session.sendMessage(new BinaryMessage(frame));
+			} catch (IOException e) {
+				results.failed.incrementAndGet();
+				finish();
+			}
+		}
+
+		private synchronized void finish() {
+
+			if (!done) {
+				done = true;
+				finished.countDown();
+			}
+		}
+	}
+
+	// round trip times of every move and the bytes sent back for them, shared by all the clients
+	private static final class Results {
+
+		private final long[] roundTrips;
+		private final AtomicInteger count = new AtomicInteger();
+		private final AtomicLong bytes = new AtomicLong();
+		private final AtomicInteger failed = new AtomicInteger();
+		private long started;
+		private long elapsed;
+
+		Results(int maxMoves) {
+
+			roundTrips = new long[maxMoves];
+		}
+
+		void moveMade(long roundTripNanos, long bytesBack) {
+
+			int index = count.getAndIncrement();
+			if (index < roundTrips.length) {
+				roundTrips[index] = roundTripNanos;
+			}
+			bytes.addAndGet(bytesBack);
+		}
+
+		void start() {
+
+			started = System.nanoTime();
+		}
+
+		void stop() {
+
+			elapsed = System.nanoTime() - started;
+		}
+
+		void print(String transport) {
+
+			int moves = Math.min(count.get(), roundTrips.length);
+			long[] sorted = Arrays.copyOf(roundTrips, moves);
+			Arrays.sort(sorted);
+			double seconds = elapsed / 1e9;
+			System.out.printf("%-12s %10d %12.0f %10d %10d %10d %14.1f%s%n", transport, moves, moves / seconds,
+					percentile(sorted, 0.5) / 1000, percentile(sorted, 0.99) / 1000, moves == 0 ? 0 : sorted[moves - 1] / 1000,
+					moves == 0 ? 0.0 : (double) bytes.get() / moves, failed.get() == 0 ? "" : "  (" + failed.get() + " failed)");
+		}
+
+		private static long percentile(long[] sorted, double fraction) {
+
+			return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.simpsonn.mancala.configuration;
+
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * turns on the background scheduler which is used for housekeeping, such as
+ * clearing finished and abandoned games out of memory
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+
+	/**
+	 * the web socket support declares an empty scheduler of its own, which
+	 * stops the default one being created, so the housekeeping scheduler is
+	 * declared here by the name the scheduled tasks look for
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler(TaskSchedulerBuilder builder) {
+
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.simpsonn.mancala.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.simpsonn.mancala.controller.GameSocketHandler;
+
+/**
+ * serves the binary game protocol on <b>/games/socket</b>, see
+ * {@link com.simpsonn.mancala.controller.GameSocketProtocol}
+ *
+ * browsers may only open a socket from the page's own origin or one listed in
+ * <b>game.socket.allowed-origins</b>, so another site cannot play a game for
+ * someone who visits it. Clients which are not browsers send no origin and
+ * are not affected
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfiguration implements WebSocketConfigurer {
+
+	private final GameSocketHandler gameSocketHandler;
+	private final String[] allowedOrigins;
+
+	public WebSocketConfiguration(GameSocketHandler gameSocketHandler,
+			@Value("${game.socket.allowed-origins:}") String[] allowedOrigins) {
+
+		this.gameSocketHandler = gameSocketHandler;
+		this.allowedOrigins = allowedOrigins;
+	}
+
+	@Override
+	public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+
+		registry.addHandler(gameSocketHandler, "/games/socket").setAllowedOrigins(allowedOrigins);
+	}
+
+}
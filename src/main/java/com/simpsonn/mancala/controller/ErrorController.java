@@ -5,20 +5,34 @@ import javax.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.simpsonn.mancala.model.response.ErrorResponse;
+import com.simpsonn.mancala.service.ServiceBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * gracefully handles errors which occur due to incorrect input by the consumer
- * of the service and returns them back as bad requests with a meaningful message
+ * of the service and returns them back as bad requests with a meaningful message,
+ * or as service unavailable when the service is too busy to handle the request.
+ * Every error handled is counted as mancala.errors by status and exception
  */
 @RestControllerAdvice
 public class ErrorController {
 
 	private static final Logger LOG = LoggerFactory.getLogger(ErrorController.class);
+
+	private final MeterRegistry meterRegistry;
+
+	public ErrorController(MeterRegistry meterRegistry) {
+
+		this.meterRegistry = meterRegistry;
+	}
 	
 	/*
 	 * send validation errors on path variables back as a bad request instead of an
@@ -31,8 +45,46 @@ public class ErrorController {
 	private ResponseEntity<ErrorResponse> handleValidationException(Exception e) {
 
 		ErrorResponse response = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+		countError(HttpStatus.BAD_REQUEST, e);
 		LOG.info("handled bad request error:" + e.getMessage());
-		return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+		return errorResponse(HttpStatus.BAD_REQUEST, response);
 	}	
+
+	/*
+	 * service busy exceptions are thrown when the service cannot take on any
+	 * more work right now, such as when the limit of live games has been reached,
+	 * these are not the fault of the consumer so let them know to try again later.
+	 * Any other illegal state is a fault and is left as an internal server error
+	 * without its message
+	 */
+	@ExceptionHandler(ServiceBusyException.class)
+	private ResponseEntity<ErrorResponse> handleUnavailableException(Exception e) {
+
+		ErrorResponse response = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+		countError(HttpStatus.SERVICE_UNAVAILABLE, e);
+		LOG.info("handled service unavailable error:" + e.getMessage());
+		return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, response);
+	}
+
+	/*
+	 * the content type is always json, even when the client only accepts
+	 * something else such as the event stream of a game, so the error is not
+	 * lost turning it into a type the client asked for
+	 */
+	private ResponseEntity<ErrorResponse> errorResponse(HttpStatus status, ErrorResponse response) {
+
+		return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(response);
+	}
+
+	// the exception types handled here are a short fixed list, so they are safe to use as a tag
+	private void countError(HttpStatus status, Exception e) {
+
+		Counter.builder("mancala.errors")
+				.description("requests turned away with an error")
+				.tag("status", String.valueOf(status.value()))
+				.tag("exception", e.getClass().getSimpleName())
+				.register(meterRegistry)
+				.increment();
+	}
 	
 }
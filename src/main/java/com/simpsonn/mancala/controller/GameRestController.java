@@ -1,7 +1,10 @@
 package com.simpsonn.mancala.controller;
 
 import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.model.response.GameResponse;
+import com.simpsonn.mancala.model.response.HintResponse;
 import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.model.response.MakeMovesResponse;
 import com.simpsonn.mancala.service.MancalaService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -9,17 +12,27 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.constraints.Digits;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -27,16 +40,15 @@ import java.util.UUID;
  * 
  * @implNote the specification says that we can create new games using the
  *           <b>/games</b> endpoint. This means that it will be possible to have
- *           many games going on at once, and potentially creating enough games
- *           to cause the application to run out of memory. Also the
- *           specification for this version lacks a mechanism for cleaning up
- *           finished or abandoned games which could potentially lead the the
- *           same issue.<br>
- *           the application should have a mechanism to limit the amount of
- *           games in progress and also a mechanism to get rid of finished and
- *           abandoned games. It would also be useful to be able to retrieve a list
- *           of games in progress, these have not been implemented here due to them
- *           not being in spec and time constraints
+ *           many games going on at once, so the number of games in memory is
+ *           limited by <b>game.registry.max-games</b> and new games are refused
+ *           with a service unavailable response once it is reached.<br>
+ *           finished games are removed shortly after they end and games which
+ *           nobody has made a move in for a while are treated as abandoned and
+ *           removed too, see {@link com.simpsonn.mancala.service.GameEvictionTask}.
+ *           It would also be useful to be able to retrieve a list of games in
+ *           progress, this has not been implemented here due to it not being in
+ *           spec and time constraints
  * 
  * @version 0.0.1
  * @author Nick Simpson
@@ -48,6 +60,11 @@ import java.util.UUID;
 public class GameRestController {
 
 	private static final Logger LOG = LoggerFactory.getLogger(GameRestController.class);
+	private static final int MAX_MOVES_PER_BATCH = 1000;
+	private static final int MAX_GAMES_PER_BATCH = 10000;
+	private static final String OPPONENT_HUMAN = "human";
+	private static final String OPPONENT_COMPUTER = "computer";
+	private static final long MAX_TIME_BUDGET_MS = 10000;
 	
 	final
 	MancalaService mancalaService;
@@ -57,17 +74,72 @@ public class GameRestController {
 	}
 
 	/**
-	 * create a new game of mancala
+	 * create a new game of mancala, either between two people or against the
+	 * computer, when playing the computer you are player 1 and it replies to each
+	 * of your moves straight away
 	 * 
+	 * @param opponent - who plays as player 2, human (the default) or computer
+	 * @param timeBudgetMs - how long the computer thinks about each move in milliseconds, if not given the configured default is used
 	 * @return create new game response - the id and url for the game just created
 	 */
 	@ApiOperation(value = "Create a new game")	
 	@PostMapping(path = "/games")
-	@ApiResponses(value = {@ApiResponse(code = 201, message = "Success - Game created")})
-	public ResponseEntity<CreateGameResponse> createNewGame() {
+	@ApiResponses(value = {@ApiResponse(code = 201, message = "Success - Game created"), @ApiResponse(code = 400, message = "Error in parameter(s)")})
+	public ResponseEntity<CreateGameResponse> createNewGame(
+			@Pattern (regexp = "^(human|computer)$", message = "opponent must be human or computer") 
+			@RequestParam (value = "opponent", defaultValue = OPPONENT_HUMAN) String opponent,
+			@Min(1) @Max(MAX_TIME_BUDGET_MS) 
+			@RequestParam (value = "timeBudgetMs", required = false) Long timeBudgetMs) {
 		
-		LOG.info("received create new game request");
-		return mancalaService.createNewGame();
+		LOG.info("received create new game request against a [{}] opponent", opponent);
+		boolean againstComputer = OPPONENT_COMPUTER.equals(opponent);
+		if (timeBudgetMs == null) {
+			return mancalaService.createNewGame(againstComputer);
+		}
+		return mancalaService.createNewGame(againstComputer, timeBudgetMs);
+	}
+
+	/**
+	 * create a batch of new games of mancala in one go, for example at the start
+	 * of a tournament
+	 * 
+	 * @param count - the number of games to create
+	 * @return create new game responses - the id and url for each game just created
+	 */
+	@ApiOperation(value = "Create a batch of new games")	
+	@PostMapping(path = "/games/bulk")
+	@ApiResponses(value = {@ApiResponse(code = 201, message = "Success - Games created"), @ApiResponse(code = 400, message = "Error in parameter(s)"),
+			@ApiResponse(code = 503, message = "Too many games in progress")})
+	public ResponseEntity<List<CreateGameResponse>> createNewGames(
+			@Min(1) @Max(MAX_GAMES_PER_BATCH) @RequestParam ("count") int count) {
+		
+		LOG.info("received create [{}] new games request", count);
+		return mancalaService.createNewGames(count);
+	}
+
+	/**
+	 * read a game by providing its GUID, without making a move. The response has
+	 * the move count of the game as its etag, a client which sends it back in
+	 * <b>If-None-Match</b> is told the game has not changed with an empty not
+	 * modified response. The path only matches a GUID so that it does not take
+	 * the requests for <b>/games/socket</b>
+	 * 
+	 * @param gameId - the GUID of the game
+	 * @param ifNoneMatch - the etags the client already has, if any
+	 * @return game response - text representation of the current board, who's turn it is and the move count
+	 */
+	@ApiOperation(value = "Read a game", response = GameResponse.class)
+	@GetMapping(path = "/games/{gameId:[0-9a-f-]{36}}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ApiResponses(value = {@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 304, message = "Not modified"),
+			@ApiResponse(code = 400, message = "Error in parameter(s)")})
+	public ResponseEntity<byte[]> getGame(
+			@Pattern (regexp="^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "game id must be a valid GUID") 
+			@PathVariable ("gameId") String gameId,
+			@RequestHeader (value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+		LOG.debug("received read game request");
+		UUID gameIdGuid = getGuidFromString(gameId);
+		return mancalaService.getGame(gameIdGuid, ifNoneMatch);
 	}
 
 	/**
@@ -86,11 +158,78 @@ public class GameRestController {
 			@Digits (fraction = 0, integer = 2) @Min(1) @Max(14) 
 			@PathVariable ("pitId") int pitId) {		
 
-		LOG.info("received make move request with pit number [{}]", pitId);
+		LOG.debug("received make move request with pit number [{}]", pitId);
 		UUID gameIdGuid = getGuidFromString(gameId);
 		return mancalaService.makeMove(gameIdGuid, pitId);
 	}
 
+	/**
+	 * make a batch of moves in a game, one after the other, by providing the GUID
+	 * of the game and the pit numbers in the order they should be played. No other
+	 * moves can be made on the game while the batch is being played and the batch
+	 * stops at the first move which is not allowed
+	 * 
+	 * @param gameId - the GUID of the game
+	 * @param pitIds - the pit numbers to use, in order
+	 * @return make moves response - the result of each move made, the current board and who's turn it is
+	 */
+	@ApiOperation(value = "Make a batch of moves")
+	@PostMapping(path = "/games/{gameId}/moves")
+	@ApiResponses(value = {@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 400, message = "Error in parameter(s)")})
+	public ResponseEntity<MakeMovesResponse> makeMoves(
+			@Pattern (regexp="^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "game id must be a valid GUID") 
+			@PathVariable ("gameId") String gameId, 
+			@NotNull @Size(min = 1, max = MAX_MOVES_PER_BATCH, message = "between 1 and " + MAX_MOVES_PER_BATCH + " moves must be given") 
+			@RequestBody List<@NotNull Integer> pitIds) {
+
+		LOG.debug("received make moves request with [{}] moves", pitIds.size());
+		UUID gameIdGuid = getGuidFromString(gameId);
+		return mancalaService.makeMoves(gameIdGuid, pitIds);
+	}
+
+	/**
+	 * ask which move to make next by providing the GUID of the game, the answer
+	 * is for the player whose turn it is
+	 * 
+	 * @param gameId - the GUID of the game
+	 * @return hint response - the suggested pit number and how many stones ahead the player can expect to finish
+	 */
+	@ApiOperation(value = "Suggest a move")
+	@GetMapping(path = "/games/{gameId}/hint")
+	@ApiResponses(value = {@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 400, message = "Error in parameter(s)")})
+	public ResponseEntity<HintResponse> getHint(
+			@Pattern (regexp="^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "game id must be a valid GUID") 
+			@PathVariable ("gameId") String gameId) {
+
+		LOG.debug("received hint request");
+		UUID gameIdGuid = getGuidFromString(gameId);
+		return mancalaService.getHint(gameIdGuid);
+	}
+
+	/**
+	 * watch a game by providing its GUID, the moves made in it are pushed to the
+	 * client as server-sent events so there is no need to keep asking for the
+	 * board. The first event is a <b>snapshot</b> of the whole board, after that
+	 * each <b>move</b> event holds the pits which changed and the game state. A
+	 * client which falls behind is sent a fresh snapshot instead of the moves it
+	 * missed. The stream ends when the game is over
+	 * 
+	 * @param gameId - the GUID of the game
+	 * @return a stream of game updates
+	 */
+	@ApiOperation(value = "Watch a game")
+	@GetMapping(path = "/games/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ApiResponses(value = {@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 400, message = "Error in parameter(s)"),
+			@ApiResponse(code = 503, message = "Too many clients watching games")})
+	public ResponseEntity<SseEmitter> watchGame(
+			@Pattern (regexp="^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$", message = "game id must be a valid GUID") 
+			@PathVariable ("gameId") String gameId) {
+
+		LOG.debug("received watch game request");
+		UUID gameIdGuid = getGuidFromString(gameId);
+		return mancalaService.watchGame(gameIdGuid);
+	}
+
 	/*
 	 *  we accept the gameId as a string so we can use a pattern to validate it but
 	 *  it must be converted into a UUID so we can use it
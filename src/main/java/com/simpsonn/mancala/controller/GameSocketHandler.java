@@ -0,0 +1,236 @@
+package com.simpsonn.mancala.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.service.BoardView;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * lets games be played over a web socket with the small binary frames of
+ * {@link GameSocketProtocol}, for clients playing in real time which do not
+ * want a full http request and json response for every move.
+ *
+ * the rules are still applied by the {@link GameController} through the
+ * service, which finds the game and takes its lock just as it does for the
+ * rest api, it only copies the board back instead of building a response.
+ * Everyone who joined a game over a socket is sent an update when a move is
+ * made in it over a socket, moves made through the rest api can be followed
+ * with the event stream of the game.
+ *
+ * the container hands the frames of one connection over one at a time, but
+ * updates for other players are sent from their threads, so every connection
+ * is wrapped so that sends are queued. The updates are sent after the game
+ * lock has been let go, so two moves made one after the other can race to
+ * the same player. Each seat remembers the move count of the last board it
+ * was sent and an older board is dropped rather than sent after a newer one. A client which stops reading is
+ * disconnected once <b>game.socket.send-buffer-bytes</b> are waiting for it or a
+ * send takes longer than <b>game.socket.send-time-limit-ms</b>.
+ */
+@Component
+public class GameSocketHandler extends BinaryWebSocketHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GameSocketHandler.class);
+	private static final String PLAYER = "mancala.player";
+
+	private final MancalaService mancalaService;
+	private final int sendTimeLimitMillis;
+	private final int sendBufferBytes;
+	private final ConcurrentHashMap<UUID, List<Seat>> seats = new ConcurrentHashMap<>();
+
+	public GameSocketHandler(MancalaService mancalaService,
+			@Value("${game.socket.send-time-limit-ms:5000}") int sendTimeLimitMillis,
+			@Value("${game.socket.send-buffer-bytes:1024}") int sendBufferBytes) {
+
+		this.mancalaService = mancalaService;
+		this.sendTimeLimitMillis = sendTimeLimitMillis;
+		this.sendBufferBytes = sendBufferBytes;
+	}
+
+	@Override
+	public void afterConnectionEstablished(WebSocketSession session) {
+
+		session.getAttributes().put(PLAYER,
+				new Player(new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferBytes)));
+	}
+
+	@Override
+	protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+
+		Player player = (Player) session.getAttributes().get(PLAYER);
+		ByteBuffer frame = message.getPayload();
+		int type = frame.remaining() > 0 ? frame.get(frame.position()) : 0;
+		if (type == GameSocketProtocol.JOIN && frame.remaining() == GameSocketProtocol.JOIN_SIZE) {
+			int start = frame.position() + 1;
+			join(player, new UUID(frame.getLong(start), frame.getLong(start + 8)));
+		} else if (type == GameSocketProtocol.MOVE && frame.remaining() == GameSocketProtocol.MOVE_SIZE) {
+			move(player, frame.get(frame.position() + 1) & 0xff, frame.get(frame.position() + 2) & 0xff);
+		} else {
+			player.send(GameSocketProtocol.update(0, GameSocketProtocol.BAD_FRAME, null));
+		}
+	}
+
+	@Override
+	public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+
+		Player player = (Player) session.getAttributes().get(PLAYER);
+		if (player == null) {
+			return;
+		}
+		for (int slot = 0; slot < player.slots; slot++) {
+			Seat seat = player.seats[slot];
+			seats.computeIfPresent(seat.gameId, (gameId, players) -> {
+				players.remove(seat);
+				return players.isEmpty() ? null : players;
+			});
+		}
+	}
+
+	// give the game a slot, or find the one it already has, and send the board
+	private void join(Player player, UUID gameId) {
+
+		for (int slot = 0; slot < player.slots; slot++) {
+			if (player.seats[slot].gameId.equals(gameId)) {
+				sendBoard(player.seats[slot]);
+				return;
+			}
+		}
+		if (player.slots == GameSocketProtocol.MAX_SLOTS) {
+			player.send(GameSocketProtocol.update(0, GameSocketProtocol.NO_SLOTS_LEFT, null));
+			return;
+		}
+		int slot = player.slots;
+		Seat seat = new Seat(player, slot, gameId);
+		// take the seat before reading the board so no move in between is missed
+		seats.computeIfAbsent(gameId, id -> new CopyOnWriteArrayList<>()).add(seat);
+		if (sendBoard(seat)) {
+			if (slot == player.seats.length) {
+				player.seats = Arrays.copyOf(player.seats, slot * 2);
+			}
+			player.seats[slot] = seat;
+			player.slots++;
+		} else {
+			seats.computeIfPresent(gameId, (id, players) -> {
+				players.remove(seat);
+				return players.isEmpty() ? null : players;
+			});
+		}
+	}
+
+	private boolean sendBoard(Seat seat) {
+
+		Player player = seat.player;
+		try {
+			mancalaService.readBoard(seat.gameId, player.view);
+		} catch (IllegalArgumentException e) {
+			player.send(GameSocketProtocol.update(seat.slot, GameSocketProtocol.UNKNOWN_GAME, null));
+			return false;
+		}
+		seat.send(GameSocketProtocol.OK, player.view);
+		return true;
+	}
+
+	// make the move and send the board to the mover and everyone else in the game
+	private void move(Player player, int slot, int pitId) {
+
+		if (slot >= player.slots) {
+			player.send(GameSocketProtocol.update(slot, GameSocketProtocol.UNKNOWN_GAME, null));
+			return;
+		}
+		Seat moverSeat = player.seats[slot];
+		UUID gameId = moverSeat.gameId;
+		BoardView view = player.view;
+		try {
+			mancalaService.tryMove(gameId, pitId, view);
+		} catch (IllegalArgumentException e) {
+			// the game has been removed since it was joined
+			player.send(GameSocketProtocol.update(slot, GameSocketProtocol.UNKNOWN_GAME, null));
+			return;
+		}
+		int outcome = view.getOutcome();
+		if (MoveOutcome.isIllegal(outcome)) {
+			moverSeat.send(MoveOutcome.illegalReason(outcome), view);
+			return;
+		}
+		moverSeat.send(GameSocketProtocol.OK, view);
+		List<Seat> players = seats.get(gameId);
+		if (players != null) {
+			for (Seat seat : players) {
+				if (seat.player != player) {
+					seat.send(GameSocketProtocol.OK, view);
+				}
+			}
+		}
+	}
+
+	// one connection, the games it has joined in slot order and the board view it reuses
+	private static final class Player {
+
+		private final WebSocketSession session;
+		private final BoardView view = new BoardView();
+		// most connections play one game, so room for more is only made when needed
+		private Seat[] seats = new Seat[1];
+		private int slots;
+
+		Player(WebSocketSession session) {
+
+			this.session = session;
+		}
+
+		void send(byte[] update) {
+
+			try {
+				session.sendMessage(new BinaryMessage(update));
+			} catch (SessionLimitExceededException e) {
+				// the session has been closed as the client stopped reading
+				LOG.debug("disconnected web socket [{}] as it fell behind", session.getId());
+			} catch (IOException | IllegalStateException e) {
+				LOG.debug("unable to send to web socket [{}]", session.getId(), e);
+			}
+		}
+	}
+
+	// a game one connection has joined, the slot it is in and how far through the game it has been sent
+	private static final class Seat {
+
+		private final Player player;
+		private final int slot;
+		private final UUID gameId;
+		private int sentMoveCount = -1;
+
+		Seat(Player player, int slot, UUID gameId) {
+
+			this.player = player;
+			this.slot = slot;
+			this.gameId = gameId;
+		}
+
+		// queue the board unless a later one has been, the check and the queueing are done together
+		synchronized void send(int result, BoardView view) {
+
+			if (view.getMoveCount() < sentMoveCount) {
+				return;
+			}
+			sentMoveCount = view.getMoveCount();
+			player.send(GameSocketProtocol.update(slot, result, view));
+		}
+	}
+
+}
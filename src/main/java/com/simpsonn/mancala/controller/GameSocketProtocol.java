@@ -0,0 +1,134 @@
+package com.simpsonn.mancala.controller;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.BoardView;
+
+/**
+ * the binary frames sent over the game web socket. A client joins a game once
+ * by its id and is given a slot number for it, after that moves only carry the
+ * slot and the pit, so a move is 3 bytes instead of a url with a GUID in it.
+ *
+ * client to server
+ * <pre>
+ * JOIN  17 bytes  1, then the game id, most significant half first
+ * MOVE   3 bytes  2, the slot, the pit number from 1 to 14
+ * </pre>
+ * server to client, every update is {@link #UPDATE_SIZE} bytes
+ * <pre>
+ *  0     the slot
+ *  1     the result in the top 4 bits and the game state code in the bottom 4
+ *  2-15  the stone counts from pit 1 to player 2's kalah
+ * </pre>
+ * the results 1 to 4 are the {@link IllegalMove} reasons a move was refused,
+ * in which case the board is sent back as it was. Updates are sent in reply to
+ * a join or a move, and to everyone else who joined the game whenever a move
+ * is made in it over the socket. The boards for a slot arrive in the order
+ * the moves were made, a board which would arrive after a later one is not
+ * sent at all.
+ */
+public final class GameSocketProtocol {
+
+	public static final byte JOIN = 1;
+	public static final byte MOVE = 2;
+	public static final int JOIN_SIZE = 17;
+	public static final int MOVE_SIZE = 3;
+	public static final int UPDATE_SIZE = 16;
+	public static final int MAX_SLOTS = 256;
+
+	public static final int OK = 0;
+	public static final int NO_SLOTS_LEFT = 13;
+	public static final int UNKNOWN_GAME = 14;
+	public static final int BAD_FRAME = 15;
+
+	private static final int RESULT_SHIFT = 4;
+	private static final int STATE_MASK = 0xf;
+	private static final int STONES = 2;
+
+	private GameSocketProtocol() {
+	}
+
+	/**
+	 * @param gameId - the game to join
+	 * @return the join frame
+	 */
+	public static byte[] join(UUID gameId) {
+
+		ByteBuffer frame = ByteBuffer.allocate(JOIN_SIZE);
+		frame.put(JOIN).putLong(gameId.getMostSignificantBits()).putLong(gameId.getLeastSignificantBits());
+		return frame.array();
+	}
+
+	/**
+	 * @param slot - the slot the game was given when it was joined
+	 * @param pitId - the pit number to move from
+	 * @return the move frame
+	 */
+	public static byte[] move(int slot, int pitId) {
+
+		return new byte[] { MOVE, (byte) slot, (byte) pitId };
+	}
+
+	/**
+	 * @param slot - the slot of the game
+	 * @param result - {@link #OK}, an {@link IllegalMove} reason or one of the errors here
+	 * @param view - the board to send, or null to send an empty board with an error
+	 * @return the update frame
+	 */
+	public static byte[] update(int slot, int result, BoardView view) {
+
+		byte[] update = new byte[UPDATE_SIZE];
+		update[0] = (byte) slot;
+		int state = view == null ? 0 : view.getGameState().getCode();
+		update[1] = (byte) (result << RESULT_SHIFT | state);
+		if (view != null) {
+			int[] stones = view.getStones();
+			for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+				update[STONES + position] = (byte) stones[position];
+			}
+		}
+		return update;
+	}
+
+	/**
+	 * @param update - an update frame
+	 * @return the slot of the game it is for
+	 */
+	public static int getSlot(ByteBuffer update) {
+
+		return update.get(0) & 0xff;
+	}
+
+	/**
+	 * @param update - an update frame
+	 * @return {@link #OK}, an {@link IllegalMove} reason or one of the errors here
+	 */
+	public static int getResult(ByteBuffer update) {
+
+		return (update.get(1) & 0xff) >>> RESULT_SHIFT;
+	}
+
+	/**
+	 * @param update - an update frame
+	 * @return the state of the game
+	 */
+	public static GameState getGameState(ByteBuffer update) {
+
+		return GameState.fromCode(update.get(1) & STATE_MASK);
+	}
+
+	/**
+	 * @param update - an update frame
+	 * @param position - the board position, 0 based
+	 * @return the number of stones in the position
+	 */
+	public static int getStones(ByteBuffer update, int position) {
+
+		return update.get(STONES + position) & 0xff;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.simpsonn.mancala.controller;
+
+import com.simpsonn.mancala.engine.IllegalMove;
+
+/**
+ * thrown when a single move requested through the api breaks the rules, it is
+ * an illegal argument so the error controller sends it back as a bad request.
+ *
+ * an illegal move is the player's mistake rather than a fault in the code so
+ * the stack trace would never be looked at, it is not filled in as that is
+ * most of the cost of throwing
+ */
+public class IllegalMoveException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int reason;
+
+	/**
+	 * @param reason - the {@link IllegalMove} reason the move was refused
+	 */
+	public IllegalMoveException(int reason) {
+
+		super(IllegalMove.describe(reason));
+		this.reason = reason;
+	}
+
+	/**
+	 * @return the {@link IllegalMove} reason the move was refused
+	 */
+	public int getReason() {
+
+		return reason;
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+
+		return this;
+	}
+
+}
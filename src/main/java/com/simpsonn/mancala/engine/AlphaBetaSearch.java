@@ -0,0 +1,327 @@
+package com.simpsonn.mancala.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * looks ahead through the possible moves from a position to find the best one,
+ * using an iterative deepening alpha-beta search. The search goes one move
+ * deeper each time round until it runs out of time, and if it runs out part way
+ * through it uses the answer from the last search it finished.
+ *
+ * a position is just the array of stone counts, the search keeps one array for
+ * every level it can reach and copies the position down a level to try a move,
+ * so it never creates any objects while it is searching. Scores are the number
+ * of stones the player to move is ahead by in their kalah, when the game ends
+ * the remaining stones are swept up first so the score is the real final
+ * margin.
+ *
+ * a search can be given a {@link TranspositionTable} to remember positions it
+ * has already searched, each position is identified by its {@link Zobrist}
+ * key which is updated as moves are made rather than worked out again. The
+ * table can be shared with other searches.
+ *
+ * a search can also be given an {@link EndgameDatabase}, once few enough
+ * stones are left in the pits the result is looked up instead of searched.
+ *
+ * several searches of the same position can run at once on different threads
+ * sharing one table, each finding results the others can use (lazy SMP). The
+ * helper searches are given a thread index so they start at a different depth
+ * and try the moves at the root in a different order to the main search, and
+ * a stop signal so they can be stopped when the main search finishes.
+ *
+ * a search holds its own working state so one instance must only be used by
+ * one thread at a time, it can be used again for as many searches as needed
+ */
+public class AlphaBetaSearch {
+
+	public static final int MAX_DEPTH = 64;
+
+	// higher than any score, there are only 72 stones on the board
+	private static final int INFINITY = 1000;
+	// positions this close to the horizon are quicker to search again than to look up
+	private static final int MIN_TABLE_DEPTH = 3;
+	// how many positions to look at between checking the clock
+	private static final long CLOCK_CHECK_MASK = (1 << 12) - 1;
+	// try the pits closest to the kalah first, they are the ones most likely to give an extra turn
+	private static final int[][] MOVE_ORDER = new int[2][BoardTopology.PITS_PER_PLAYER];
+
+	static {
+		for (int player = BoardTopology.PLAYER_1; player <= BoardTopology.PLAYER_2; player++) {
+			for (int i = 0; i < BoardTopology.PITS_PER_PLAYER; i++) {
+				MOVE_ORDER[player][i] = BoardTopology.kalah(player) - 1 - i;
+			}
+		}
+	}
+
+	private final int[][] boards = new int[MAX_DEPTH + 1][BoardTopology.POSITIONS];
+	private final TranspositionTable table;
+	private final EndgameDatabase endgame;
+	private final int threadIndex;
+	private final AtomicBoolean stopSignal;
+	private long nodes;
+	private long probes;
+	private long hits;
+	private boolean timed;
+	private long deadline;
+	private boolean stopped;
+	private boolean horizonReached;
+
+	/**
+	 * create a search which does not remember positions between moves
+	 */
+	public AlphaBetaSearch() {
+
+		this(null);
+	}
+
+	/**
+	 * create a search which remembers positions in the given table
+	 * @param table - the table to use, it may be shared with other searches
+	 */
+	public AlphaBetaSearch(TranspositionTable table) {
+
+		this(table, 0, null);
+	}
+
+	/**
+	 * create a search which runs alongside others on the same position
+	 * @param table - the table to use, shared with the other searches
+	 * @param threadIndex - 0 for the main search, 1 and up for the helpers
+	 * @param stopSignal - set to stop the search as soon as possible, may be null
+	 */
+	public AlphaBetaSearch(TranspositionTable table, int threadIndex, AtomicBoolean stopSignal) {
+
+		this(table, null, threadIndex, stopSignal);
+	}
+
+	/**
+	 * create a search which runs alongside others on the same position and looks up endings
+	 * @param table - the table to use, shared with the other searches, may be null
+	 * @param endgame - the endings to look up, may be null
+	 * @param threadIndex - 0 for the main search, 1 and up for the helpers
+	 * @param stopSignal - set to stop the search as soon as possible, may be null
+	 */
+	public AlphaBetaSearch(TranspositionTable table, EndgameDatabase endgame, int threadIndex, AtomicBoolean stopSignal) {
+
+		this.table = table;
+		this.endgame = endgame;
+		this.threadIndex = threadIndex;
+		this.stopSignal = stopSignal;
+	}
+
+	/**
+	 * search to a fixed depth however long it takes
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @param maxDepth - how many moves to look ahead, up to {@link #MAX_DEPTH}
+	 * @return the best move found
+	 */
+	public SearchResult search(int[] stones, int player, int maxDepth) {
+
+		timed = false;
+		return iterativeDeepening(stones, player, maxDepth);
+	}
+
+	/**
+	 * search deeper and deeper until the deadline passes or the maximum depth is reached
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @param maxDepth - the most moves to look ahead, up to {@link #MAX_DEPTH}
+	 * @param deadline - when to stop, in the same terms as {@link System#nanoTime()}
+	 * @return the best move found by the deepest search which finished in time
+	 */
+	public SearchResult search(int[] stones, int player, int maxDepth, long deadline) {
+
+		timed = true;
+		this.deadline = deadline;
+		return iterativeDeepening(stones, player, maxDepth);
+	}
+
+	private SearchResult iterativeDeepening(int[] stones, int player, int maxDepth) {
+
+		if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+			throw new IllegalArgumentException("the search depth must be between 1 and " + MAX_DEPTH);
+		}
+		int[] root = boards[0];
+		System.arraycopy(stones, 0, root, 0, BoardTopology.POSITIONS);
+		nodes = 0;
+		probes = 0;
+		hits = 0;
+		stopped = false;
+		long rootKey = table == null ? 0 : Zobrist.hash(root, player);
+		// only the main search starts a new search in the table, the helpers are part of the same one
+		if (table != null && threadIndex == 0) {
+			table.newSearch();
+		}
+
+		int bestPit = firstLegalPit(root, player);
+		if (bestPit < 0) {
+			throw new IllegalArgumentException("there are no moves to make from this position");
+		}
+		int bestScore = evaluate(root, player);
+		int completedDepth = 0;
+		// half of the helpers start one deeper so the threads are not all working on the same depth
+		int firstDepth = Math.min(maxDepth, 1 + (threadIndex & 1));
+		for (int depth = firstDepth; depth <= maxDepth; depth++) {
+			horizonReached = false;
+			int alpha = -INFINITY;
+			int iterationPit = -1;
+			// the best move from the last search is most likely to be best again, so try it first
+			for (int i = -1; i < BoardTopology.PITS_PER_PLAYER && !stopped; i++) {
+				int pit = i < 0 ? bestPit : MOVE_ORDER[player][(i + threadIndex) % BoardTopology.PITS_PER_PLAYER];
+				if ((i >= 0 && pit == bestPit) || root[pit] == 0) {
+					continue;
+				}
+				int score = play(0, depth, alpha, INFINITY, player, pit, rootKey);
+				if (score > alpha && !stopped) {
+					alpha = score;
+					iterationPit = pit;
+				}
+			}
+			if (stopped) {
+				break;
+			}
+			bestPit = iterationPit;
+			bestScore = alpha;
+			completedDepth = depth;
+			// every line was played through to the end of the game so looking deeper will not change anything
+			if (!horizonReached) {
+				break;
+			}
+		}
+		if (table != null) {
+			table.recordProbes(probes, hits);
+		}
+		return new SearchResult(bestPit, bestScore, completedDepth, nodes);
+	}
+
+	// the best score the player to move can get from the position at this ply
+	private int search(int ply, int depth, int alpha, int beta, int player, long key) {
+
+		if ((++nodes & CLOCK_CHECK_MASK) == 0 && isTimeToStop()) {
+			stopped = true;
+		}
+		if (stopped) {
+			return 0;
+		}
+		int[] board = boards[ply];
+		// the rest of the game has already been worked out, this is exact so it does not count as reaching the horizon
+		if (endgame != null && endgame.contains(board)) {
+			return evaluate(board, player) + endgame.probe(board, player);
+		}
+		if (depth == 0) {
+			horizonReached = true;
+			return evaluate(board, player);
+		}
+
+		boolean useTable = table != null && depth >= MIN_TABLE_DEPTH;
+		int tableMove = TranspositionTable.NO_MOVE;
+		if (useTable) {
+			probes++;
+			long entry = table.probe(key);
+			if (entry != 0) {
+				hits++;
+				tableMove = TranspositionTable.move(entry);
+				// two positions can share a key, so never trust the move to be one of this player's pits
+				if (tableMove != TranspositionTable.NO_MOVE
+						&& (BoardTopology.isKalah(tableMove) || BoardTopology.owner(tableMove) != player)) {
+					tableMove = TranspositionTable.NO_MOVE;
+				}
+				int entryDepth = TranspositionTable.depth(entry);
+				if (entryDepth >= depth) {
+					int score = TranspositionTable.score(entry);
+					int bound = TranspositionTable.bound(entry);
+					if (bound == TranspositionTable.EXACT
+							|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+							|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+						if (entryDepth != TranspositionTable.SOLVED) {
+							horizonReached = true;
+						}
+						return score;
+					}
+				}
+			}
+		}
+
+		// keep track of whether this position on its own reached the horizon, if
+		// not it has been solved and the result holds however deep it is searched
+		boolean horizonReachedBefore = horizonReached;
+		horizonReached = false;
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestPit = TranspositionTable.NO_MOVE;
+		// the best move found last time this position was searched is tried first
+		for (int i = -1; i < BoardTopology.PITS_PER_PLAYER; i++) {
+			int pit = i < 0 ? tableMove : MOVE_ORDER[player][i];
+			if (pit == TranspositionTable.NO_MOVE || (i >= 0 && pit == tableMove) || board[pit] == 0) {
+				continue;
+			}
+			int score = play(ply, depth, alpha, beta, player, pit, key);
+			if (score > best) {
+				best = score;
+				bestPit = pit;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		boolean solved = !horizonReached;
+		horizonReached |= horizonReachedBefore;
+
+		if (useTable && !stopped) {
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+					: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			table.store(key, solved ? TranspositionTable.SOLVED : depth, best, bound, bestPit);
+		}
+		return best;
+	}
+
+	/*
+	 * make a move on a copy of the position at this ply and score it for the
+	 * player who made it. An extra turn means the same player moves again so the
+	 * score and the window are passed straight through instead of being flipped
+	 */
+	private int play(int ply, int depth, int alpha, int beta, int player, int pit, long key) {
+
+		int[] board = boards[ply];
+		int[] child = boards[ply + 1];
+		System.arraycopy(board, 0, child, 0, BoardTopology.POSITIONS);
+		int outcome = KalahRules.sow(child, player, pit);
+		if (KalahRules.finishIfOver(child)) {
+			nodes++;
+			return evaluate(child, player);
+		}
+		long childKey = table == null || depth - 1 < MIN_TABLE_DEPTH ? 0 : Zobrist.update(key, board, child);
+		if (MoveOutcome.isExtraTurn(outcome)) {
+			return search(ply + 1, depth - 1, alpha, beta, player, childKey);
+		}
+		return -search(ply + 1, depth - 1, -beta, -alpha, BoardTopology.otherPlayer(player), Zobrist.changePlayer(childKey));
+	}
+
+	private boolean isTimeToStop() {
+
+		return (timed && System.nanoTime() - deadline > 0) || (stopSignal != null && stopSignal.get());
+	}
+
+	// how many stones the player is ahead by in their kalah
+	private static int evaluate(int[] board, int player) {
+
+		return board[BoardTopology.kalah(player)] - board[BoardTopology.kalah(BoardTopology.otherPlayer(player))];
+	}
+
+	private static int firstLegalPit(int[] board, int player) {
+
+		for (int i = 0; i < BoardTopology.PITS_PER_PLAYER; i++) {
+			if (board[MOVE_ORDER[player][i]] != 0) {
+				return MOVE_ORDER[player][i];
+			}
+		}
+		return -1;
+	}
+
+}
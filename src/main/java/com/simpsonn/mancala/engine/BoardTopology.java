@@ -0,0 +1,125 @@
+package com.simpsonn.mancala.engine;
+
+import com.simpsonn.mancala.model.components.Board;
+
+/**
+ * the layout of a kalah board worked out once and shared by every game. The
+ * board positions are numbered like this:
+ *
+ * <pre>
+ *  (13) 12 11 10  9  8  7
+ *        0  1  2  3  4  5 (6)
+ * </pre>
+ *
+ * players are numbered 0 for player 1 and 1 for player 2 (the ordinal of their
+ * player id). Everything the rules need to know about the board, such as where
+ * the next stone is sown or which pit is opposite, is a lookup in one of the
+ * tables here so a move never has to search the board.
+ */
+public final class BoardTopology {
+
+	public static final int PITS_PER_PLAYER = Board.NUMBER_OF_PITS;
+	public static final int POSITIONS = Board.NUMBER_OF_COMPONENTS;
+	// the number of positions a player sows into on one lap of the board, every position but the opponent's kalah
+	public static final int SOWING_LAP = POSITIONS - 1;
+	public static final int PLAYER_1 = 0;
+	public static final int PLAYER_2 = 1;
+
+	private static final int[] KALAH = {PITS_PER_PLAYER, POSITIONS - 1};
+	private static final int[] FIRST_PIT = {0, PITS_PER_PLAYER + 1};
+	private static final int[] OWNER = new int[POSITIONS];
+	private static final int[] OPPOSITE = new int[POSITIONS];
+	private static final int[][] NEXT = new int[2][POSITIONS];
+
+	static {
+		for (int position = 0; position < POSITIONS; position++) {
+			OWNER[position] = position <= KALAH[PLAYER_1] ? PLAYER_1 : PLAYER_2;
+			OPPOSITE[position] = isKalah(position) ? -1 : (POSITIONS - 2) - position;
+		}
+		for (int player = PLAYER_1; player <= PLAYER_2; player++) {
+			for (int position = 0; position < POSITIONS; position++) {
+				// players never sow into their opponent's kalah, so step over it
+				int next = (position + 1) % POSITIONS;
+				if (next == KALAH[otherPlayer(player)]) {
+					next = (next + 1) % POSITIONS;
+				}
+				NEXT[player][position] = next;
+			}
+		}
+	}
+
+	private BoardTopology() {
+	}
+
+	/**
+	 * get the position of a player's kalah
+	 * @param player - the player, 0 or 1
+	 * @return the position of their kalah
+	 */
+	public static int kalah(int player) {
+
+		return KALAH[player];
+	}
+
+	/**
+	 * get the position of the first (leftmost) pit on a player's side
+	 * @param player - the player, 0 or 1
+	 * @return the position of their first pit, the rest follow it up to their kalah
+	 */
+	public static int firstPit(int player) {
+
+		return FIRST_PIT[player];
+	}
+
+	/**
+	 * get the position a player sows into after the given one
+	 * @param player - the player who is sowing, 0 or 1
+	 * @param position - the position the last stone went into
+	 * @return the position the next stone goes into
+	 */
+	public static int next(int player, int position) {
+
+		return NEXT[player][position];
+	}
+
+	/**
+	 * get the pit directly across the board from the given pit
+	 * @param pit - the position of a pit
+	 * @return the position of the opposite pit, or -1 if given a kalah
+	 */
+	public static int opposite(int pit) {
+
+		return OPPOSITE[pit];
+	}
+
+	/**
+	 * get the player who owns a position on the board
+	 * @param position - the position of a pit or kalah
+	 * @return the owning player, 0 or 1
+	 */
+	public static int owner(int position) {
+
+		return OWNER[position];
+	}
+
+	/**
+	 * check if a position on the board is a kalah
+	 * @param position - the position to check
+	 * @return true if it is a kalah, false if it is a pit
+	 */
+	public static boolean isKalah(int position) {
+
+		return position == KALAH[PLAYER_1] || position == KALAH[PLAYER_2];
+	}
+
+	/**
+	 * get the other player
+	 * @param player - a player, 0 or 1
+	 * @return their opponent
+	 */
+	public static int otherPlayer(int player) {
+
+		return player ^ 1;
+	}
+
+}
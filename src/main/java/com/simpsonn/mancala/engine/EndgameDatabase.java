@@ -0,0 +1,247 @@
+package com.simpsonn.mancala.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * the exact result of every position with only a few stones left in the pits,
+ * worked out ahead of time by {@link EndgameDatabaseGenerator}, so that a
+ * search can look the result up instead of searching to the end of the game.
+ *
+ * stones in a kalah never leave it, so how the rest of the game goes only
+ * depends on the stones still in the pits and who is to move. The database
+ * holds one byte for each arrangement of up to {@link #getMaxStones()} stones
+ * in the twelve pits, always seen from the side of the player to move. The
+ * byte is how many more of those stones the player to move gets into their
+ * kalah than their opponent does with perfect play from both sides.
+ *
+ * positions are numbered by the number of stones in the pits and then by the
+ * place of the arrangement in the list of all arrangements of that many
+ * stones, so finding a position is a few table lookups. A saved database is
+ * memory mapped rather than read in, so it is not copied onto the heap and
+ * only the parts which are used are read from disk.
+ */
+public class EndgameDatabase {
+
+	// the most stones the position numbering supports, the file size grows very quickly with this
+	public static final int MAX_SUPPORTED_STONES = 24;
+
+	static final int PITS = 2 * BoardTopology.PITS_PER_PLAYER;
+	static final long MAGIC = 0x4b414c4148454442L;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = Long.BYTES + 2 * Integer.BYTES + Long.BYTES;
+
+	// BINOMIAL[n][k] is n choose k, enough for every count the numbering needs
+	private static final long[][] BINOMIAL = new long[MAX_SUPPORTED_STONES + PITS + 1][PITS + 1];
+
+	static {
+		for (int n = 0; n < BINOMIAL.length; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= Math.min(n, PITS); k++) {
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+			}
+		}
+	}
+
+	private final int maxStones;
+	private final ByteBuffer values;
+
+	EndgameDatabase(int maxStones, ByteBuffer values) {
+
+		if (values.capacity() != countPositions(maxStones)) {
+			throw new IllegalArgumentException("the endgame database for " + maxStones + " stones must have "
+					+ countPositions(maxStones) + " positions");
+		}
+		this.maxStones = maxStones;
+		this.values = values;
+	}
+
+	/**
+	 * memory map a database saved by {@link #save(Path)}
+	 *
+	 * @param path - the database file
+	 * @return the database
+	 * @throws IOException if the file cannot be read or is not an endgame database
+	 */
+	public static EndgameDatabase load(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// keep reading until the header is full or the file ends
+			}
+			header.flip();
+			if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+				throw new IOException(path + " is not an endgame database");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(path + " is endgame database version " + version + ", expected " + VERSION);
+			}
+			int maxStones = header.getInt();
+			long positions = header.getLong();
+			if (maxStones < 0 || maxStones > MAX_SUPPORTED_STONES || positions != countPositions(maxStones)
+					|| channel.size() != HEADER_BYTES + positions) {
+				throw new IOException(path + " is not a complete endgame database");
+			}
+			// the mapping stays valid after the channel is closed
+			return new EndgameDatabase(maxStones, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, positions));
+		}
+	}
+
+	/**
+	 * write the database to a file which can be loaded again with {@link #load(Path)}
+	 *
+	 * @param path - the file to write, replaced if it already exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+			header.putLong(MAGIC).putInt(VERSION).putInt(maxStones).putLong(values.capacity()).flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+			ByteBuffer body = values.duplicate();
+			body.clear();
+			while (body.hasRemaining()) {
+				channel.write(body);
+			}
+		}
+	}
+
+	/**
+	 * check if a position is in the database
+	 *
+	 * @param stones - the stone counts
+	 * @return true if there are few enough stones left in the pits
+	 */
+	public boolean contains(int[] stones) {
+
+		int remaining = 0;
+		for (int pit = 0; pit < BoardTopology.POSITIONS; pit++) {
+			if (!BoardTopology.isKalah(pit)) {
+				remaining += stones[pit];
+			}
+		}
+		return remaining <= maxStones;
+	}
+
+	/**
+	 * look up how the rest of the game goes from a position, it must be one the
+	 * database {@link #contains(int[])}
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @return how many more of the stones left in the pits the player to move will
+	 *         get into their kalah than their opponent
+	 */
+	public int probe(int[] stones, int player) {
+
+		int mover = BoardTopology.firstPit(player);
+		int opponent = BoardTopology.firstPit(BoardTopology.otherPlayer(player));
+		int remaining = 0;
+		for (int i = 0; i < BoardTopology.PITS_PER_PLAYER; i++) {
+			remaining += stones[mover + i] + stones[opponent + i];
+		}
+		long index = levelOffset(remaining);
+		int left = remaining;
+		for (int i = 0; i < PITS - 1 && left > 0; i++) {
+			int count = i < BoardTopology.PITS_PER_PLAYER ? stones[mover + i] : stones[opponent + i - BoardTopology.PITS_PER_PLAYER];
+			index += rankPart(left, count, PITS - 1 - i);
+			left -= count;
+		}
+		return values.get((int) index);
+	}
+
+	/**
+	 * @return the most stones there can be in the pits for a position to be in the database
+	 */
+	public int getMaxStones() {
+
+		return maxStones;
+	}
+
+	/**
+	 * @param maxStones - the most stones left in the pits
+	 * @return the number of positions with up to that many stones left in the pits
+	 */
+	public static long countPositions(int maxStones) {
+
+		return levelOffset(maxStones + 1);
+	}
+
+	// the number of positions with fewer than this many stones in the pits, where the positions with this many start
+	static long levelOffset(int stones) {
+
+		return BINOMIAL[stones + PITS - 1][PITS];
+	}
+
+	// the number of arrangements of this many stones in the twelve pits
+	static long levelSize(int stones) {
+
+		return BINOMIAL[stones + PITS - 1][PITS - 1];
+	}
+
+	/*
+	 * arrangements are numbered in order of the count in the first pit, then the
+	 * second and so on. With this many stones left to place and this many pits
+	 * after this one, this is how many arrangements have fewer stones in this
+	 * pit, which works out as the difference of two binomials
+	 */
+	private static long rankPart(int left, int count, int pitsAfter) {
+
+		return BINOMIAL[left + pitsAfter][pitsAfter] - BINOMIAL[left - count + pitsAfter][pitsAfter];
+	}
+
+	/**
+	 * work out the place of an arrangement in the list of all arrangements of the same number of stones
+	 *
+	 * @param pits - the counts in the twelve pits, the player to move's first
+	 * @param stones - the total of the counts
+	 * @return the place of the arrangement starting from 0
+	 */
+	static long rank(int[] pits, int stones) {
+
+		long rank = 0;
+		int left = stones;
+		for (int i = 0; i < PITS - 1 && left > 0; i++) {
+			rank += rankPart(left, pits[i], PITS - 1 - i);
+			left -= pits[i];
+		}
+		return rank;
+	}
+
+	/**
+	 * the opposite of {@link #rank(int[], int)}, fill in the arrangement at a place in the list
+	 *
+	 * @param rank - the place of the arrangement
+	 * @param stones - the number of stones in the arrangement
+	 * @param pits - filled in with the counts in the twelve pits
+	 */
+	static void unrank(long rank, int stones, int[] pits) {
+
+		int left = stones;
+		for (int i = 0; i < PITS - 1; i++) {
+			int pitsAfter = PITS - 1 - i;
+			int count = 0;
+			// skip past the arrangements with fewer stones in this pit
+			long withCount = BINOMIAL[left + pitsAfter - 1][pitsAfter - 1];
+			while (rank >= withCount) {
+				rank -= withCount;
+				count++;
+				withCount = BINOMIAL[left - count + pitsAfter - 1][pitsAfter - 1];
+			}
+			pits[i] = count;
+			left -= count;
+		}
+		pits[PITS - 1] = left;
+	}
+
+}
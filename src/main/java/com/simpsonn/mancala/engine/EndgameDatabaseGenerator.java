@@ -0,0 +1,191 @@
+package com.simpsonn.mancala.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * works out every position for an {@link EndgameDatabase} by retrograde
+ * analysis, starting from the positions nearest the end of the game and
+ * working backwards so every position a move can lead to is already solved.
+ *
+ * a move either puts at least one stone into a kalah, leaving fewer stones in
+ * the pits, or just moves stones along the player's own side towards their
+ * kalah. So positions are solved in order of the number of stones in the
+ * pits, and positions with the same number of stones are solved in order of
+ * how far their stones are from the kalahs, from nearest to furthest. Within
+ * one of those groups no position can lead to another, so each group is solved
+ * in parallel.
+ *
+ * run it from the command line with the file to write and the most stones to
+ * leave in the pits, for example
+ * <pre>
+ * java -cp target/classes com.simpsonn.mancala.engine.EndgameDatabaseGenerator endgame.db 16
+ * </pre>
+ */
+public class EndgameDatabaseGenerator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EndgameDatabaseGenerator.class);
+
+	private static final int PITS_PER_PLAYER = BoardTopology.PITS_PER_PLAYER;
+	private static final int KALAH = BoardTopology.kalah(BoardTopology.PLAYER_1);
+
+	private final int maxStones;
+	private final byte[] values;
+
+	private EndgameDatabaseGenerator(int maxStones) {
+
+		this.maxStones = maxStones;
+		this.values = new byte[(int) EndgameDatabase.countPositions(maxStones)];
+	}
+
+	/**
+	 * solve every position with up to the given number of stones left in the pits
+	 *
+	 * @param maxStones - the most stones left in the pits
+	 * @return the database, held on the heap
+	 */
+	public static EndgameDatabase generate(int maxStones) {
+
+		if (maxStones < 0 || maxStones > EndgameDatabase.MAX_SUPPORTED_STONES) {
+			throw new IllegalArgumentException("the endgame database can hold between 0 and "
+					+ EndgameDatabase.MAX_SUPPORTED_STONES + " stones");
+		}
+		EndgameDatabaseGenerator generator = new EndgameDatabaseGenerator(maxStones);
+		for (int stones = 0; stones <= maxStones; stones++) {
+			long start = System.nanoTime();
+			generator.solveLevel(stones);
+			LOG.info("solved [{}] positions with [{}] stones in [{}] ms", EndgameDatabase.levelSize(stones), stones,
+					(System.nanoTime() - start) / 1_000_000);
+		}
+		return new EndgameDatabase(maxStones, ByteBuffer.wrap(generator.values));
+	}
+
+	/**
+	 * generate a database and save it
+	 *
+	 * @param args - the file to write and the most stones left in the pits
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length != 2) {
+			System.err.println("usage: EndgameDatabaseGenerator <file> <max stones>");
+			System.exit(1);
+		}
+		Path path = Paths.get(args[0]);
+		generate(Integer.parseInt(args[1])).save(path);
+		LOG.info("endgame database written to [{}]", path.toAbsolutePath());
+	}
+
+	// solve every position with this many stones in the pits, nearest the kalahs first
+	private void solveLevel(int stones) {
+
+		int size = (int) EndgameDatabase.levelSize(stones);
+		int offset = (int) EndgameDatabase.levelOffset(stones);
+		int maxDistance = stones * (PITS_PER_PLAYER - 1);
+
+		// sort the positions by distance with a counting sort
+		int[] distances = new int[size];
+		IntStream.range(0, size).parallel().forEach(rank -> {
+			int[] pits = new int[EndgameDatabase.PITS];
+			EndgameDatabase.unrank(rank, stones, pits);
+			distances[rank] = distance(pits);
+		});
+		int[] groupStart = new int[maxDistance + 2];
+		for (int distance : distances) {
+			groupStart[distance + 1]++;
+		}
+		for (int distance = 0; distance <= maxDistance; distance++) {
+			groupStart[distance + 1] += groupStart[distance];
+		}
+		int[] ordered = new int[size];
+		int[] next = groupStart.clone();
+		for (int rank = 0; rank < size; rank++) {
+			ordered[next[distances[rank]]++] = rank;
+		}
+
+		for (int distance = 0; distance <= maxDistance; distance++) {
+			IntStream.range(groupStart[distance], groupStart[distance + 1]).parallel().forEach(i -> {
+				int rank = ordered[i];
+				values[offset + rank] = (byte) solve(rank, stones);
+			});
+		}
+	}
+
+	/*
+	 * how far the stones are from the kalahs, a move which leaves the same
+	 * number of stones in the pits always makes this smaller. It is the same
+	 * seen from either side so it does not matter whose turn it is
+	 */
+	private static int distance(int[] pits) {
+
+		int distance = 0;
+		for (int i = 0; i < PITS_PER_PLAYER; i++) {
+			int stepsToKalah = PITS_PER_PLAYER - 1 - i;
+			distance += (pits[i] + pits[PITS_PER_PLAYER + i]) * stepsToKalah;
+		}
+		return distance;
+	}
+
+	// play every move from a position and keep the best, the player to move is always player 1
+	private int solve(long rank, int stones) {
+
+		int[] pits = new int[EndgameDatabase.PITS];
+		EndgameDatabase.unrank(rank, stones, pits);
+		int[] board = new int[BoardTopology.POSITIONS];
+		int moverStones = 0;
+		int opponentStones = 0;
+		for (int i = 0; i < PITS_PER_PLAYER; i++) {
+			board[i] = pits[i];
+			board[KALAH + 1 + i] = pits[PITS_PER_PLAYER + i];
+			moverStones += pits[i];
+			opponentStones += pits[PITS_PER_PLAYER + i];
+		}
+		// a game never carries on with either side empty, everybody keeps what is on their side
+		if (moverStones == 0 || opponentStones == 0) {
+			return moverStones - opponentStones;
+		}
+
+		int best = Integer.MIN_VALUE;
+		int[] child = new int[BoardTopology.POSITIONS];
+		for (int pit = 0; pit < PITS_PER_PLAYER; pit++) {
+			if (board[pit] == 0) {
+				continue;
+			}
+			System.arraycopy(board, 0, child, 0, BoardTopology.POSITIONS);
+			int outcome = KalahRules.sow(child, BoardTopology.PLAYER_1, pit);
+			int score;
+			if (KalahRules.finishIfOver(child)) {
+				score = child[KALAH] - child[BoardTopology.kalah(BoardTopology.PLAYER_2)];
+			} else if (MoveOutcome.isExtraTurn(outcome)) {
+				score = child[KALAH] + lookUp(child, false);
+			} else {
+				score = child[KALAH] - lookUp(child, true);
+			}
+			best = Math.max(best, score);
+		}
+		return best;
+	}
+
+	// the value of a position which has already been solved, swapping sides if it is player 2 to move
+	private int lookUp(int[] board, boolean swapSides) {
+
+		int[] pits = new int[EndgameDatabase.PITS];
+		int stones = 0;
+		for (int i = 0; i < PITS_PER_PLAYER; i++) {
+			int player1Pit = board[i];
+			int player2Pit = board[KALAH + 1 + i];
+			pits[i] = swapSides ? player2Pit : player1Pit;
+			pits[PITS_PER_PLAYER + i] = swapSides ? player1Pit : player2Pit;
+			stones += player1Pit + player2Pit;
+		}
+		return values[(int) (EndgameDatabase.levelOffset(stones) + EndgameDatabase.rank(pits, stones))];
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.simpsonn.mancala.engine;
+
+/**
+ * the reasons a move can break the rules, returned as codes rather than thrown
+ * as exceptions so that refusing a move costs no more than making one
+ */
+public final class IllegalMove {
+
+	public static final int NONE = 0;
+	public static final int OFF_BOARD = 1;
+	public static final int KALAH = 2;
+	public static final int NOT_YOUR_PIT = 3;
+	public static final int EMPTY_PIT = 4;
+
+	private static final String[] MESSAGES = {
+			"the move is allowed",
+			"the pit number must be between 1 and " + BoardTopology.POSITIONS,
+			"you cannot start your turn at a kalah",
+			"that pit does not belong to you",
+			"please choose a pit which is not empty"
+	};
+
+	private IllegalMove() {
+	}
+
+	/**
+	 * @param reason - the reason a move was refused
+	 * @return the message to show the player
+	 */
+	public static String describe(int reason) {
+
+		if (reason < 0 || reason >= MESSAGES.length) {
+			throw new IllegalArgumentException("unknown illegal move reason " + reason);
+		}
+		return MESSAGES[reason];
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.simpsonn.mancala.engine;
+
+/**
+ * the rules of kalah worked directly on an array of stone counts laid out as
+ * described in {@link BoardTopology}. Nothing here knows about games, players
+ * or logging, so the same rules can drive real games through the game
+ * controller and the millions of positions a search looks at without creating
+ * any objects.
+ *
+ * sowing does not check that a move is legal, callers must make sure the pit
+ * belongs to the player and is not empty, see {@link #checkMove(int[], int, int)}
+ * and {@link #legalMoves(int[], int)}
+ */
+public final class KalahRules {
+
+	private KalahRules() {
+	}
+
+	/**
+	 * pick up all the stones in a pit and sow them anti-clockwise around the
+	 * board, capturing if the last stone lands in one of the player's own empty
+	 * pits
+	 *
+	 * @param stones - the stone counts, updated in place
+	 * @param player - the player making the move, 0 or 1
+	 * @param pit - the position of the pit to start from
+	 * @return the {@link MoveOutcome} flags, either an extra turn, a capture or neither
+	 */
+	public static int sow(int[] stones, int player, int pit) {
+
+		// pick up the stones at this pit
+		int stonesInHand = stones[pit];
+		stones[pit] = 0;
+
+		// a full lap of the board puts one stone in every position the player sows
+		// into, including the pit we started from, so do all of the full laps at once
+		int laps = stonesInHand / BoardTopology.SOWING_LAP;
+		if (laps > 0) {
+			int opponentKalah = BoardTopology.kalah(BoardTopology.otherPlayer(player));
+			for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+				if (position != opponentKalah) {
+					stones[position] += laps;
+				}
+			}
+			stonesInHand -= laps * BoardTopology.SOWING_LAP;
+		}
+
+		// sow the rest of the stones one at a time, the topology already skips the
+		// opponent's kalah. If there are none left the last stone of the final lap
+		// went back into the pit we started from
+		int position = pit;
+		while (stonesInHand > 0) {
+			position = BoardTopology.next(player, position);
+			stones[position]++;
+			stonesInHand--;
+		}
+
+		int kalah = BoardTopology.kalah(player);
+		if (position == kalah) {
+			return MoveOutcome.EXTRA_TURN;
+		}
+		// the last stone went into one of the player's own empty pits, so it and the
+		// stones in the pit opposite are captured into the player's kalah
+		if (BoardTopology.owner(position) == player && stones[position] == 1) {
+			int opposite = BoardTopology.opposite(position);
+			stones[kalah] += stones[position] + stones[opposite];
+			stones[position] = 0;
+			stones[opposite] = 0;
+			return MoveOutcome.CAPTURE;
+		}
+		return MoveOutcome.NONE;
+	}
+
+	/**
+	 * find every pit a player can start a move from, which is every one of their
+	 * pits with stones in it. This always looks at exactly six pits and never
+	 * branches
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @return a bitmask with the bit for each legal pit's position set, 0 if there are none
+	 */
+	public static int legalMoves(int[] stones, int player) {
+
+		int legal = 0;
+		for (int pit = BoardTopology.firstPit(player); pit < BoardTopology.kalah(player); pit++) {
+			// stone counts are never negative, so the sign bit of minus the count is set exactly when the pit has stones
+			legal |= (-stones[pit] >>> 31) << pit;
+		}
+		return legal;
+	}
+
+	/**
+	 * check a move can be made without throwing an exception if it cannot
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @param pit - the position of the pit to start from, which may be off the board
+	 * @return {@link IllegalMove#NONE} if the move can be made, otherwise the reason it cannot
+	 */
+	public static int checkMove(int[] stones, int player, int pit) {
+
+		if (pit < 0 || pit >= BoardTopology.POSITIONS) {
+			return IllegalMove.OFF_BOARD;
+		}
+		if (BoardTopology.isKalah(pit)) {
+			return IllegalMove.KALAH;
+		}
+		if (BoardTopology.owner(pit) != player) {
+			return IllegalMove.NOT_YOUR_PIT;
+		}
+		if (stones[pit] == 0) {
+			return IllegalMove.EMPTY_PIT;
+		}
+		return IllegalMove.NONE;
+	}
+
+	/**
+	 * if either player has no stones left in their pits the game is over and
+	 * each player's remaining stones are moved into their own kalah
+	 *
+	 * @param stones - the stone counts, updated in place
+	 * @return true if the game is over
+	 */
+	public static boolean finishIfOver(int[] stones) {
+
+		if (countPitStones(stones, BoardTopology.PLAYER_1) != 0 && countPitStones(stones, BoardTopology.PLAYER_2) != 0) {
+			return false;
+		}
+		sweepPits(stones, BoardTopology.PLAYER_1);
+		sweepPits(stones, BoardTopology.PLAYER_2);
+		return true;
+	}
+
+	/**
+	 * count the stones a player has left in their pits, not counting their kalah
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player, 0 or 1
+	 * @return the number of stones in the player's pits
+	 */
+	public static int countPitStones(int[] stones, int player) {
+
+		int total = 0;
+		for (int pit = BoardTopology.firstPit(player); pit < BoardTopology.kalah(player); pit++) {
+			total += stones[pit];
+		}
+		return total;
+	}
+
+	// move all the stones in a player's pits into their kalah
+	private static void sweepPits(int[] stones, int player) {
+
+		int kalah = BoardTopology.kalah(player);
+		for (int pit = BoardTopology.firstPit(player); pit < kalah; pit++) {
+			stones[kalah] += stones[pit];
+			stones[pit] = 0;
+		}
+	}
+
+}
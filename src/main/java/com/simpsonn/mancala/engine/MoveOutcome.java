@@ -0,0 +1,79 @@
+package com.simpsonn.mancala.engine;
+
+/**
+ * flags describing what happened during a move. A move can have more than one
+ * outcome at once, for example a capture which ends the game, so the outcome
+ * of a move is returned as an int with a bit set for each thing that happened.
+ *
+ * a move which breaks the rules is not made and has the {@link #ILLEGAL} flag
+ * set, with the {@link IllegalMove} reason in the bits above the flags, so
+ * refusing a move does not need an exception
+ */
+public final class MoveOutcome {
+
+	public static final int NONE = 0;
+	public static final int EXTRA_TURN = 1;
+	public static final int CAPTURE = 1 << 1;
+	public static final int GAME_OVER = 1 << 2;
+	public static final int ILLEGAL = 1 << 3;
+
+	private static final int REASON_SHIFT = 4;
+
+	private MoveOutcome() {
+	}
+
+	/**
+	 * @param outcome - the outcome of a move
+	 * @return true if the player gets another turn
+	 */
+	public static boolean isExtraTurn(int outcome) {
+
+		return (outcome & EXTRA_TURN) != 0;
+	}
+
+	/**
+	 * @param outcome - the outcome of a move
+	 * @return true if the player captured stones from an opponent's pit
+	 */
+	public static boolean isCapture(int outcome) {
+
+		return (outcome & CAPTURE) != 0;
+	}
+
+	/**
+	 * @param outcome - the outcome of a move
+	 * @return true if the move finished the game
+	 */
+	public static boolean isGameOver(int outcome) {
+
+		return (outcome & GAME_OVER) != 0;
+	}
+
+	/**
+	 * @param reason - the {@link IllegalMove} reason the move was refused
+	 * @return the outcome of a move which was refused
+	 */
+	public static int illegal(int reason) {
+
+		return ILLEGAL | (reason << REASON_SHIFT);
+	}
+
+	/**
+	 * @param outcome - the outcome of a move
+	 * @return true if the move broke the rules and was not made
+	 */
+	public static boolean isIllegal(int outcome) {
+
+		return (outcome & ILLEGAL) != 0;
+	}
+
+	/**
+	 * @param outcome - the outcome of a move
+	 * @return the {@link IllegalMove} reason the move was refused, {@link IllegalMove#NONE} if it was made
+	 */
+	public static int illegalReason(int outcome) {
+
+		return outcome >>> REASON_SHIFT;
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.simpsonn.mancala.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * the best move for positions near the start of the game, worked out ahead of
+ * time by a deep search with {@link OpeningBookGenerator}. Every game starts
+ * from the same position so the first few moves come up again and again, and
+ * with the book the computer can answer them straight away.
+ *
+ * positions are found by their {@link Zobrist} key in an open addressing hash
+ * table made of two arrays, one of keys and one of packed results, so the
+ * whole book is two objects however many positions it holds.
+ */
+public class OpeningBook {
+
+	static final long MAGIC = 0x4b414c4148424f4bL;
+	static final int VERSION = 1;
+
+	private static final long EMPTY = 0;
+	private static final int SCORE_OFFSET = 1 << 15;
+	private static final int DEPTH_SHIFT = 16;
+	private static final int PIT_SHIFT = 24;
+
+	private final long[] keys;
+	private final int[] results;
+	private final int mask;
+	private int size;
+
+	/**
+	 * create an empty book
+	 * @param maxPositions - the most positions the book will hold
+	 */
+	public OpeningBook(int maxPositions) {
+
+		// keep the table no more than half full so positions are found in a probe or two
+		int capacity = Integer.highestOneBit(Math.max(2, maxPositions) * 2 - 1) << 1;
+		keys = new long[capacity];
+		results = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * read a book written by {@link #save(OutputStream)}
+	 *
+	 * @param in - the saved book, it is not closed
+	 * @return the book
+	 * @throws IOException if the book cannot be read
+	 */
+	public static OpeningBook load(InputStream in) throws IOException {
+
+		DataInputStream data = new DataInputStream(in);
+		if (data.readLong() != MAGIC) {
+			throw new IOException("this is not an opening book");
+		}
+		int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException("this is opening book version " + version + ", expected " + VERSION);
+		}
+		int positions = data.readInt();
+		OpeningBook book = new OpeningBook(positions);
+		for (int i = 0; i < positions; i++) {
+			long key = data.readLong();
+			int result = data.readInt();
+			book.putResult(key, result);
+		}
+		return book;
+	}
+
+	/**
+	 * write the book so it can be read again with {@link #load(InputStream)}
+	 *
+	 * @param out - where to write the book, it is flushed but not closed
+	 * @throws IOException if the book cannot be written
+	 */
+	public void save(OutputStream out) throws IOException {
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeLong(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(size);
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				data.writeLong(keys[i]);
+				data.writeInt(results[i]);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * add the best move for a position, replacing any already in the book
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @param result - the result of searching the position
+	 */
+	public void put(int[] stones, int player, SearchResult result) {
+
+		int packed = (result.getScore() + SCORE_OFFSET)
+				| (result.getDepth() << DEPTH_SHIFT)
+				| (result.getPit() << PIT_SHIFT);
+		putResult(Zobrist.hash(stones, player), packed);
+	}
+
+	/**
+	 * find the best move for a position
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @return the result saved for the position or null if it is not in the book
+	 */
+	public SearchResult lookUp(int[] stones, int player) {
+
+		long key = Zobrist.hash(stones, player);
+		for (int slot = (int) key & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				int result = results[slot];
+				return new SearchResult(result >>> PIT_SHIFT, (result & 0xffff) - SCORE_OFFSET, (result >>> DEPTH_SHIFT) & 0xff, 0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of positions in the book
+	 */
+	public int size() {
+
+		return size;
+	}
+
+	private void putResult(long key, int result) {
+
+		// a key of 0 marks an empty slot, no real position is ever likely to have it
+		if (key == EMPTY) {
+			return;
+		}
+		int slot = (int) key & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY) {
+			if ((size + 1) * 2 > keys.length) {
+				throw new IllegalStateException("the opening book is full");
+			}
+			size++;
+		}
+		keys[slot] = key;
+		results[slot] = result;
+	}
+
+}
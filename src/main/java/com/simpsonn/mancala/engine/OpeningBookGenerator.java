@@ -0,0 +1,138 @@
+package com.simpsonn.mancala.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simpsonn.mancala.model.components.Board;
+import com.simpsonn.mancala.model.player.HumanPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+
+/**
+ * builds an {@link OpeningBook} by finding every position which can come up
+ * in the first few moves of a game and searching each of them to a fixed
+ * depth. The positions are searched in parallel, each with a transposition
+ * table of its own which is cleared first, so a position always gets the same
+ * result however the searches are spread over the threads.
+ *
+ * run it from the command line with the file to write, the number of moves
+ * (plies) to cover and the depth to search each position to, for example
+ * <pre>
+ * java -cp target/classes com.simpsonn.mancala.engine.OpeningBookGenerator opening-book.bin 6 16
+ * </pre>
+ */
+public class OpeningBookGenerator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OpeningBookGenerator.class);
+
+	// the size of the table each search thread uses
+	public static final int TABLE_SIZE_MEGABYTES = 16;
+
+	private OpeningBookGenerator() {
+	}
+
+	/**
+	 * build a book for the first moves of a game
+	 *
+	 * @param plies - how many moves from the start to cover, an extra turn counts as a move
+	 * @param depth - how many moves deep to search each position
+	 * @param endgame - endings to look up while searching, may be null
+	 * @return the book
+	 */
+	public static OpeningBook generate(int plies, int depth, EndgameDatabase endgame) {
+
+		if (plies < 1) {
+			throw new IllegalArgumentException("the opening book must cover at least 1 move");
+		}
+		List<int[]> positions = findPositions(plies);
+		LOG.info("searching [{}] positions from the first [{}] moves to depth [{}]", positions.size(), plies, depth);
+
+		ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_SIZE_MEGABYTES));
+		SearchResult[] results = new SearchResult[positions.size()];
+		IntStream.range(0, positions.size()).parallel().forEach(i -> {
+			int[] position = positions.get(i);
+			TranspositionTable table = tables.get();
+			table.clear();
+			results[i] = new AlphaBetaSearch(table, endgame, 0, null).search(position, position[BoardTopology.POSITIONS], depth);
+		});
+
+		OpeningBook book = new OpeningBook(positions.size());
+		for (int i = 0; i < positions.size(); i++) {
+			int[] position = positions.get(i);
+			book.put(position, position[BoardTopology.POSITIONS], results[i]);
+		}
+		return book;
+	}
+
+	/**
+	 * generate a book and save it
+	 *
+	 * @param args - the file to write, the number of moves to cover and the depth to search to
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length != 3 && args.length != 4) {
+			System.err.println("usage: OpeningBookGenerator <file> <plies> <depth> [endgame database]");
+			System.exit(1);
+		}
+		Path path = Paths.get(args[0]);
+		EndgameDatabase endgame = args.length == 4 ? EndgameDatabase.load(Paths.get(args[3])) : null;
+		long start = System.nanoTime();
+		OpeningBook book = generate(Integer.parseInt(args[1]), Integer.parseInt(args[2]), endgame);
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+			book.save(out);
+		}
+		LOG.info("opening book of [{}] positions written to [{}] in [{}] s", book.size(), path.toAbsolutePath(),
+				(System.nanoTime() - start) / 1_000_000_000);
+	}
+
+	/*
+	 * every different position before the given number of moves have been made
+	 * which the game is not over in. Each is the stone counts with the player to
+	 * move added on the end
+	 */
+	static List<int[]> findPositions(int plies) {
+
+		Map<Long, int[]> found = new LinkedHashMap<>();
+		int[] start = new int[BoardTopology.POSITIONS + 1];
+		System.arraycopy(new Board(new HumanPlayer(PlayerId.PLAYER_1), new HumanPlayer(PlayerId.PLAYER_2)).getStoneCounts(),
+				0, start, 0, BoardTopology.POSITIONS);
+		List<int[]> frontier = new ArrayList<>();
+		frontier.add(start);
+		for (int ply = 0; ply < plies; ply++) {
+			List<int[]> next = new ArrayList<>();
+			for (int[] position : frontier) {
+				int player = position[BoardTopology.POSITIONS];
+				if (found.putIfAbsent(Zobrist.hash(position, player), position) != null) {
+					continue;
+				}
+				for (int pit = BoardTopology.firstPit(player); pit < BoardTopology.kalah(player); pit++) {
+					if (position[pit] == 0) {
+						continue;
+					}
+					int[] child = position.clone();
+					int outcome = KalahRules.sow(child, player, pit);
+					if (!KalahRules.finishIfOver(child)) {
+						child[BoardTopology.POSITIONS] = MoveOutcome.isExtraTurn(outcome) ? player : BoardTopology.otherPlayer(player);
+						next.add(child);
+					}
+				}
+			}
+			frontier = next;
+		}
+		return new ArrayList<>(found.values());
+	}
+
+}
@@ -0,0 +1,285 @@
+package com.simpsonn.mancala.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * finds moves for computer players. Each search is given a time budget and
+ * goes as deep as it can within it, see {@link AlphaBetaSearch}. Every search
+ * shares one transposition table so positions searched for one move or one
+ * game are remembered for the next.
+ *
+ * with more than one search thread the search runs on the calling thread and
+ * on helper threads at the same time, all sharing the table. The helpers fill
+ * the table with results which let the main search go deeper, and the answer
+ * always comes from the main search. The helpers are stopped as soon as the
+ * main search finishes.
+ *
+ * if an endgame database file is configured it is memory mapped when the
+ * engine starts and every search looks endings up in it. If an opening book
+ * is configured it is read in when the engine starts, and positions in the
+ * book are answered from it without searching.
+ */
+@Component
+public class SearchEngine {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SearchEngine.class);
+
+	private final long timeBudgetMillis;
+	private final TranspositionTable table;
+	private final int threads;
+	private final ExecutorService helperPool;
+	private final EndgameDatabase endgame;
+	private final OpeningBook openingBook;
+
+	@Autowired
+	public SearchEngine(@Value("${game.ai.time-budget-ms:100}") long timeBudgetMillis,
+			@Value("${game.ai.table-size-mb:16}") int tableSizeMegabytes,
+			@Value("${game.ai.threads:1}") int threads,
+			@Value("${game.ai.endgame-db:}") String endgameDatabasePath,
+			@Value("${game.ai.opening-book:}") String openingBookLocation) {
+
+		this(timeBudgetMillis, tableSizeMegabytes, threads, loadEndgameDatabase(endgameDatabasePath),
+				loadOpeningBook(openingBookLocation));
+	}
+
+	public SearchEngine(long timeBudgetMillis, int tableSizeMegabytes, int threads) {
+
+		this(timeBudgetMillis, tableSizeMegabytes, threads, null, (OpeningBook) null);
+	}
+
+	public SearchEngine(long timeBudgetMillis, int tableSizeMegabytes, int threads, EndgameDatabase endgame) {
+
+		this(timeBudgetMillis, tableSizeMegabytes, threads, endgame, null);
+	}
+
+	public SearchEngine(long timeBudgetMillis, int tableSizeMegabytes, int threads, EndgameDatabase endgame,
+			OpeningBook openingBook) {
+
+		if (timeBudgetMillis < 1) {
+			throw new IllegalArgumentException("the computer player must be given at least 1 millisecond to think");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("the search needs at least 1 thread");
+		}
+		this.timeBudgetMillis = timeBudgetMillis;
+		this.table = new TranspositionTable(tableSizeMegabytes);
+		this.threads = threads;
+		this.helperPool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, new HelperThreadFactory());
+		this.endgame = endgame;
+		this.openingBook = openingBook;
+	}
+
+	// no path means no database, a path which cannot be loaded stops the application starting
+	private static EndgameDatabase loadEndgameDatabase(String path) {
+
+		if (path == null || path.isEmpty()) {
+			return null;
+		}
+		try {
+			EndgameDatabase endgame = EndgameDatabase.load(Paths.get(path));
+			LOG.info("loaded endgame database for up to [{}] stones from [{}]", endgame.getMaxStones(), path);
+			return endgame;
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to load the endgame database from " + path, e);
+		}
+	}
+
+	// the book can be a file or on the classpath, no location means no book
+	private static OpeningBook loadOpeningBook(String location) {
+
+		if (location == null || location.isEmpty()) {
+			return null;
+		}
+		Resource resource = new DefaultResourceLoader().getResource(location);
+		try (InputStream in = resource.getInputStream()) {
+			OpeningBook openingBook = OpeningBook.load(in);
+			LOG.info("loaded opening book of [{}] positions from [{}]", openingBook.size(), location);
+			return openingBook;
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to load the opening book from " + location, e);
+		}
+	}
+
+	/**
+	 * find the best move for a player using the configured time budget
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @return the best move found
+	 */
+	public SearchResult search(int[] stones, int player) {
+
+		return search(stones, player, timeBudgetMillis);
+	}
+
+	/**
+	 * find the best move for a player within the given time, positions in the
+	 * opening book are answered straight away
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @param timeBudgetMillis - how long to search for in milliseconds
+	 * @return the best move found
+	 */
+	public SearchResult search(int[] stones, int player, long timeBudgetMillis) {
+
+		if (openingBook != null) {
+			SearchResult booked = openingBook.lookUp(stones, player);
+			if (booked != null) {
+				LOG.debug("opening book has {} for player [{}]", booked, player);
+				return booked;
+			}
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+		SearchResult result = runSearch(stones, player, AlphaBetaSearch.MAX_DEPTH, deadline, true);
+		LOG.debug("search for player [{}] found {}, table hit rate [{}]", player, result, table.getHitRate());
+		return result;
+	}
+
+	/**
+	 * find the best move for a player searching to a fixed depth however long it takes
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @param depth - how many moves to look ahead
+	 * @return the best move found
+	 */
+	public SearchResult searchToDepth(int[] stones, int player, int depth) {
+
+		return runSearch(stones, player, depth, 0, false);
+	}
+
+	private SearchResult runSearch(int[] stones, int player, int maxDepth, long deadline, boolean timed) {
+
+		if (KalahRules.countPitStones(stones, player) == 0) {
+			throw new IllegalArgumentException("there are no moves to make from this position");
+		}
+		AlphaBetaSearch main = new AlphaBetaSearch(table, endgame, 0, null);
+		if (helperPool == null) {
+			return timed ? main.search(stones, player, maxDepth, deadline) : main.search(stones, player, maxDepth);
+		}
+
+		// the helpers get their own copy of the position as the caller may change it once we return
+		int[] position = stones.clone();
+		AtomicBoolean stopSignal = new AtomicBoolean();
+		List<Future<SearchResult>> helpers = new ArrayList<>(threads - 1);
+		for (int threadIndex = 1; threadIndex < threads; threadIndex++) {
+			AlphaBetaSearch helper = new AlphaBetaSearch(table, endgame, threadIndex, stopSignal);
+			helpers.add(helperPool.submit(() -> timed
+					? helper.search(position, player, maxDepth, deadline)
+					: helper.search(position, player, maxDepth)));
+		}
+		try {
+			return timed ? main.search(stones, player, maxDepth, deadline) : main.search(stones, player, maxDepth);
+		} finally {
+			stopSignal.set(true);
+			waitForHelpers(helpers);
+		}
+	}
+
+	// helpers stop within a few thousand positions of being signalled, wait so they are not still busy when the next search starts
+	private void waitForHelpers(List<Future<SearchResult>> helpers) {
+
+		for (Future<SearchResult> helper : helpers) {
+			if (helper.cancel(false)) {
+				continue;
+			}
+			try {
+				helper.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				LOG.warn("helper search failed", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * stop the helper threads when the application shuts down
+	 */
+	@PreDestroy
+	public void shutdown() {
+
+		if (helperPool != null) {
+			helperPool.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the transposition table shared by every search
+	 */
+	public TranspositionTable getTable() {
+
+		return table;
+	}
+
+	/**
+	 * @return the endgame database searches look endings up in, or null if there is none
+	 */
+	public EndgameDatabase getEndgameDatabase() {
+
+		return endgame;
+	}
+
+	/**
+	 * @return the opening book positions are looked up in before searching, or null if there is none
+	 */
+	public OpeningBook getOpeningBook() {
+
+		return openingBook;
+	}
+
+	/**
+	 * @return the time each computer move is given by default, in milliseconds
+	 */
+	public long getTimeBudgetMillis() {
+
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * @return the number of threads each search uses
+	 */
+	public int getThreads() {
+
+		return threads;
+	}
+
+	// helper threads are daemons so they never keep the application running
+	private static class HelperThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "search-helper-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
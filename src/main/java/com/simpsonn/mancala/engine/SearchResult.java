@@ -0,0 +1,67 @@
+package com.simpsonn.mancala.engine;
+
+/**
+ * the answer from a search, the move it thinks is best and how good it thinks
+ * that move is
+ */
+public class SearchResult {
+
+	private final int pit;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+
+	/**
+	 * @param pit - the position of the best pit found, zero based
+	 * @param score - how many stones ahead the player to move expects to be
+	 * @param depth - the deepest search which was completed
+	 * @param nodes - the number of positions looked at
+	 */
+	public SearchResult(int pit, int score, int depth, long nodes) {
+
+		this.pit = pit;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * @return the position of the best pit found, zero based
+	 */
+	public int getPit() {
+
+		return pit;
+	}
+
+	/**
+	 * @return how many stones ahead in their kalah the player to move expects to
+	 *         be, negative if they expect to be behind
+	 */
+	public int getScore() {
+
+		return score;
+	}
+
+	/**
+	 * @return the deepest search which was completed, in moves
+	 */
+	public int getDepth() {
+
+		return depth;
+	}
+
+	/**
+	 * @return the number of positions looked at
+	 */
+	public long getNodes() {
+
+		return nodes;
+	}
+
+	@Override
+	public String toString() {
+
+		return "pit " + pit + " score " + score + " depth " + depth + " nodes " + nodes;
+	}
+
+}
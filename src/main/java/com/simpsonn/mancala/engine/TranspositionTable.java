@@ -0,0 +1,230 @@
+package com.simpsonn.mancala.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * remembers the results of searching positions so that a position reached
+ * again by a different order of moves does not have to be searched again.
+ * The table has a fixed size set when it is created and never grows, when it
+ * is full old results are written over.
+ *
+ * the table can be shared by any number of searches running at once without
+ * any locking. Each entry is two longs, the position key and the packed result,
+ * and the key is stored xor-ed with the result. If two threads write the same
+ * entry at once and a reader sees half of each, the key it works out will not
+ * match and the entry is treated as missing rather than giving a wrong result.
+ *
+ * entries are kept in buckets of two, the first keeps whichever result came
+ * from the deepest search (unless it is left over from an older search) and the
+ * second always takes the newest result.
+ */
+public class TranspositionTable {
+
+	public static final int UPPER_BOUND = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int EXACT = 3;
+	// the depth stored for a position which was searched right through to the end of the game
+	public static final int SOLVED = 255;
+	public static final int NO_MOVE = 15;
+
+	private static final int ENTRY_BYTES = 2 * Long.BYTES;
+	private static final int SCORE_OFFSET = 1 << 15;
+	private static final int DEPTH_SHIFT = 16;
+	private static final int BOUND_SHIFT = 24;
+	private static final int MOVE_SHIFT = 26;
+	private static final int AGE_SHIFT = 32;
+
+	private final long[] keys;
+	private final long[] results;
+	private final int bucketMask;
+	private volatile int age;
+	private final LongAdder probes = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+
+	/**
+	 * create a table which uses about the given amount of memory
+	 * @param sizeMegabytes - the size of the table, rounded down to a power of two number of entries
+	 */
+	public TranspositionTable(int sizeMegabytes) {
+
+		if (sizeMegabytes < 1) {
+			throw new IllegalArgumentException("the transposition table must be at least 1 megabyte");
+		}
+		long entries = Long.highestOneBit(((long) sizeMegabytes << 20) / ENTRY_BYTES);
+		int size = (int) Math.min(entries, 1 << 30);
+		keys = new long[size];
+		results = new long[size];
+		bucketMask = (size >>> 1) - 1;
+	}
+
+	/**
+	 * start a new search, results from earlier searches are kept but are the
+	 * first to be written over
+	 */
+	public void newSearch() {
+
+		age = (age + 1) & 0xff;
+	}
+
+	/**
+	 * forget every result and reset the statistics
+	 */
+	public void clear() {
+
+		Arrays.fill(keys, 0);
+		Arrays.fill(results, 0);
+		probes.reset();
+		hits.reset();
+		stores.reset();
+	}
+
+	/**
+	 * look up the result for a position, the parts of the result are read with
+	 * {@link #score(long)}, {@link #depth(long)}, {@link #bound(long)} and {@link #move(long)}
+	 *
+	 * @param key - the key of the position
+	 * @return the packed result or 0 if the position is not in the table
+	 */
+	public long probe(long key) {
+
+		int index = (int) key & bucketMask;
+		int slot = index << 1;
+		for (int i = slot; i < slot + 2; i++) {
+			long result = results[i];
+			if (result != 0 && (keys[i] ^ result) == key) {
+				return result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * save the result of searching a position
+	 *
+	 * @param key - the key of the position
+	 * @param depth - how many moves deep the position was searched, or {@link #SOLVED}
+	 * @param score - the score for the player to move
+	 * @param bound - whether the score is {@link #EXACT}, a {@link #LOWER_BOUND} or an {@link #UPPER_BOUND}
+	 * @param move - the position of the best pit found or {@link #NO_MOVE}
+	 */
+	public void store(long key, int depth, int score, int bound, int move) {
+
+		int currentAge = age;
+		long result = (score + SCORE_OFFSET)
+				| ((long) depth << DEPTH_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) move << MOVE_SHIFT)
+				| ((long) currentAge << AGE_SHIFT);
+		int slot = ((int) key & bucketMask) << 1;
+		long deepResult = results[slot];
+		boolean replaceDeep = deepResult == 0
+				|| (keys[slot] ^ deepResult) == key
+				|| age(deepResult) != currentAge
+				|| depth >= depth(deepResult);
+		if (!replaceDeep) {
+			slot++;
+		}
+		keys[slot] = key ^ result;
+		results[slot] = result;
+		stores.increment();
+	}
+
+	/**
+	 * add the counts from a finished search to the statistics, searches count
+	 * their own probes and hits as they go so the shared counters are only
+	 * touched once per search
+	 *
+	 * @param searchProbes - the number of positions looked up
+	 * @param searchHits - the number which were found
+	 */
+	public void recordProbes(long searchProbes, long searchHits) {
+
+		probes.add(searchProbes);
+		hits.add(searchHits);
+	}
+
+	/**
+	 * @return the number of positions looked up since the table was created or cleared
+	 */
+	public long getProbes() {
+
+		return probes.sum();
+	}
+
+	/**
+	 * @return the number of looked up positions which were found
+	 */
+	public long getHits() {
+
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of results saved
+	 */
+	public long getStores() {
+
+		return stores.sum();
+	}
+
+	/**
+	 * @return the fraction of looked up positions which were found, 0 if none have been looked up
+	 */
+	public double getHitRate() {
+
+		long probeCount = probes.sum();
+		return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+	}
+
+	/**
+	 * @return the number of entries the table can hold
+	 */
+	public int getCapacity() {
+
+		return keys.length;
+	}
+
+	/**
+	 * @param result - a packed result from {@link #probe(long)}
+	 * @return the score for the player to move
+	 */
+	public static int score(long result) {
+
+		return (int) (result & 0xffff) - SCORE_OFFSET;
+	}
+
+	/**
+	 * @param result - a packed result from {@link #probe(long)}
+	 * @return how many moves deep the position was searched, or {@link #SOLVED}
+	 */
+	public static int depth(long result) {
+
+		return (int) (result >>> DEPTH_SHIFT) & 0xff;
+	}
+
+	/**
+	 * @param result - a packed result from {@link #probe(long)}
+	 * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 */
+	public static int bound(long result) {
+
+		return (int) (result >>> BOUND_SHIFT) & 0x3;
+	}
+
+	/**
+	 * @param result - a packed result from {@link #probe(long)}
+	 * @return the position of the best pit found or {@link #NO_MOVE}
+	 */
+	public static int move(long result) {
+
+		return (int) (result >>> MOVE_SHIFT) & 0xf;
+	}
+
+	private static int age(long result) {
+
+		return (int) (result >>> AGE_SHIFT) & 0xff;
+	}
+
+}
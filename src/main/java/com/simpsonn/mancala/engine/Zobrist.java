@@ -0,0 +1,83 @@
+package com.simpsonn.mancala.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * gives every position a 64 bit key so the same position can be recognised
+ * however it was reached. There is a random number for each possible stone
+ * count in each position on the board plus one for player 2 being the player
+ * to move, and the key of a position is all the numbers which apply to it
+ * xor-ed together.
+ *
+ * a move only changes the count in a few positions so the key after a move is
+ * worked out from the key before it by swapping the numbers for just the
+ * positions which changed. The random numbers come from a fixed seed so keys
+ * stay the same from one run to the next and can be saved, for example in an
+ * opening book.
+ */
+public final class Zobrist {
+
+	// counts above this share keys with lower counts, a real game never has more than 72 stones in one place
+	private static final int COUNTS = 128;
+	private static final long SEED = 0x6d616e63616c61L;
+	private static final long[][] KEYS = new long[BoardTopology.POSITIONS][COUNTS];
+	private static final long PLAYER_2_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			for (int count = 0; count < COUNTS; count++) {
+				KEYS[position][count] = random.nextLong();
+			}
+		}
+		PLAYER_2_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * work out the key of a position from scratch
+	 *
+	 * @param stones - the stone counts
+	 * @param player - the player to move, 0 or 1
+	 * @return the key of the position
+	 */
+	public static long hash(int[] stones, int player) {
+
+		long key = player == BoardTopology.PLAYER_2 ? PLAYER_2_TO_MOVE : 0;
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			key ^= KEYS[position][stones[position] & (COUNTS - 1)];
+		}
+		return key;
+	}
+
+	/**
+	 * work out the key after some stones have moved, only the positions whose
+	 * counts are different are changed. The player to move is left as it was
+	 *
+	 * @param key - the key of the position before
+	 * @param before - the stone counts before
+	 * @param after - the stone counts after
+	 * @return the key with the stone counts of the position after
+	 */
+	public static long update(long key, int[] before, int[] after) {
+
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			if (before[position] != after[position]) {
+				key ^= KEYS[position][before[position] & (COUNTS - 1)] ^ KEYS[position][after[position] & (COUNTS - 1)];
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * @param key - the key of a position
+	 * @return the key of the same stones with the other player to move
+	 */
+	public static long changePlayer(long key) {
+
+		return key ^ PLAYER_2_TO_MOVE;
+	}
+
+}
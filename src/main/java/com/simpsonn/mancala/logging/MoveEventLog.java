@@ -0,0 +1,269 @@
+package com.simpsonn.mancala.logging;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.engine.MoveOutcome;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * records every move as a structured event without slowing the move down.
+ *
+ * the thread making the move only copies a few numbers into a ring buffer of
+ * primitive arrays, nothing is created and nothing is formatted. A background
+ * thread takes the events off the buffer, turns each one into a line of JSON
+ * and writes it to the <b>mancala.moves</b> logger. If the buffer is full the
+ * event is dropped and counted rather than holding up the move.
+ *
+ * games are sampled by their id, so a sampled game has every one of its moves
+ * recorded and the rest have none. With a sample rate of 0, or the
+ * mancala.moves logger turned off, nothing is recorded and no thread is started.
+ */
+@Component
+public class MoveEventLog {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MoveEventLog.class);
+	private static final Logger MOVES = LoggerFactory.getLogger("mancala.moves");
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final long sampleThreshold;
+	private final Consumer<String> sink;
+	private final int mask;
+	private final long[] gameIdHigh;
+	private final long[] gameIdLow;
+	private final long[] times;
+	private final int[] pitIds;
+	private final int[] moves;
+	private final int[] kalahs;
+	// the sequence number of the event in each slot plus one, once it has been written
+	private final AtomicLongArray published;
+	private final AtomicLong claimed = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	private volatile long consumed;
+	private volatile boolean running;
+	private final Thread writer;
+
+	@Autowired
+	public MoveEventLog(@Value("${game.events.buffer-size:65536}") int bufferSize,
+			@Value("${game.events.sample-rate:1.0}") double sampleRate,
+			MeterRegistry meterRegistry) {
+
+		this(bufferSize, MOVES.isInfoEnabled() ? sampleRate : 0, MOVES::info);
+		FunctionCounter.builder("mancala.moves.events.dropped", dropped, LongAdder::sum)
+				.description("move events not recorded because the buffer was full")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param bufferSize - how many events can wait to be written, rounded up to a power of two
+	 * @param sampleRate - the share of games to record, from 0 for none to 1 for all
+	 * @param sink - where each event is written as a line of JSON, called on the background thread
+	 */
+	public MoveEventLog(int bufferSize, double sampleRate, Consumer<String> sink) {
+
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("the move event buffer must hold at least 1 event");
+		}
+		if (sampleRate < 0 || sampleRate > 1) {
+			throw new IllegalArgumentException("the move event sample rate must be between 0 and 1");
+		}
+		this.sampleThreshold = sampleRate >= 1 ? Long.MAX_VALUE : (long) (sampleRate * Long.MAX_VALUE);
+		this.sink = sink;
+		int capacity = sampleRate == 0 ? 1 : Integer.highestOneBit(Math.max(1, bufferSize) * 2 - 1);
+		this.mask = capacity - 1;
+		this.gameIdHigh = new long[capacity];
+		this.gameIdLow = new long[capacity];
+		this.times = new long[capacity];
+		this.pitIds = new int[capacity];
+		this.moves = new int[capacity];
+		this.kalahs = new int[capacity];
+		this.published = new AtomicLongArray(capacity);
+		if (sampleRate == 0) {
+			this.writer = null;
+			return;
+		}
+		this.running = true;
+		this.writer = new Thread(this::writeEvents, "move-event-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * @return a log which records nothing, for code which is not run by the application such as tests and benchmarks
+	 */
+	public static MoveEventLog disabled() {
+
+		return new MoveEventLog(1, 0, event -> { });
+	}
+
+	/**
+	 * see if the moves in a game are recorded, the same game always gives the same answer
+	 *
+	 * @param gameId - the game
+	 * @return true if the game's moves are recorded
+	 */
+	public boolean isSampled(UUID gameId) {
+
+		if (sampleThreshold == 0) {
+			return false;
+		}
+		if (sampleThreshold == Long.MAX_VALUE) {
+			return true;
+		}
+		// mix the id so games are sampled evenly however the ids were made
+		long hash = gameId.getMostSignificantBits() ^ gameId.getLeastSignificantBits();
+		hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+		hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return (hash >>> 1) < sampleThreshold;
+	}
+
+	/**
+	 * record a move, or a move which was refused, if the game is sampled. This
+	 * never waits and never creates any objects
+	 *
+	 * @param gameId - the game the move was made in
+	 * @param player - the player who made the move, 0 or 1
+	 * @param pitId - the pit number the move started from, 1 based
+	 * @param outcome - the {@link MoveOutcome} of the move
+	 * @param stones - the stone counts after the move
+	 */
+	public void moveMade(UUID gameId, int player, int pitId, int outcome, int[] stones) {
+
+		if (!isSampled(gameId)) {
+			return;
+		}
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed > mask) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+
+		int slot = (int) sequence & mask;
+		gameIdHigh[slot] = gameId.getMostSignificantBits();
+		gameIdLow[slot] = gameId.getLeastSignificantBits();
+		times[slot] = System.currentTimeMillis();
+		pitIds[slot] = pitId;
+		moves[slot] = player | (outcome << 1);
+		kalahs[slot] = stones[BoardTopology.kalah(BoardTopology.PLAYER_1)]
+				| (stones[BoardTopology.kalah(BoardTopology.PLAYER_2)] << 16);
+		published.lazySet(slot, sequence + 1);
+	}
+
+	/**
+	 * @return the number of events dropped because the buffer was full
+	 */
+	public long getDropped() {
+
+		return dropped.sum();
+	}
+
+	/**
+	 * stop the background thread once every event already recorded has been written
+	 */
+	@PreDestroy
+	public void shutdown() {
+
+		if (writer == null || !running) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// runs on the background thread, writes events in the order they were recorded
+	private void writeEvents() {
+
+		StringBuilder line = new StringBuilder(256);
+		long next = 0;
+		while (true) {
+			int slot = (int) next & mask;
+			if (published.get(slot) != next + 1) {
+				if (!running && claimed.get() == next) {
+					return;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			line.setLength(0);
+			format(slot, line);
+			// the slot can be used again as soon as it has been read
+			consumed = next + 1;
+			next++;
+			try {
+				sink.accept(line.toString());
+			} catch (RuntimeException e) {
+				LOG.warn("unable to write move event", e);
+			}
+		}
+	}
+
+	private void format(int slot, StringBuilder line) {
+
+		int move = moves[slot];
+		int outcome = move >>> 1;
+		line.append("{\"time\":").append(times[slot])
+				.append(",\"gameId\":\"");
+		appendGameId(gameIdHigh[slot], gameIdLow[slot], line);
+		line.append("\",\"player\":").append((move & 1) + 1)
+				.append(",\"pit\":").append(pitIds[slot]);
+		if (MoveOutcome.isIllegal(outcome)) {
+			line.append(",\"event\":\"illegal\",\"reason\":\"")
+					.append(IllegalMove.describe(MoveOutcome.illegalReason(outcome))).append('"');
+		} else {
+			line.append(",\"event\":\"move\",\"extraTurn\":").append(MoveOutcome.isExtraTurn(outcome))
+					.append(",\"capture\":").append(MoveOutcome.isCapture(outcome))
+					.append(",\"gameOver\":").append(MoveOutcome.isGameOver(outcome));
+		}
+		line.append(",\"kalahs\":[").append(kalahs[slot] & 0xffff).append(',').append(kalahs[slot] >>> 16).append("]}");
+	}
+
+	// writes the id the way UUID.toString does, without creating the UUID or the string
+	private static void appendGameId(long high, long low, StringBuilder line) {
+
+		appendHex(high >>> 32, 8, line);
+		line.append('-');
+		appendHex(high >>> 16, 4, line);
+		line.append('-');
+		appendHex(high, 4, line);
+		line.append('-');
+		appendHex(low >>> 48, 4, line);
+		line.append('-');
+		appendHex(low, 12, line);
+	}
+
+	private static void appendHex(long value, int digits, StringBuilder line) {
+
+		for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+			line.append(HEX_DIGITS[(int) (value >>> shift) & 0xf]);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.simpsonn.mancala.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.engine.MoveOutcome;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * counts every move by its outcome.
+ *
+ * moves are published as mancala.moves, tagged with whether the move was
+ * valid or illegal and the reason an illegal move was refused. Extra turns,
+ * captures and finished games are published as mancala.moves.events so that
+ * adding up mancala.moves still gives the number of moves tried. Counting a
+ * move only adds to a few {@link LongAdder}s, the meters read them when they
+ * are published.
+ */
+@Component
+public class MoveMetrics {
+
+	private static final String[] REASON_TAGS = { "none", "off_board", "kalah", "not_your_pit", "empty_pit" };
+
+	private final LongAdder validMoves = new LongAdder();
+	private final LongAdder[] illegalMoves = new LongAdder[REASON_TAGS.length];
+	private final LongAdder extraTurns = new LongAdder();
+	private final LongAdder captures = new LongAdder();
+	private final LongAdder gamesOver = new LongAdder();
+
+	/**
+	 * counts moves without publishing them, for code which is not run by the application such as tests and benchmarks
+	 */
+	public MoveMetrics() {
+
+		for (int reason = 0; reason < illegalMoves.length; reason++) {
+			illegalMoves[reason] = new LongAdder();
+		}
+	}
+
+	@Autowired
+	public MoveMetrics(MeterRegistry meterRegistry) {
+
+		this();
+		FunctionCounter.builder("mancala.moves", validMoves, LongAdder::sum)
+				.description("moves tried")
+				.tag("result", "valid")
+				.tag("reason", REASON_TAGS[IllegalMove.NONE])
+				.register(meterRegistry);
+		for (int reason = IllegalMove.OFF_BOARD; reason < illegalMoves.length; reason++) {
+			FunctionCounter.builder("mancala.moves", illegalMoves[reason], LongAdder::sum)
+					.description("moves tried")
+					.tag("result", "illegal")
+					.tag("reason", REASON_TAGS[reason])
+					.register(meterRegistry);
+		}
+		registerEvent(meterRegistry, "extra_turn", extraTurns);
+		registerEvent(meterRegistry, "capture", captures);
+		registerEvent(meterRegistry, "game_over", gamesOver);
+	}
+
+	/**
+	 * count a move, or a move which was refused
+	 *
+	 * @param outcome - the {@link MoveOutcome} of the move
+	 */
+	public void moveMade(int outcome) {
+
+		if (MoveOutcome.isIllegal(outcome)) {
+			illegalMoves[MoveOutcome.illegalReason(outcome)].increment();
+			return;
+		}
+		validMoves.increment();
+		if (MoveOutcome.isExtraTurn(outcome)) {
+			extraTurns.increment();
+		}
+		if (MoveOutcome.isCapture(outcome)) {
+			captures.increment();
+		}
+		if (MoveOutcome.isGameOver(outcome)) {
+			gamesOver.increment();
+		}
+	}
+
+	/**
+	 * @return the number of valid moves made
+	 */
+	public long countValidMoves() {
+
+		return validMoves.sum();
+	}
+
+	/**
+	 * @param reason - the {@link IllegalMove} reason
+	 * @return the number of moves refused for the reason
+	 */
+	public long countIllegalMoves(int reason) {
+
+		return illegalMoves[reason].sum();
+	}
+
+	private static void registerEvent(MeterRegistry meterRegistry, String event, LongAdder count) {
+
+		FunctionCounter.builder("mancala.moves.events", count, LongAdder::sum)
+				.description("things which happened during valid moves")
+				.tag("event", event)
+				.register(meterRegistry);
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.simpsonn.mancala.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.GameRegistry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * times the game service and counts the live games in each {@link GameState}.
+ *
+ * each operation is timed as mancala.service.latency tagged with its name,
+ * with the median, 95th and 99th percentiles. Reading the clock twice and
+ * updating the percentiles costs a few hundred nanoseconds, more than a move
+ * itself, so only a random share of calls are timed, set by
+ * game.metrics.timing-sample-rate. The percentiles are still right, the timer
+ * counts are only the calls which were timed, the move counters in
+ * {@link MoveMetrics} count every move. Timing a call creates nothing.
+ *
+ * live games are counted by state as mancala.games.state, the count means
+ * looking at every game so it is worked out at most once a second however
+ * often the gauges are read.
+ */
+@Component
+public class ServiceMetrics {
+
+	private static final long COUNT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long NOT_TIMED = Long.MIN_VALUE;
+
+	private final GameRegistry gameRegistry;
+	private final double timingSampleRate;
+	private final Timer createNewGame;
+	private final Timer makeMove;
+	private final Timer getGameById;
+	private final int[] gamesByState = new int[GameState.values().length];
+	private long countedAt;
+	private boolean counted;
+
+	/**
+	 * times every call, for tests and benchmarks
+	 */
+	public ServiceMetrics(MeterRegistry meterRegistry, GameRegistry gameRegistry) {
+
+		this(meterRegistry, gameRegistry, 1);
+	}
+
+	@Autowired
+	public ServiceMetrics(MeterRegistry meterRegistry, GameRegistry gameRegistry,
+			@Value("${game.metrics.timing-sample-rate:0.0625}") double timingSampleRate) {
+
+		if (timingSampleRate < 0 || timingSampleRate > 1) {
+			throw new IllegalArgumentException("the timing sample rate must be between 0 and 1");
+		}
+		this.gameRegistry = gameRegistry;
+		this.timingSampleRate = timingSampleRate;
+		this.createNewGame = registerTimer(meterRegistry, "createNewGame");
+		this.makeMove = registerTimer(meterRegistry, "makeMove");
+		this.getGameById = registerTimer(meterRegistry, "getGameById");
+		for (GameState state : GameState.values()) {
+			Gauge.builder("mancala.games.state", this, metrics -> metrics.countGames(state))
+					.description("live games in each state")
+					.tag("state", state.name().toLowerCase())
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * call at the start of an operation and hand the result to the matching
+	 * method at the end
+	 *
+	 * @return the time the operation started, or a marker that it is not being timed
+	 */
+	public long startTiming() {
+
+		if (timingSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= timingSampleRate) {
+			return NOT_TIMED;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * @param start - what {@link #startTiming()} returned when the game started being created
+	 */
+	public void gameCreated(long start) {
+
+		record(createNewGame, start);
+	}
+
+	/**
+	 * @param start - what {@link #startTiming()} returned when the move request started being handled
+	 */
+	public void moveHandled(long start) {
+
+		record(makeMove, start);
+	}
+
+	/**
+	 * @param start - what {@link #startTiming()} returned when the game started being looked up
+	 */
+	public void gameFound(long start) {
+
+		record(getGameById, start);
+	}
+
+	/**
+	 * count the live games in a state, as they were at most a second ago
+	 *
+	 * @param state - the state to count
+	 * @return the number of live games in the state
+	 */
+	public synchronized int countGames(GameState state) {
+
+		long now = System.nanoTime();
+		if (!counted || now - countedAt >= COUNT_INTERVAL_NANOS) {
+			Arrays.fill(gamesByState, 0);
+			for (Game game : gameRegistry.getGames()) {
+				gamesByState[game.getGameState().ordinal()]++;
+			}
+			countedAt = now;
+			counted = true;
+		}
+		return gamesByState[state.ordinal()];
+	}
+
+	private static void record(Timer timer, long start) {
+
+		if (start != NOT_TIMED) {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private static Timer registerTimer(MeterRegistry meterRegistry, String operation) {
+
+		return Timer.builder("mancala.service.latency")
+				.description("how long the game service takes to handle a request")
+				.tag("operation", operation)
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.simpsonn.mancala.model.components;
 
+import static com.simpsonn.mancala.configuration.GameSettings.INITIAL_STONES;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -8,21 +10,30 @@ import com.simpsonn.mancala.model.player.Player;
 
 /**
  * a representation of a board in a game of mancala, it contains all of the board
- * components (pits and kalahs) When the board is instantiated, the components
- * are generated and placed on it in the correct order.
+ * components (pits and kalahs) When the board is instantiated, the stones are
+ * placed in the pits on each side of the board.
  * 
  * the board has two sides, each side consists of six pits and one kalah, the
  * kalah is offset to the right hand side of the pits so that the players pits
  * are directly opposite each other.
  * 
+ * the number of stones in each position is held in a single array which the
+ * game logic works on directly, the pits and kalahs returned by
+ * {@link #getBoardComponents()} are views over that array so changes made
+ * through either are seen by both
  */
 public class Board {
 
-	// for our purposes we deem the first index in this collection to be the
+	public static final int NUMBER_OF_PITS = 6;
+	public static final int NUMBER_OF_COMPONENTS = (NUMBER_OF_PITS + 1) * 2;
+
+	// for our purposes we deem the first index in this array to be the
 	// leftmost position on the board and it will flow to the right as the index
 	// increases
-	private List<BoardComponent> boardComponents = Collections.emptyList();
-	private static final int NUMBER_OF_PITS = 6;  
+	private final int[] stoneCounts = new int[NUMBER_OF_COMPONENTS];
+	private final Player player1;
+	private final Player player2;
+	private volatile List<BoardComponent> boardComponents;
 
 	/**
 	 * create a new game board and assign the components to the correct owners
@@ -32,34 +43,63 @@ public class Board {
 	 */	
 	public Board(Player player1, Player player2) {
 		
-		setup(player1, player2);
+		this.player1 = player1;
+		this.player2 = player2;
+		setup();
+	}
+
+	/**
+	 * take all the stones off the board and set them out again ready for a new game
+	 */
+	public void reset() {
+
+		setup();
 	}
 
-	// initialise this board
-	private void setup(Player player1, Player player2) {
+	// put the initial stones into every pit, the kalahs start empty
+	private void setup() {
 		
-		boardComponents = new ArrayList<>();
-		addComponentsForPlayer(player1);
-		addComponentsForPlayer(player2);
+		for (int i = 0; i < NUMBER_OF_COMPONENTS; i++) {
+			stoneCounts[i] = (i % (NUMBER_OF_PITS + 1) == NUMBER_OF_PITS) ? 0 : INITIAL_STONES;
+		}
 	}
 
 	// add the pits and the Kalah from left to right to the board for this player
-	private void addComponentsForPlayer(Player player) {
+	private void addComponentsForPlayer(List<BoardComponent> components, Player player) {
 		
 		for (int i=0; i < NUMBER_OF_PITS; i++) {
 			
-			boardComponents.add(new Pit(player));
+			components.add(new Pit(player, stoneCounts, components.size()));
 		}
-		boardComponents.add(new Kalah(player));
+		components.add(new Kalah(player, stoneCounts, components.size()));
+	}
+
+	/**
+	 * get the number of stones in every position on the board, this is the live
+	 * state of the board and not a copy
+	 * @return the stone count for each pit and kalah from left to right
+	 */
+	public int[] getStoneCounts() {
+
+		return stoneCounts;
 	}
 	
 	/**
-	 * get all the components from this board
+	 * get all the components from this board, they are only created the first
+	 * time they are asked for
 	 * @return the complete list of board components in this board
 	 */
 	public List<BoardComponent> getBoardComponents() {
 		
-		return boardComponents;
+		List<BoardComponent> components = boardComponents;
+		if (components == null) {
+			List<BoardComponent> newComponents = new ArrayList<>(NUMBER_OF_COMPONENTS);
+			addComponentsForPlayer(newComponents, player1);
+			addComponentsForPlayer(newComponents, player2);
+			components = Collections.unmodifiableList(newComponents);
+			boardComponents = components;
+		}
+		return components;
 	}
 	
 }
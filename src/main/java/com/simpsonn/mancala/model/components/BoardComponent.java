@@ -1,18 +1,19 @@
 package com.simpsonn.mancala.model.components;
 
-import java.util.Collections;
-import java.util.List;
-
 import com.simpsonn.mancala.model.player.PlayerId;
 
 /**
  * represents a board component, these are the pits and the kalahs. 
- * This class contains common implementation details of pits and kalahs
+ * This class contains common implementation details of pits and kalahs.
+ * a component does not hold stones itself, it records how many stones it
+ * contains at its position in an array of stone counts which is normally
+ * shared with the rest of the board
  */
 public abstract class BoardComponent {
 
 	protected PlayerId ownerId;
-	protected List<Stone> stones = Collections.emptyList();
+	protected int[] stoneCounts;
+	protected int position;
 
 	/**
 	 * return who this component belongs to
@@ -29,7 +30,7 @@ public abstract class BoardComponent {
 	 */
 	public void addStone(Stone stoneToAdd) {
 		
-		stones.add(stoneToAdd);
+		stoneCounts[position]++;
 	}	
 
 	/**
@@ -38,7 +39,7 @@ public abstract class BoardComponent {
 	 */
 	public int countStones() {
 		
-		return stones.size();
+		return stoneCounts[position];
 	}
 	
 }
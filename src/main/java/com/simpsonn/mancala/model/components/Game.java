@@ -20,27 +20,60 @@ public class Game {
 	private Player player1;
 	private Player player2;	
 	private Board board;
-	private GameState gameState;
+	// moves are made while holding the lock for the game but the state can be read without it
+	private volatile GameState gameState;
+	private volatile long lastActivityTime;
+	private volatile int moveCount;
 
 	/**
 	 * Create all the parts needed for a game of mancala
 	 */		
 	public Game() {	
 		
-		setupGame();
+		this(GameIdGenerator.newGameId());
 	}
 
-	// generate a GUID for the game, two players and a board and set the game state
+	/**
+	 * Create all the parts needed for a game of mancala with the given id
+	 * @param gameId - the unique id for this game
+	 */
+	public Game(UUID gameId) {
+
+		setupGame(gameId);
+	}
+
+	// assign the GUID to the game, generate two players and a board and set the game state
 	// to player 1 turn ready to make the first move
-	private void setupGame() {
+	private void setupGame(UUID gameId) {
 		
-		gameId = UUID.randomUUID();
+		this.gameId = gameId;
 		player1 = new HumanPlayer(PlayerId.PLAYER_1);
 		player2 = new HumanPlayer(PlayerId.PLAYER_2);
 		board = new Board(player1, player2);
 		gameState = GameState.PLAYER_1_TURN;
+		lastActivityTime = System.currentTimeMillis();
+		moveCount = 0;
 	}
 	
+	/**
+	 * put this game back to how it was when it was created but with a new id,
+	 * so the same game object can be used again for a new game instead of
+	 * creating another one. Player 2 goes back to being a human player. Only reset
+	 * a game nobody else is still using
+	 * @param gameId - the unique id for the new game
+	 */
+	public void reset(UUID gameId) {
+
+		this.gameId = gameId;
+		if (!(player2 instanceof HumanPlayer)) {
+			player2 = new HumanPlayer(PlayerId.PLAYER_2);
+		}
+		board.reset();
+		gameState = GameState.PLAYER_1_TURN;
+		lastActivityTime = System.currentTimeMillis();
+		moveCount = 0;
+	}
+
 	/**
 	 * get the game id
 	 * @return the Unique ID of this game
@@ -77,6 +110,19 @@ public class Game {
 		return player2;
 	}	
 
+	/**
+	 * choose who plays as player 2, for example a computer player, this must be
+	 * done before the game is made available to be played
+	 * @param player2 - the player to take player 2's turns
+	 */
+	public void setPlayer2(Player player2) {
+
+		if (player2.getPlayerId() != PlayerId.PLAYER_2) {
+			throw new IllegalArgumentException("player 2 must have the player 2 id");
+		}
+		this.player2 = player2;
+	}
+
 	/**
 	 * get the game state for this game
 	 * @return the current game state
@@ -94,6 +140,54 @@ public class Game {
 		this.gameState = gameState;
 	}	
 
+	/**
+	 * get the time this game was created or last had a move made
+	 * @return the time of the last activity in milliseconds since the epoch
+	 */
+	public long getLastActivityTime() {
+
+		return lastActivityTime;
+	}
+
+	/**
+	 * record the time of the latest activity in this game
+	 * @param lastActivityTime - the time in milliseconds since the epoch
+	 */
+	public void setLastActivityTime(long lastActivityTime) {
+
+		this.lastActivityTime = lastActivityTime;
+	}
+
+	/**
+	 * get the number of moves made in this game so far, by both players, a move
+	 * which was refused is not counted. Each move's number is its place in the game
+	 * @return the number of moves made
+	 */
+	public int getMoveCount() {
+
+		return moveCount;
+	}
+
+	/**
+	 * set the number of moves made in this game, only change this while holding the lock for the game
+	 * @param moveCount - the number of moves made
+	 */
+	public void setMoveCount(int moveCount) {
+
+		this.moveCount = moveCount;
+	}
+
+	/**
+	 * see if the game has finished
+	 * @return true if the game was won or drawn, otherwise false
+	 */
+	public boolean isFinished() {
+
+		return gameState == GameState.PLAYER_1_WIN || 
+				gameState == GameState.PLAYER_2_WIN || 
+				gameState == GameState.DRAW;
+	}
+
 	/**
 	 * see who's turn it is
 	 * @return player1, player2 or if game over - null 
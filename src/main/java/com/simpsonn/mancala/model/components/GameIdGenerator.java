@@ -0,0 +1,78 @@
+package com.simpsonn.mancala.model.components;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * generates the unique ids for games. The game id is the only thing a player
+ * needs to make moves in a game, so the ids must not be guessable from the ids
+ * handed out before them.
+ *
+ * {@link UUID#randomUUID()} gets its randomness from a single shared
+ * SecureRandom which threads have to queue up for when lots of games are being
+ * created at once, so instead every thread has its own SecureRandom. It fills
+ * a buffer of random bytes a few kilobytes at a time and each id is cut from
+ * the next 16 bytes, so the cost of asking for randomness is shared by many ids.
+ */
+public final class GameIdGenerator {
+
+	private static final long VERSION_MASK = 0xFFFFFFFFFFFF0FFFL;
+	private static final long VERSION_4 = 0x0000000000004000L;
+	private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+	private static final long VARIANT_IETF = 0x8000000000000000L;
+	private static final int ID_BYTES = 16;
+	private static final int IDS_PER_FILL = 256;
+	// seeded once from the system's entropy, after that each instance has its own state and no shared lock
+	private static final String ALGORITHM = "SHA1PRNG";
+
+	private static final ThreadLocal<RandomBytes> RANDOM_BYTES = ThreadLocal.withInitial(RandomBytes::new);
+
+	private GameIdGenerator() {
+	}
+
+	/**
+	 * generate a new random id for a game
+	 * @return a version 4 GUID
+	 */
+	public static UUID newGameId() {
+
+		RandomBytes randomBytes = RANDOM_BYTES.get();
+		long mostSignificantBits = (randomBytes.nextLong() & VERSION_MASK) | VERSION_4;
+		long leastSignificantBits = (randomBytes.nextLong() & VARIANT_MASK) | VARIANT_IETF;
+		return new UUID(mostSignificantBits, leastSignificantBits);
+	}
+
+	// one thread's secure random and the bytes it has made which have not been used yet
+	private static final class RandomBytes {
+
+		private final SecureRandom random = newSecureRandom();
+		private final byte[] buffer = new byte[ID_BYTES * IDS_PER_FILL];
+		private int position = buffer.length;
+
+		long nextLong() {
+
+			if (position == buffer.length) {
+				random.nextBytes(buffer);
+				position = 0;
+			}
+			long value = 0;
+			for (int i = 0; i < Long.BYTES; i++) {
+				value = (value << 8) | (buffer[position] & 0xff);
+				// the bytes are never used again, so do not leave them lying around
+				buffer[position++] = 0;
+			}
+			return value;
+		}
+
+		private static SecureRandom newSecureRandom() {
+
+			try {
+				return SecureRandom.getInstance(ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				return new SecureRandom();
+			}
+		}
+	}
+
+}
@@ -2,22 +2,59 @@ package com.simpsonn.mancala.model.components;
 
 /**
  * represents the current status of a game 
+ * 
+ * each state has a fixed code which is what is stored and sent in binary, so
+ * the states can be reordered or added to without changing what old snapshots
+ * and clients mean by a code
  */
 public enum GameState {
 
-	PLAYER_1_TURN("Player one turn"),
-	PLAYER_2_TURN("Player two turn"),
-	PLAYER_1_WIN("Player one victory"),
-	PLAYER_2_WIN("Player two victory"),
-	DRAW("Game resulted in a draw");
+	PLAYER_1_TURN(0, "Player one turn"),
+	PLAYER_2_TURN(1, "Player two turn"),
+	PLAYER_1_WIN(2, "Player one victory"),
+	PLAYER_2_WIN(3, "Player two victory"),
+	DRAW(4, "Game resulted in a draw");
 	
+	private static final GameState[] BY_CODE = new GameState[values().length];
+
+	static {
+		for (GameState state : values()) {
+			BY_CODE[state.code] = state;
+		}
+	}
+
+	private final int code;
 	private final String description;
 	
-	GameState(String description) {
+	GameState(int code, String description) {
 		
+		this.code = code;
 		this.description = description;
 	}
 
+	/**
+	 * get the state a binary code stands for
+	 * @param code the code of the state
+	 * @return the game state
+	 * @throws IllegalArgumentException if no state has the code
+	 */
+	public static GameState fromCode(int code) {
+
+		if (code < 0 || code >= BY_CODE.length) {
+			throw new IllegalArgumentException("unknown game state " + code);
+		}
+		return BY_CODE[code];
+	}
+
+	/**
+	 * get the fixed code this state is stored and sent as
+	 * @return the game state code
+	 */
+	public int getCode() {
+
+		return code;
+	}
+
 	/**
 	 * get descriptive text for this game status
 	 * @return the game state description
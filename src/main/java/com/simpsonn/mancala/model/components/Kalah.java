@@ -1,6 +1,5 @@
 package com.simpsonn.mancala.model.components;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.simpsonn.mancala.model.player.Player;
@@ -20,23 +19,24 @@ public class Kalah extends BoardComponent {
 	 */
 	public Kalah(Player player) {
 		
-		setup(player);
+		this(player, new int[1], 0);
 	}	
 
+	// create a kalah which is a view over the given position of the board's stone counts
+	Kalah(Player player, int[] stoneCounts, int position) {
+
+		this.ownerId = player.getPlayerId();
+		this.stoneCounts = stoneCounts;
+		this.position = position;
+	}
+
 	/**
 	 * add the given list of stones to this kalah
 	 * @param stonesToAdd a list of stones to add
 	 */
 	public void addStones(List<Stone> stonesToAdd) {
 		
-		stones.addAll(stonesToAdd);
-	}	
-	
-	// Sets the owner id of this pit and initialises to be empty of stones
-	private void setup(Player player) {
-		
-		ownerId = player.getPlayerId();
-		stones = new ArrayList<>();
+		stoneCounts[position] += stonesToAdd.size();
 	}	
 	
 }
@@ -20,7 +20,15 @@ public class Pit extends BoardComponent {
 	 */
 	public Pit(Player player) {
 		
-		setup(player);
+		this(player, new int[] {INITIAL_STONES}, 0);
+	}
+
+	// create a pit which is a view over the given position of the board's stone counts
+	Pit(Player player, int[] stoneCounts, int position) {
+
+		this.ownerId = player.getPlayerId();
+		this.stoneCounts = stoneCounts;
+		this.position = position;
 	}
 
 	/**
@@ -31,10 +39,14 @@ public class Pit extends BoardComponent {
 	 */
 	public List<Stone> getStones() {
 		
-		if (!stones.isEmpty()) {
+		int stoneCount = stoneCounts[position];
+		if (stoneCount > 0) {
 
-			List<Stone> pitStones = new ArrayList<>(stones);
-			stones.clear();
+			List<Stone> pitStones = new ArrayList<>(stoneCount);
+			for (int i = 0; i < stoneCount; i++) {
+				pitStones.add(new Stone());
+			}
+			stoneCounts[position] = 0;
 			return pitStones;
 		}
 		return null;
@@ -47,16 +59,7 @@ public class Pit extends BoardComponent {
 	 */
 	public boolean isPitEmpty() {
 		
-		return (stones.isEmpty());
+		return (stoneCounts[position] == 0);
 	}
 	
-	// sets the owner id of this pit and puts the correct amount of starting stones into it
-	private void setup(Player player) {
-		
-		ownerId = player.getPlayerId();
-		stones = new ArrayList<>();
-		for (int i=0; i < INITIAL_STONES; i++) {
-			stones.add(new Stone());
-		}
-	}
 }
@@ -2,8 +2,9 @@ package com.simpsonn.mancala.model.components;
 
 /**
  * represents a stone in the game, although a stone has no state or behaviour.
- * Stones can only be created at the start of a game and they are created
- * whenever a new pit is created.
+ * the board only keeps a count of the stones in each pit and kalah, stones are
+ * created when they are taken out of a pit or a hand so that they can be
+ * handled one at a time.
  * also of note, a stone is at all times either in a pit, a kalah or a hand.
  */
 public class Stone {
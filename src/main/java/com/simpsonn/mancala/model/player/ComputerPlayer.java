@@ -0,0 +1,98 @@
+package com.simpsonn.mancala.model.player;
+
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * represents a computer player in the game, when it is their turn they search
+ * ahead through the possible moves to choose one
+ */
+public class ComputerPlayer implements Player {
+
+	private final PlayerId playerId;
+	private final Hand playerHand;
+	private final SearchEngine searchEngine;
+	private final long timeBudgetMillis;
+
+	/**
+	 * create a computer player which thinks for the search engine's default time
+	 *
+	 * @param playerId - player Id
+	 * @param searchEngine - used to find moves
+	 */
+	public ComputerPlayer(PlayerId playerId, SearchEngine searchEngine) {
+
+		this(playerId, searchEngine, searchEngine.getTimeBudgetMillis());
+	}
+
+	/**
+	 * create a computer player
+	 *
+	 * @param playerId - player Id
+	 * @param searchEngine - used to find moves
+	 * @param timeBudgetMillis - how long to think about each move in milliseconds
+	 */
+	public ComputerPlayer(PlayerId playerId, SearchEngine searchEngine, long timeBudgetMillis) {
+
+		this.playerId = playerId;
+		this.playerHand = new Hand();
+		this.searchEngine = searchEngine;
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/**
+	 * choose the move to make in a game where it is this player's turn
+	 *
+	 * @param game - the game to move in
+	 * @return the pit to start the move from (as a 1 based index)
+	 */
+	public int chooseMove(Game game) {
+
+		return chooseMove(game.getBoard().getStoneCounts());
+	}
+
+	/**
+	 * choose the move to make from a copy of a game's board, so the search can
+	 * run without holding on to the game
+	 *
+	 * @param stones - the stone counts of the position where it is this player's turn, this is not changed
+	 * @return the pit to start the move from (as a 1 based index)
+	 */
+	public int chooseMove(int[] stones) {
+
+		return searchEngine.search(stones, playerId.ordinal(), timeBudgetMillis).getPit() + 1;
+	}
+
+	/**
+	 * get how long this player thinks about each move
+	 *
+	 * @return the time budget for each move in milliseconds
+	 */
+	public long getTimeBudgetMillis() {
+
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * get the player id of this player
+	 *
+	 * @return the player id of this player which would be player 1 or player 2
+	 */
+	@Override
+	public PlayerId getPlayerId() {
+
+		return playerId;
+	}
+
+	/**
+	 * get the hand of this player which has the capability of holding stones
+	 *
+	 * @return the player hand for this player
+	 */
+	@Override
+	public Hand getHand() {
+
+		return playerHand;
+	}
+
+}
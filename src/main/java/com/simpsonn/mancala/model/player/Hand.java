@@ -6,16 +6,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * represents the players hand which is used to hold stones. Stones can be added or taken away from this hand
+ * represents the players hand which is used to hold stones. Stones can be added or taken away from this hand,
+ * like the board the hand only keeps a count of the stones it is holding
  */
 public class Hand {
 
 	private static final int LAST_STONE_SIZE = 1;
-	private final List<Stone> stones;
+	private int stoneCount;
 
 	public Hand() {
 		
-		stones = new ArrayList<>();
+		stoneCount = 0;
 	}
 
 	/**
@@ -24,7 +25,7 @@ public class Hand {
 	 */
 	public void addStonesToHand (List<Stone> stonesToAdd) {
 		
-		stones.addAll(stonesToAdd);
+		stoneCount += stonesToAdd.size();
 	}
 
 	/**
@@ -35,9 +36,12 @@ public class Hand {
 	 */
 	public List<Stone> getAllStonesInHand() {
 		
-		if(!stones.isEmpty()) {
-			List<Stone> playerStones = new ArrayList<>(stones);
-			stones.clear();
+		if(stoneCount > 0) {
+			List<Stone> playerStones = new ArrayList<>(stoneCount);
+			for (int i = 0; i < stoneCount; i++) {
+				playerStones.add(new Stone());
+			}
+			stoneCount = 0;
 			return playerStones;
 		}
 		return null;
@@ -51,8 +55,9 @@ public class Hand {
 	 */
 	public Stone getOneStoneFromHand() {
 		
-		if(!stones.isEmpty()) {
-			return stones.remove(0);
+		if(stoneCount > 0) {
+			stoneCount--;
+			return new Stone();
 		}
 		return null;
 	}
@@ -63,7 +68,7 @@ public class Hand {
 	 */
 	public boolean isLastStone() {
 		
-		return (stones.size() == LAST_STONE_SIZE);
+		return (stoneCount == LAST_STONE_SIZE);
 	}
 
 	/**
@@ -72,7 +77,7 @@ public class Hand {
 	 */	
 	public boolean isHandEmpty() {
 
-		return stones.isEmpty();
+		return stoneCount == 0;
 	}
 
 }
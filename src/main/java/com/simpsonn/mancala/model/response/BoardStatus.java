@@ -0,0 +1,122 @@
+package com.simpsonn.mancala.model.response;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.simpsonn.mancala.configuration.GameSettings;
+import com.simpsonn.mancala.model.components.Board;
+
+/**
+ * represents the stones in each position of the board in a response, written
+ * straight out by its own serializer instead of being turned into a map of
+ * strings first.
+ *
+ * the {@link Format#MAP} format is the one responses have always had, an
+ * object from the pit number to the number of stones as a string, and is
+ * written from field names and values worked out once up front. The
+ * {@link Format#ARRAY} format is a plain array of numbers from pit 1 to player
+ * 2's kalah, less than half the size, for clients which have moved on to it
+ */
+@JsonSerialize(using = BoardStatus.Serializer.class)
+public class BoardStatus {
+
+	/**
+	 * the shapes the board can be written in, chosen with <b>game.response.board-format</b>
+	 */
+	public enum Format {
+		MAP, ARRAY
+	}
+
+	private static final int MAP_INDEX_OFFSET = 1;
+	private static final int TOTAL_STONES = GameSettings.INITIAL_STONES * Board.NUMBER_OF_PITS * 2;
+	private static final SerializedString[] PIT_NAMES = new SerializedString[Board.NUMBER_OF_COMPONENTS];
+	private static final SerializedString[] STONE_COUNTS = new SerializedString[TOTAL_STONES + 1];
+
+	static {
+		for (int position = 0; position < PIT_NAMES.length; position++) {
+			PIT_NAMES[position] = new SerializedString(String.valueOf(position + MAP_INDEX_OFFSET));
+		}
+		for (int count = 0; count < STONE_COUNTS.length; count++) {
+			STONE_COUNTS[count] = new SerializedString(String.valueOf(count));
+		}
+	}
+
+	private final int[] stones;
+	private final Format format;
+
+	/**
+	 * create the board for a response, the stone counts are copied as the
+	 * response is written after the game lock has been let go
+	 * @param stoneCounts the stones in each position, zero based
+	 * @param format the shape to write the board in
+	 */
+	public BoardStatus(int[] stoneCounts, Format format) {
+
+		this.stones = stoneCounts.clone();
+		this.format = format;
+	}
+
+	/**
+	 * get the number of stones in a pit or kalah
+	 * @param pitId the pit number, 1 based as it is shown to the player
+	 * @return the number of stones in it
+	 */
+	public int getStones(int pitId) {
+
+		return stones[pitId - MAP_INDEX_OFFSET];
+	}
+
+	/**
+	 * get the number of stones on the whole board
+	 * @return the stones in every pit and kalah added up
+	 */
+	public int countStones() {
+
+		int total = 0;
+		for (int count : stones) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * writes the board without building anything in between, the field names
+	 * and stone counts of the map format are serialized strings made once, so
+	 * writing a board allocates nothing
+	 */
+	static final class Serializer extends StdSerializer<BoardStatus> {
+
+		private static final long serialVersionUID = 1L;
+
+		Serializer() {
+
+			super(BoardStatus.class);
+		}
+
+		@Override
+		public void serialize(BoardStatus status, JsonGenerator generator, SerializerProvider provider) throws IOException {
+
+			int[] stones = status.stones;
+			if (status.format == Format.ARRAY) {
+				generator.writeArray(stones, 0, stones.length);
+				return;
+			}
+			generator.writeStartObject();
+			for (int position = 0; position < stones.length; position++) {
+				generator.writeFieldName(PIT_NAMES[position]);
+				int count = stones[position];
+				if (count < STONE_COUNTS.length) {
+					generator.writeString(STONE_COUNTS[count]);
+				} else {
+					generator.writeString(String.valueOf(count));
+				}
+			}
+			generator.writeEndObject();
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.simpsonn.mancala.model.response;
+
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * represents the details which are returned in the response body when a player
+ * reads a game without making a move, the same as for a move along with how
+ * many moves have been made, which is also the etag of the response
+ */
+public class GameResponse extends MakeMoveResponse {
+
+	public GameResponse(String id, String url, GameState gameState, int moveCount) {
+		super(id, url, gameState);
+		this.moveCount = moveCount;
+	}
+
+	private final int moveCount;
+
+	/**
+	 * get the number of moves made in the game, including the computer's
+	 * @return the move count
+	 */
+	public int getMoveCount() {
+
+		return moveCount;
+	}
+
+}
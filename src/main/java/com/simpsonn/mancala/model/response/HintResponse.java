@@ -0,0 +1,77 @@
+package com.simpsonn.mancala.model.response;
+
+/**
+ * represents the details which are returned in the response body when a player
+ * asks which move to make
+ */
+public class HintResponse {
+
+	/**
+	 * create a response body details object
+	 * @param id the game id
+	 * @param url the uri for the game
+	 * @param pitId the pit number suggested for the next move
+	 * @param score how many stones ahead the player to move can expect to finish
+	 * @param depth how many moves ahead were looked at
+	 */
+	public HintResponse(String id, String url, int pitId, int score, int depth) {
+
+		this.id = id;
+		this.url = url;
+		this.pitId = pitId;
+		this.score = score;
+		this.depth = depth;
+	}
+
+	private final String id;
+	private final String url;
+	private final int pitId;
+	private final int score;
+	private final int depth;
+
+	/**
+	 * get the game id
+	 * @return the game id for this game
+	 */
+	public String getId() {
+
+		return id;
+	}
+
+	/**
+	 * get the game uri
+	 * @return the uri for this game
+	 */
+	public String getUrl() {
+
+		return url;
+	}
+
+	/**
+	 * get the suggested pit
+	 * @return the pit number to use in the next move
+	 */
+	public int getPitId() {
+
+		return pitId;
+	}
+
+	/**
+	 * get the evaluation of the position
+	 * @return how many stones ahead the player to move can expect to finish, negative if behind
+	 */
+	public int getScore() {
+
+		return score;
+	}
+
+	/**
+	 * get how far ahead the suggestion looked
+	 * @return the number of moves ahead which were looked at
+	 */
+	public int getDepth() {
+
+		return depth;
+	}
+
+}
@@ -1,6 +1,6 @@
 package com.simpsonn.mancala.model.response;
 
-import java.util.Map;
+import java.util.List;
 
 import com.simpsonn.mancala.model.components.GameState;
 
@@ -18,7 +18,8 @@ public class MakeMoveResponse {
 	
 	private final String id;
 	private final String url;
-	private Map<String,String> status;
+	private BoardStatus status;
+	private List<Integer> legalMoves;
 	private final GameState gameState;
 	
 	/**
@@ -52,18 +53,36 @@ public class MakeMoveResponse {
 	 * get a representation of the game board
 	 * @return the game board
 	 */
-	public Map<String, String> getStatus() {
+	public BoardStatus getStatus() {
 		
 		return status;
 	}
 	
 	/**
-	 * set the status map which should show the pit numbers and number of stones in each
-	 * @param status game board map to use
+	 * set the board which should show the pit numbers and number of stones in each
+	 * @param status game board to use
 	 */
-	public void setStatus(Map<String, String> status) {
+	public void setStatus(BoardStatus status) {
 		
 		this.status = status;
 	}	
+
+	/**
+	 * get the pits the player whose turn it is can choose from
+	 * @return the pit numbers which can start the next move, empty if the game is over
+	 */
+	public List<Integer> getLegalMoves() {
+
+		return legalMoves;
+	}
+
+	/**
+	 * set the pit numbers the player whose turn it is can choose from
+	 * @param legalMoves pit numbers which can start the next move
+	 */
+	public void setLegalMoves(List<Integer> legalMoves) {
+
+		this.legalMoves = legalMoves;
+	}
 	
 }
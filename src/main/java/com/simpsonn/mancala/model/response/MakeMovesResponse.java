@@ -0,0 +1,31 @@
+package com.simpsonn.mancala.model.response;
+
+import java.util.List;
+
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * represents the details which are returned in the response body when a player
+ * makes a batch of moves, the board and game state are as they were after the
+ * last move was made
+ */
+public class MakeMovesResponse extends MakeMoveResponse {
+
+	public MakeMovesResponse(String id, String url, GameState gameState, List<MoveResult> moves) {
+		super(id, url, gameState);
+		this.moves = moves;
+	}
+
+	private final List<MoveResult> moves;
+
+	/**
+	 * get the result of each move in the order they were made, if a move was
+	 * refused it is the last one in the list as no more moves were attempted
+	 * @return the move results
+	 */
+	public List<MoveResult> getMoves() {
+
+		return moves;
+	}
+
+}
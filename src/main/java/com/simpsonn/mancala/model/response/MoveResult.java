@@ -0,0 +1,87 @@
+package com.simpsonn.mancala.model.response;
+
+import com.simpsonn.mancala.engine.MoveOutcome;
+
+/**
+ * represents what happened for one move in a batch of moves, a move either
+ * succeeded and tells us what it led to or it was refused with an error
+ */
+public class MoveResult {
+
+	/**
+	 * create the result of a move which was made
+	 * @param pitId the pit number the move started from
+	 * @param outcome the {@link MoveOutcome} flags from the move
+	 */
+	public MoveResult(int pitId, int outcome) {
+
+		this(pitId, outcome, null);
+	}
+
+	/**
+	 * create the result of a move which was refused
+	 * @param pitId the pit number the move tried to start from
+	 * @param error why the move was refused
+	 */
+	public MoveResult(int pitId, String error) {
+
+		this(pitId, MoveOutcome.NONE, error);
+	}
+
+	private MoveResult(int pitId, int outcome, String error) {
+
+		this.pitId = pitId;
+		this.outcome = outcome;
+		this.error = error;
+	}
+
+	private final int pitId;
+	private final int outcome;
+	private final String error;
+
+	/**
+	 * get the pit number
+	 * @return the pit number the move started from
+	 */
+	public int getPitId() {
+
+		return pitId;
+	}
+
+	/**
+	 * see if the player got another turn
+	 * @return true if the last stone went into the player's kalah
+	 */
+	public boolean isExtraTurn() {
+
+		return MoveOutcome.isExtraTurn(outcome);
+	}
+
+	/**
+	 * see if the player captured stones
+	 * @return true if the last stone landed in one of the player's empty pits
+	 */
+	public boolean isCapture() {
+
+		return MoveOutcome.isCapture(outcome);
+	}
+
+	/**
+	 * see if the move finished the game
+	 * @return true if the game is over after this move
+	 */
+	public boolean isGameOver() {
+
+		return MoveOutcome.isGameOver(outcome);
+	}
+
+	/**
+	 * get the reason the move was refused
+	 * @return the error message or null if the move was made
+	 */
+	public String getError() {
+
+		return error;
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.simpsonn.mancala.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * a fixed width binary encoding of a game, for snapshots, replication and
+ * anything else which needs a game as bytes.
+ *
+ * every game takes exactly {@link #ENCODED_SIZE} bytes laid out as
+ * <pre>
+ *  0  version          1 byte
+ *  1  game state       1 byte, its {@link GameState#getCode() code}
+ *  2  stone counts    14 bytes, one for each position from pit 1 to player 2's kalah
+ * 16  game id         16 bytes, most significant half first
+ * 32  move count       4 bytes
+ * 36  opponent         4 bytes, the computer's time budget in milliseconds or -1 for a person
+ * 40  last activity    8 bytes, milliseconds since the epoch
+ * </pre>
+ * always big endian, the buffer is switched to big endian by every method
+ * here so a buffer set up for another order cannot write or read a game any
+ * other way. Games are written straight into the buffer and
+ * read straight out of it with no arrays in between, and a single field can
+ * be read from an encoded game with the getters here without decoding the
+ * rest. A game always holds {@link com.simpsonn.mancala.configuration.GameSettings#INITIAL_STONES}
+ * times 12 stones so every count fits in a byte.
+ */
+public final class GameCodec {
+
+	public static final byte VERSION = 1;
+	public static final int ENCODED_SIZE = 48;
+
+	private static final int STATE = 1;
+	private static final int STONES = 2;
+	private static final int ID_HIGH = 16;
+	private static final int ID_LOW = 24;
+	private static final int MOVE_COUNT = 32;
+	private static final int OPPONENT = 36;
+	private static final int LAST_ACTIVITY = 40;
+
+	private GameCodec() {
+	}
+
+	/**
+	 * write a game at the buffer's position and move the position past it,
+	 * only call this while holding the lock for the game
+	 *
+	 * @param game - the game to write
+	 * @param buffer - where to write it, with at least {@link #ENCODED_SIZE} bytes remaining
+	 */
+	public static void encode(Game game, ByteBuffer buffer) {
+
+		UUID gameId = game.getGameId();
+		encode(buffer, game.getGameState(), game.getBoard().getStoneCounts(), gameId.getMostSignificantBits(),
+				gameId.getLeastSignificantBits(), game.getMoveCount(), GameSnapshot.opponentTimeBudget(game),
+				game.getLastActivityTime());
+	}
+
+	/**
+	 * write a snapshot at the buffer's position and move the position past it
+	 *
+	 * @param snapshot - the snapshot to write
+	 * @param buffer - where to write it, with at least {@link #ENCODED_SIZE} bytes remaining
+	 */
+	public static void encode(GameSnapshot snapshot, ByteBuffer buffer) {
+
+		UUID gameId = snapshot.getGameId();
+		encode(buffer, snapshot.getGameState(), snapshot.getStones(), gameId.getMostSignificantBits(),
+				gameId.getLeastSignificantBits(), snapshot.getMoveCount(), snapshot.getOpponentTimeBudgetMillis(),
+				snapshot.getLastActivityTime());
+	}
+
+	/**
+	 * read the game at the buffer's position and move the position past it
+	 *
+	 * @param buffer - where to read from
+	 * @return a snapshot of the game
+	 */
+	public static GameSnapshot decode(ByteBuffer buffer) {
+
+		GameSnapshot snapshot = GameSnapshot.empty();
+		decode(buffer, snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * read the game at the buffer's position into an existing snapshot and move the position past it
+	 *
+	 * @param buffer - where to read from
+	 * @param snapshot - the snapshot to fill in
+	 */
+	public static void decode(ByteBuffer buffer, GameSnapshot snapshot) {
+
+		int offset = buffer.position();
+		checkVersion(buffer, offset);
+		int[] stones = snapshot.getStones();
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			stones[position] = getStones(buffer, offset, position);
+		}
+		snapshot.set(getGameId(buffer, offset), getGameState(buffer, offset), getMoveCount(buffer, offset),
+				buffer.getInt(offset + OPPONENT), buffer.getLong(offset + LAST_ACTIVITY));
+		buffer.position(offset + ENCODED_SIZE);
+	}
+
+	/**
+	 * @param buffer - the buffer holding an encoded game
+	 * @param offset - where the game starts
+	 * @return the game's id
+	 */
+	public static UUID getGameId(ByteBuffer buffer, int offset) {
+
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		return new UUID(buffer.getLong(offset + ID_HIGH), buffer.getLong(offset + ID_LOW));
+	}
+
+	/**
+	 * @param buffer - the buffer holding an encoded game
+	 * @param offset - where the game starts
+	 * @return the game's state
+	 */
+	public static GameState getGameState(ByteBuffer buffer, int offset) {
+
+		return GameState.fromCode(buffer.get(offset + STATE) & 0xff);
+	}
+
+	/**
+	 * @param buffer - the buffer holding an encoded game
+	 * @param offset - where the game starts
+	 * @param position - the board position, 0 based
+	 * @return the number of stones in the position
+	 */
+	public static int getStones(ByteBuffer buffer, int offset, int position) {
+
+		return buffer.get(offset + STONES + position) & 0xff;
+	}
+
+	/**
+	 * @param buffer - the buffer holding an encoded game
+	 * @param offset - where the game starts
+	 * @return the number of moves made in the game
+	 */
+	public static int getMoveCount(ByteBuffer buffer, int offset) {
+
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		return buffer.getInt(offset + MOVE_COUNT);
+	}
+
+	private static void encode(ByteBuffer buffer, GameState state, int[] stones, long idHigh, long idLow, int moveCount,
+			long opponentTimeBudgetMillis, long lastActivityTime) {
+
+		int offset = buffer.position();
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		if (buffer.remaining() < ENCODED_SIZE) {
+			throw new IllegalArgumentException("a game needs " + ENCODED_SIZE + " bytes but only " + buffer.remaining() + " remain");
+		}
+		buffer.put(offset, VERSION);
+		buffer.put(offset + STATE, (byte) state.getCode());
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			int count = stones[position];
+			if ((count & ~0xff) != 0) {
+				throw new IllegalArgumentException(count + " stones do not fit in a position");
+			}
+			buffer.put(offset + STONES + position, (byte) count);
+		}
+		buffer.putLong(offset + ID_HIGH, idHigh);
+		buffer.putLong(offset + ID_LOW, idLow);
+		buffer.putInt(offset + MOVE_COUNT, moveCount);
+		buffer.putInt(offset + OPPONENT, (int) opponentTimeBudgetMillis);
+		buffer.putLong(offset + LAST_ACTIVITY, lastActivityTime);
+		buffer.position(offset + ENCODED_SIZE);
+	}
+
+	private static void checkVersion(ByteBuffer buffer, int offset) {
+
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		if (buffer.remaining() < ENCODED_SIZE) {
+			throw new IllegalArgumentException("an encoded game is " + ENCODED_SIZE + " bytes but only " + buffer.remaining() + " remain");
+		}
+		byte version = buffer.get(offset);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("encoded game version " + version + " is not supported");
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.simpsonn.mancala.persistence;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+
+/**
+ * what is known about one game while the log is read back, where it starts
+ * from, a snapshot or a new game, and the moves made after that in order
+ */
+class GameHistory {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GameHistory.class);
+
+	private final UUID gameId;
+	private final GameSnapshot snapshot;
+	private final long opponentTimeBudgetMillis;
+	private long lastActivityTime;
+	private int[] sequences = new int[16];
+	private int[] pitIds = new int[16];
+	private int moves;
+
+	private GameHistory(UUID gameId, GameSnapshot snapshot, long opponentTimeBudgetMillis, long lastActivityTime) {
+
+		this.gameId = gameId;
+		this.snapshot = snapshot;
+		this.opponentTimeBudgetMillis = opponentTimeBudgetMillis;
+		this.lastActivityTime = lastActivityTime;
+	}
+
+	static GameHistory created(UUID gameId, long opponentTimeBudgetMillis, long time) {
+
+		return new GameHistory(gameId, null, opponentTimeBudgetMillis, time);
+	}
+
+	static GameHistory fromSnapshot(GameSnapshot snapshot) {
+
+		return new GameHistory(snapshot.getGameId(), snapshot, GameSnapshot.HUMAN_OPPONENT, 0);
+	}
+
+	void moveMade(int sequence, int pitId, long time) {
+
+		if (moves == sequences.length) {
+			sequences = Arrays.copyOf(sequences, moves * 2);
+			pitIds = Arrays.copyOf(pitIds, moves * 2);
+		}
+		sequences[moves] = sequence;
+		pitIds[moves] = pitId;
+		moves++;
+		lastActivityTime = Math.max(lastActivityTime, time);
+	}
+
+	/**
+	 * play the moves again from the starting point. Moves already in the
+	 * snapshot are skipped, if a move is missing or does not fit the game the
+	 * game is left as it was before that move
+	 */
+	Game replay(GameController gameController, SearchEngine searchEngine) {
+
+		Game game;
+		if (snapshot != null) {
+			game = snapshot.restore(searchEngine);
+		} else {
+			game = new Game(gameId);
+			if (opponentTimeBudgetMillis != GameSnapshot.HUMAN_OPPONENT) {
+				game.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, searchEngine, opponentTimeBudgetMillis));
+			}
+		}
+		for (int move = 0; move < moves; move++) {
+			if (sequences[move] <= game.getMoveCount()) {
+				continue;
+			}
+			if (sequences[move] != game.getMoveCount() + 1
+					|| MoveOutcome.isIllegal(gameController.tryMove(game, pitIds[move]))) {
+				LOG.warn("game id [{}] could only be recovered up to move [{}]", gameId, game.getMoveCount());
+				break;
+			}
+		}
+		game.setLastActivityTime(Math.max(game.getLastActivityTime(), lastActivityTime));
+		return game;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.simpsonn.mancala.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.service.GameLocks;
+
+/**
+ * keeps a record of every game so they can be put back after a restart.
+ *
+ * the service tells the repository about each game created, each move made and
+ * each game removed while it holds the lock for the game, which keeps the moves
+ * of a game in order. Each call returns a ticket, once the lock is let go the
+ * service waits on the ticket with {@link #awaitCommit(long)} so the change is
+ * safely stored before the player is told about it, without holding up other
+ * moves on the game while it waits.
+ */
+public interface GameRepository {
+
+	/**
+	 * record a new game
+	 *
+	 * @param game - the game, as it is before any moves are made
+	 * @return the ticket to wait on
+	 */
+	long gameCreated(Game game);
+
+	/**
+	 * record a move which has just been made, the game's move count is the move's number
+	 *
+	 * @param game - the game after the move
+	 * @param pitId - the pit the move started from, 1 based
+	 * @return the ticket to wait on
+	 */
+	long moveMade(Game game, int pitId);
+
+	/**
+	 * record that a game has been removed, it will not be put back after a restart
+	 *
+	 * @param gameId - the id of the game
+	 * @return the ticket to wait on
+	 */
+	long gameRemoved(UUID gameId);
+
+	/**
+	 * wait until everything up to a ticket is safely stored
+	 *
+	 * @param ticket - the ticket from the last change to wait for
+	 */
+	void awaitCommit(long ticket);
+
+	/**
+	 * put back every game which was stored and not removed, only call this before any new changes are recorded
+	 *
+	 * @return the games as they were after the last move stored for each
+	 */
+	List<Game> loadGames();
+
+	/**
+	 * store a copy of every live game so that the record of older changes can be thrown away
+	 *
+	 * @param games - the live games
+	 * @param gameLocks - the locks to hold while copying each game
+	 */
+	void writeSnapshot(Collection<Game> games, GameLocks gameLocks);
+
+}
@@ -0,0 +1,158 @@
+package com.simpsonn.mancala.persistence;
+
+import java.util.UUID;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.Player;
+import com.simpsonn.mancala.model.player.PlayerId;
+
+/**
+ * everything needed to put a game back as it was, copied out of a live game.
+ * The stone counts are copied into the snapshot's own array, so a snapshot can
+ * be brought up to date with {@link #copyFrom(Game)} without creating anything.
+ * {@link GameCodec} turns snapshots into bytes and back
+ */
+public class GameSnapshot {
+
+	/**
+	 * the opponent time budget for a game against another person
+	 */
+	public static final long HUMAN_OPPONENT = -1;
+
+	private UUID gameId;
+	private int moveCount;
+	private GameState gameState;
+	private long opponentTimeBudgetMillis;
+	private long lastActivityTime;
+	private final int[] stones = new int[BoardTopology.POSITIONS];
+
+	private GameSnapshot() {
+	}
+
+	/**
+	 * @return a snapshot with nothing in it yet, to be filled in by {@link GameCodec#decode(java.nio.ByteBuffer, GameSnapshot)}
+	 */
+	public static GameSnapshot empty() {
+
+		return new GameSnapshot();
+	}
+
+	/**
+	 * copy a game, only call this while holding the lock for the game
+	 *
+	 * @param game - the game to copy
+	 * @return a snapshot of the game as it is now
+	 */
+	public static GameSnapshot of(Game game) {
+
+		GameSnapshot snapshot = new GameSnapshot();
+		snapshot.copyFrom(game);
+		return snapshot;
+	}
+
+	/**
+	 * bring this snapshot up to date with a game, only call this while holding the lock for the game
+	 *
+	 * @param game - the game to copy
+	 */
+	public void copyFrom(Game game) {
+
+		gameId = game.getGameId();
+		moveCount = game.getMoveCount();
+		gameState = game.getGameState();
+		opponentTimeBudgetMillis = opponentTimeBudget(game);
+		lastActivityTime = game.getLastActivityTime();
+		System.arraycopy(game.getBoard().getStoneCounts(), 0, stones, 0, stones.length);
+	}
+
+	void set(UUID gameId, GameState gameState, int moveCount, long opponentTimeBudgetMillis, long lastActivityTime) {
+
+		this.gameId = gameId;
+		this.gameState = gameState;
+		this.moveCount = moveCount;
+		this.opponentTimeBudgetMillis = opponentTimeBudgetMillis;
+		this.lastActivityTime = lastActivityTime;
+	}
+
+	/**
+	 * make a new game which is the same as the one copied
+	 *
+	 * @param searchEngine - used by the computer player if the game is against the computer
+	 * @return the game
+	 */
+	public Game restore(SearchEngine searchEngine) {
+
+		Game game = new Game(gameId);
+		if (opponentTimeBudgetMillis != HUMAN_OPPONENT) {
+			game.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, searchEngine, opponentTimeBudgetMillis));
+		}
+		System.arraycopy(stones, 0, game.getBoard().getStoneCounts(), 0, stones.length);
+		game.setGameState(gameState);
+		game.setMoveCount(moveCount);
+		game.setLastActivityTime(lastActivityTime);
+		return game;
+	}
+
+	/**
+	 * @param game - the game to look at
+	 * @return how long the computer thinks about each move, or {@link #HUMAN_OPPONENT} if player 2 is a person
+	 */
+	public static long opponentTimeBudget(Game game) {
+
+		Player player2 = game.getPlayer2();
+		return player2 instanceof ComputerPlayer ? ((ComputerPlayer) player2).getTimeBudgetMillis() : HUMAN_OPPONENT;
+	}
+
+	/**
+	 * @return the id of the game
+	 */
+	public UUID getGameId() {
+
+		return gameId;
+	}
+
+	/**
+	 * @return the number of moves made in the game when it was copied
+	 */
+	public int getMoveCount() {
+
+		return moveCount;
+	}
+
+	/**
+	 * @return the stone counts when the game was copied
+	 */
+	public int[] getStones() {
+
+		return stones;
+	}
+
+	/**
+	 * @return the state of the game when it was copied
+	 */
+	public GameState getGameState() {
+
+		return gameState;
+	}
+
+	/**
+	 * @return how long the computer thinks about each move, or {@link #HUMAN_OPPONENT} if player 2 is a person
+	 */
+	public long getOpponentTimeBudgetMillis() {
+
+		return opponentTimeBudgetMillis;
+	}
+
+	/**
+	 * @return when the game was last played, in milliseconds since the epoch
+	 */
+	public long getLastActivityTime() {
+
+		return lastActivityTime;
+	}
+
+}
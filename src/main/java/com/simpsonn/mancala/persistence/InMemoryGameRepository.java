@@ -0,0 +1,79 @@
+package com.simpsonn.mancala.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.service.GameLocks;
+
+/**
+ * keeps the latest copy of every game in memory, nothing survives a restart.
+ * Used for tests and benchmarks by setting game.store.type to memory. Each
+ * move copies the board over the game's existing snapshot so nothing is
+ * created, and changes are stored as soon as they are recorded so there is
+ * never anything to wait for
+ */
+@Component
+@ConditionalOnProperty(name = "game.store.type", havingValue = "memory")
+public class InMemoryGameRepository implements GameRepository {
+
+	private final ConcurrentHashMap<UUID, GameSnapshot> games = new ConcurrentHashMap<>();
+	private final SearchEngine searchEngine;
+
+	public InMemoryGameRepository(SearchEngine searchEngine) {
+
+		this.searchEngine = searchEngine;
+	}
+
+	@Override
+	public long gameCreated(Game game) {
+
+		games.put(game.getGameId(), GameSnapshot.of(game));
+		return 0;
+	}
+
+	@Override
+	public long moveMade(Game game, int pitId) {
+
+		GameSnapshot snapshot = games.get(game.getGameId());
+		if (snapshot != null) {
+			snapshot.copyFrom(game);
+		}
+		return 0;
+	}
+
+	@Override
+	public long gameRemoved(UUID gameId) {
+
+		games.remove(gameId);
+		return 0;
+	}
+
+	@Override
+	public void awaitCommit(long ticket) {
+
+		// every change is stored straight away
+	}
+
+	@Override
+	public List<Game> loadGames() {
+
+		return games.values().parallelStream()
+				.map(snapshot -> snapshot.restore(searchEngine))
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public void writeSnapshot(Collection<Game> liveGames, GameLocks gameLocks) {
+
+		// only the latest copy of each game is kept, so there is nothing to throw away
+	}
+
+}
@@ -0,0 +1,587 @@
+package com.simpsonn.mancala.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.service.GameLocks;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * stores games on disk as a log of changes which is only ever added to.
+ *
+ * every game created, move made and game removed is written as a fixed size
+ * record into a memory mapped segment file, which costs no more than copying
+ * a few numbers. A background thread forces the written records to disk and
+ * lets every request waiting on them carry on at once, so when lots of moves
+ * arrive together they share one sync rather than paying for one each. When a
+ * segment is full a new one is started.
+ *
+ * every so often a snapshot of every live game, each encoded with
+ * {@link GameCodec}, is written, after which the
+ * segments from before it are deleted. After a restart the latest snapshot is
+ * read, the segments after it are read in parallel and the moves of each game
+ * are played again in parallel. A record which was only partly written when
+ * the application stopped does not match its checksum, so the log is read up
+ * to there.
+ *
+ * if forcing the log to disk ever fails the log is marked as failed, everyone
+ * waiting on a commit is woken up with an exception and nothing more can be
+ * recorded, as no later change could be made durable either.
+ */
+@Component
+@ConditionalOnProperty(name = "game.store.type", havingValue = "wal", matchIfMissing = true)
+public class WriteAheadLogGameRepository implements GameRepository {
+
+	private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLogGameRepository.class);
+
+	static final int RECORD_SIZE = 40;
+	private static final int CREATED = 1;
+	private static final int MOVE = 2;
+	private static final int REMOVED = 3;
+
+	private static final long SNAPSHOT_MAGIC = 0x4b414c4148534e50L;
+	private static final int SNAPSHOT_VERSION = 2;
+	private static final int SNAPSHOT_HEADER_SIZE = 16;
+	private static final String SEGMENT_PREFIX = "moves-";
+	private static final String SEGMENT_SUFFIX = ".wal";
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".snap";
+	private static final long COMMIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final Path directory;
+	private final int segmentBytes;
+	private final boolean syncCommit;
+	private final SearchEngine searchEngine;
+	private final long firstNewSegment;
+
+	// guards appending and starting new segments
+	private final Object appendLock = new Object();
+	private FileChannel channel;
+	private long segmentIndex;
+	private volatile MappedByteBuffer segment;
+	private volatile long written;
+	private long writtenAtSnapshot;
+
+	private final Object commitMonitor = new Object();
+	private volatile long durable;
+	private volatile boolean running = true;
+	private volatile Throwable failure;
+	private final Thread committer;
+	private final LongAdder records = new LongAdder();
+	private final LongAdder commits = new LongAdder();
+
+	@Autowired
+	public WriteAheadLogGameRepository(@Value("${game.store.directory:data}") String directory,
+			@Value("${game.store.segment-size-mb:64}") int segmentSizeMegabytes,
+			@Value("${game.store.sync-commit:true}") boolean syncCommit,
+			SearchEngine searchEngine, MeterRegistry meterRegistry) {
+
+		this(Paths.get(directory), segmentSizeMegabytes << 20, syncCommit, searchEngine);
+		FunctionCounter.builder("mancala.store.records", records, LongAdder::sum)
+				.description("changes written to the game log")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.store.commits", commits, LongAdder::sum)
+				.description("times the game log was forced to disk, each one covers every record written before it")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param directory - where to keep the log and snapshots
+	 * @param segmentBytes - the size of each log segment, a whole number of records
+	 * @param syncCommit - true to make {@link #awaitCommit(long)} wait for changes to reach the disk
+	 * @param searchEngine - used by computer players in games which are put back
+	 */
+	public WriteAheadLogGameRepository(Path directory, int segmentBytes, boolean syncCommit, SearchEngine searchEngine) {
+
+		if (segmentBytes < RECORD_SIZE) {
+			throw new IllegalArgumentException("a log segment must hold at least 1 record");
+		}
+		this.directory = directory;
+		this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE;
+		this.syncCommit = syncCommit;
+		this.searchEngine = searchEngine;
+		try {
+			Files.createDirectories(directory);
+			// never write into a segment from before, it may end with a record which was only partly written
+			long lastSegment = -1;
+			for (Path path : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+				lastSegment = Math.max(lastSegment, indexOf(path, SEGMENT_PREFIX, SEGMENT_SUFFIX));
+			}
+			firstNewSegment = lastSegment + 1;
+			segmentIndex = lastSegment;
+			startSegment();
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to open the game log in " + directory.toAbsolutePath(), e);
+		}
+		committer = new Thread(this::commitRecords, "game-log-committer");
+		committer.setDaemon(true);
+		committer.start();
+	}
+
+	@Override
+	public long gameCreated(Game game) {
+
+		return append(CREATED, 0, game.getGameId(), System.currentTimeMillis(), GameSnapshot.opponentTimeBudget(game));
+	}
+
+	@Override
+	public long moveMade(Game game, int pitId) {
+
+		return append(MOVE, game.getMoveCount(), game.getGameId(), System.currentTimeMillis(), pitId);
+	}
+
+	@Override
+	public long gameRemoved(UUID gameId) {
+
+		return append(REMOVED, 0, gameId, System.currentTimeMillis(), 0);
+	}
+
+	/**
+	 * wait for the committer to force the records up to the ticket to disk,
+	 * doing nothing if commits are not synchronous
+	 */
+	@Override
+	public void awaitCommit(long ticket) {
+
+		if (!syncCommit || durable >= ticket) {
+			return;
+		}
+		LockSupport.unpark(committer);
+		synchronized (commitMonitor) {
+			while (durable < ticket) {
+				if (failure != null) {
+					throw new IllegalStateException("the game log could not be written to disk", failure);
+				}
+				if (!running) {
+					throw new IllegalStateException("the game log has been closed");
+				}
+				try {
+					commitMonitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while saving the game", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public List<Game> loadGames() {
+
+		long start = System.nanoTime();
+		Map<UUID, GameHistory> histories = new LinkedHashMap<>();
+		long firstSegment = 0;
+		try {
+			Path snapshotPath = latestSnapshot();
+			if (snapshotPath != null) {
+				firstSegment = indexOf(snapshotPath, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+				for (GameSnapshot snapshot : readSnapshot(snapshotPath)) {
+					histories.put(snapshot.getGameId(), GameHistory.fromSnapshot(snapshot));
+				}
+			}
+			List<Path> segments = new ArrayList<>();
+			for (long index = firstSegment; index < firstNewSegment; index++) {
+				Path path = segmentPath(index);
+				if (Files.exists(path)) {
+					segments.add(path);
+				}
+			}
+			// the segments are read in parallel, then their records are applied in the order they were written
+			List<List<LogRecord>> segmentRecords = segments.parallelStream()
+					.map(WriteAheadLogGameRepository::readSegment)
+					.collect(Collectors.toList());
+			for (List<LogRecord> recordsInSegment : segmentRecords) {
+				for (LogRecord record : recordsInSegment) {
+					record.applyTo(histories);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to read the game log in " + directory.toAbsolutePath(), e);
+		}
+		// each game's moves are played again on their own, so the games are put back in parallel
+		GameController gameController = new GameController();
+		List<Game> games = histories.values().parallelStream()
+				.map(history -> history.replay(gameController, searchEngine))
+				.collect(Collectors.toList());
+		LOG.info("recovered [{}] games from [{}] in [{}] ms", games.size(), directory.toAbsolutePath(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return games;
+	}
+
+	/**
+	 * start a new segment, write a copy of every live game and then delete
+	 * the older segments. Anything recorded before the new segment started is
+	 * already part of the games when they are copied, anything recorded after
+	 * is played again on top of the copy after a restart
+	 */
+	@Override
+	public void writeSnapshot(Collection<Game> games, GameLocks gameLocks) {
+
+		long snapshotIndex;
+		synchronized (appendLock) {
+			if (written == writtenAtSnapshot) {
+				return;
+			}
+			startSegmentOrFail();
+			writtenAtSnapshot = written;
+			snapshotIndex = segmentIndex;
+		}
+		// the games are encoded straight into the buffer while their locks are held
+		ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE + (games.size() + 16) * GameCodec.ENCODED_SIZE);
+		buffer.position(SNAPSHOT_HEADER_SIZE);
+		int count = 0;
+		for (Game game : games) {
+			UUID gameId = game.getGameId();
+			Lock lock = gameLocks.getLock(gameId);
+			lock.lock();
+			try {
+				// a game recycled since it was found is a different game now
+				if (gameId.equals(game.getGameId())) {
+					if (buffer.remaining() < GameCodec.ENCODED_SIZE) {
+						buffer = grow(buffer);
+					}
+					GameCodec.encode(game, buffer);
+					count++;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		buffer.putLong(0, SNAPSHOT_MAGIC);
+		buffer.putInt(8, SNAPSHOT_VERSION);
+		buffer.putInt(12, count);
+		buffer.flip();
+		Path path = snapshotPath(snapshotIndex);
+		Path temporary = directory.resolve(path.getFileName() + ".tmp");
+		try {
+			try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					file.write(buffer);
+				}
+				file.force(true);
+			}
+			Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+			for (Path old : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+				if (indexOf(old, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotIndex) {
+					Files.delete(old);
+				}
+			}
+			for (Path old : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+				if (indexOf(old, SEGMENT_PREFIX, SEGMENT_SUFFIX) < snapshotIndex) {
+					Files.delete(old);
+				}
+			}
+		} catch (IOException e) {
+			LOG.warn("unable to write a snapshot of [{}] games, the log will be kept until the next one", count, e);
+			return;
+		}
+		LOG.info("wrote a snapshot of [{}] games to [{}]", count, path.toAbsolutePath());
+	}
+
+	/**
+	 * force everything written to disk and stop the committer
+	 */
+	@PreDestroy
+	public void close() {
+
+		synchronized (appendLock) {
+			if (!running) {
+				return;
+			}
+			running = false;
+			LockSupport.unpark(committer);
+			try {
+				committer.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			// after a failure what was written can no longer be said to be on disk
+			if (failure == null) {
+				forceSegment(segment);
+				durable = written;
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				LOG.warn("unable to close the game log", e);
+			}
+		}
+		synchronized (commitMonitor) {
+			commitMonitor.notifyAll();
+		}
+	}
+
+	/**
+	 * @return the number of times records have been forced to disk
+	 */
+	public long countCommits() {
+
+		return commits.sum();
+	}
+
+	private long append(int type, int sequence, UUID gameId, long time, long payload) {
+
+		long high = gameId.getMostSignificantBits();
+		long low = gameId.getLeastSignificantBits();
+		int value = (int) payload;
+		synchronized (appendLock) {
+			if (failure != null) {
+				throw new IllegalStateException("the game log could not be written to disk", failure);
+			}
+			if (!running) {
+				throw new IllegalStateException("the game log has been closed");
+			}
+			MappedByteBuffer buffer = segment;
+			if (buffer.remaining() < RECORD_SIZE) {
+				startSegmentOrFail();
+				buffer = segment;
+			}
+			buffer.putInt(type).putInt(sequence).putLong(high).putLong(low).putLong(time).putInt(value)
+					.putInt(checksum(type, sequence, high, low, time, value));
+			written += RECORD_SIZE;
+			records.increment();
+			return written;
+		}
+	}
+
+	/**
+	 * force the records written into a segment to disk
+	 * @param buffer - the mapped segment
+	 */
+	protected void forceSegment(MappedByteBuffer buffer) {
+
+		buffer.force();
+	}
+
+	// runs on the committer thread, every force covers all the records written before it started
+	private void commitRecords() {
+
+		try {
+			while (running) {
+				long target = written;
+				if (target == durable) {
+					LockSupport.parkNanos(COMMIT_INTERVAL_NANOS);
+					continue;
+				}
+				forceSegment(segment);
+				commits.increment();
+				synchronized (commitMonitor) {
+					durable = target;
+					commitMonitor.notifyAll();
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			LOG.error("unable to force the game log to disk, no more changes will be stored", e);
+			synchronized (commitMonitor) {
+				failure = e;
+				commitMonitor.notifyAll();
+			}
+		}
+	}
+
+	private void startSegmentOrFail() {
+
+		try {
+			startSegment();
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to start a new game log segment", e);
+		}
+	}
+
+	// only call while holding the append lock, or from the constructor
+	private void startSegment() throws IOException {
+
+		if (segment != null) {
+			// records in the old segment must reach the disk before anyone is told the new ones have
+			forceSegment(segment);
+			channel.close();
+		}
+		segmentIndex++;
+		channel = FileChannel.open(segmentPath(segmentIndex), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+	}
+
+	private static List<LogRecord> readSegment(Path path) {
+
+		List<LogRecord> recordsInSegment = new ArrayList<>();
+		try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+			while (buffer.remaining() >= RECORD_SIZE) {
+				int type = buffer.getInt();
+				int sequence = buffer.getInt();
+				long high = buffer.getLong();
+				long low = buffer.getLong();
+				long time = buffer.getLong();
+				int payload = buffer.getInt();
+				if (buffer.getInt() != checksum(type, sequence, high, low, time, payload)) {
+					// the end of what was written, the rest of the segment is empty or was cut off
+					break;
+				}
+				recordsInSegment.add(new LogRecord(type, sequence, new UUID(high, low), time, payload));
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("unable to read game log segment " + path, e);
+		}
+		return recordsInSegment;
+	}
+
+	private List<GameSnapshot> readSnapshot(Path path) throws IOException {
+
+		try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+			if (buffer.remaining() < SNAPSHOT_HEADER_SIZE || buffer.getLong() != SNAPSHOT_MAGIC) {
+				throw new IOException(path + " is not a game snapshot");
+			}
+			int version = buffer.getInt();
+			if (version != SNAPSHOT_VERSION) {
+				throw new IOException("game snapshot version " + version + " is not supported");
+			}
+			int count = buffer.getInt();
+			if (count < 0 || buffer.remaining() != (long) count * GameCodec.ENCODED_SIZE) {
+				throw new IOException(path + " should hold " + count + " games but is " + file.size() + " bytes long");
+			}
+			List<GameSnapshot> snapshots = new ArrayList<>(count);
+			try {
+				for (int i = 0; i < count; i++) {
+					snapshots.add(GameCodec.decode(buffer));
+				}
+			} catch (IllegalArgumentException e) {
+				throw new IOException(path + " holds a game which cannot be read", e);
+			}
+			return snapshots;
+		}
+	}
+
+	private static ByteBuffer grow(ByteBuffer buffer) {
+
+		ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+		buffer.flip();
+		bigger.put(buffer);
+		return bigger;
+	}
+
+	private Path latestSnapshot() throws IOException {
+
+		Path latest = null;
+		for (Path path : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+			if (latest == null || indexOf(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) > indexOf(latest, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+				latest = path;
+			}
+		}
+		return latest;
+	}
+
+	private List<Path> listFiles(String prefix, String suffix) throws IOException {
+
+		List<Path> paths = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+			files.forEach(paths::add);
+		}
+		return paths;
+	}
+
+	private Path segmentPath(long index) {
+
+		return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+	}
+
+	private Path snapshotPath(long index) {
+
+		return directory.resolve(String.format("%s%012d%s", SNAPSHOT_PREFIX, index, SNAPSHOT_SUFFIX));
+	}
+
+	private static long indexOf(Path path, String prefix, String suffix) {
+
+		String name = path.getFileName().toString();
+		return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+	}
+
+	// a record of all zeros, where nothing has been written yet, never matches
+	private static int checksum(int type, int sequence, long high, long low, long time, int payload) {
+
+		long hash = 0x9e3779b97f4a7c15L;
+		hash = mix(hash ^ (((long) type << 32) | (sequence & 0xffffffffL)));
+		hash = mix(hash ^ high);
+		hash = mix(hash ^ low);
+		hash = mix(hash ^ time);
+		hash = mix(hash ^ payload);
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static long mix(long hash) {
+
+		hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+		hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+
+	// one change read back from the log
+	private static class LogRecord {
+
+		private final int type;
+		private final int sequence;
+		private final UUID gameId;
+		private final long time;
+		private final int payload;
+
+		LogRecord(int type, int sequence, UUID gameId, long time, int payload) {
+
+			this.type = type;
+			this.sequence = sequence;
+			this.gameId = gameId;
+			this.time = time;
+			this.payload = payload;
+		}
+
+		void applyTo(Map<UUID, GameHistory> histories) {
+
+			if (type == CREATED) {
+				histories.put(gameId, GameHistory.created(gameId, payload, time));
+			} else if (type == REMOVED) {
+				histories.remove(gameId);
+			} else if (type == MOVE) {
+				// moves for a game which is not known were made in a game removed before the snapshot
+				GameHistory history = histories.get(gameId);
+				if (history != null) {
+					history.moveMade(sequence, payload, time);
+				}
+			}
+		}
+	}
+
+}
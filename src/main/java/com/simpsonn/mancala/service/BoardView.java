@@ -0,0 +1,60 @@
+package com.simpsonn.mancala.service;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * a copy of a game's board and state taken while holding the game lock, along
+ * with the outcome of the move which led to it. It is filled in by the service
+ * and can be used again for the next move, so clients which only want the bare
+ * board do not need a response object built for every move
+ */
+public class BoardView {
+
+	private final int[] stones = new int[BoardTopology.POSITIONS];
+	private GameState gameState;
+	private int moveCount;
+	private int outcome;
+
+	void set(int[] stoneCounts, GameState gameState, int moveCount, int outcome) {
+
+		System.arraycopy(stoneCounts, 0, stones, 0, stones.length);
+		this.gameState = gameState;
+		this.moveCount = moveCount;
+		this.outcome = outcome;
+	}
+
+	/**
+	 * @return the stone counts, from pit 1 to player 2's kalah
+	 */
+	public int[] getStones() {
+
+		return stones;
+	}
+
+	/**
+	 * @return the state of the game
+	 */
+	public GameState getGameState() {
+
+		return gameState;
+	}
+
+	/**
+	 * @return the number of moves made in the game when the board was copied, which orders the copies of one game
+	 */
+	public int getMoveCount() {
+
+		return moveCount;
+	}
+
+	/**
+	 * @return the {@link MoveOutcome} of the move, {@link MoveOutcome#NONE} if the board was only read
+	 */
+	public int getOutcome() {
+
+		return outcome;
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.simpsonn.mancala.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.persistence.GameRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * clears finished and abandoned games out of the game registry so that they do
+ * not use up memory or count towards the limit of live games.
+ *
+ * finished games are kept for a short while so that the players can still see
+ * the result, games which nobody has made a move in for a long time are treated
+ * as abandoned. This runs on the background scheduler and never waits for a
+ * game lock, so it never holds up a move. Removed games are offered to the
+ * game pool to be used again.
+ */
+@Component
+public class GameEvictionTask {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GameEvictionTask.class);
+
+	private final GameRegistry gameRegistry;
+	private final GamePool gamePool;
+	private final GameRepository gameRepository;
+	private final GameUpdates gameUpdates;
+	private final GameViews gameViews;
+	private final long idleTimeoutMillis;
+	private final long finishedTimeoutMillis;
+	private final Counter idleGamesEvicted;
+	private final Counter finishedGamesEvicted;
+
+	public GameEvictionTask(GameRegistry gameRegistry, GamePool gamePool, GameRepository gameRepository, GameUpdates gameUpdates,
+			GameViews gameViews, MeterRegistry meterRegistry,
+			@Value("${game.eviction.idle-timeout-ms:1800000}") long idleTimeoutMillis,
+			@Value("${game.eviction.finished-timeout-ms:60000}") long finishedTimeoutMillis) {
+
+		this.gameRegistry = gameRegistry;
+		this.gamePool = gamePool;
+		this.gameRepository = gameRepository;
+		this.gameUpdates = gameUpdates;
+		this.gameViews = gameViews;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.finishedTimeoutMillis = finishedTimeoutMillis;
+		this.idleGamesEvicted = Counter.builder("mancala.games.evicted")
+				.description("games removed from memory")
+				.tag("reason", "idle")
+				.register(meterRegistry);
+		this.finishedGamesEvicted = Counter.builder("mancala.games.evicted")
+				.description("games removed from memory")
+				.tag("reason", "finished")
+				.register(meterRegistry);
+		Gauge.builder("mancala.games.live", gameRegistry, GameRegistry::countGames)
+				.description("games currently held in memory")
+				.register(meterRegistry);
+		Gauge.builder("mancala.games.pooled", gamePool, GamePool::countGames)
+				.description("removed games waiting to be used again for new games")
+				.register(meterRegistry);
+		Gauge.builder("mancala.games.capacity", gameRegistry, GameRegistry::getMaxGames)
+				.description("the most games that can be held in memory at once")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * remove every game which has finished or been left idle for too long
+	 */
+	@Scheduled(initialDelayString = "${game.eviction.interval-ms:10000}", fixedDelayString = "${game.eviction.interval-ms:10000}")
+	public void evictGames() {
+
+		evictGames(System.currentTimeMillis());
+	}
+
+	/**
+	 * remove every game which had finished or been left idle for too long at the given time
+	 * @param now - the current time in milliseconds since the epoch
+	 * @return the number of games removed
+	 */
+	public int evictGames(long now) {
+
+		int finishedCount = 0;
+		int idleCount = 0;
+		for (Game game : gameRegistry.getGames()) {
+			long idleTime = now - game.getLastActivityTime();
+			if (game.isFinished() && idleTime >= finishedTimeoutMillis) {
+				if (gameRegistry.removeGame(game)) {
+					finishedCount++;
+					evictGame(game);
+				}
+			} else if (idleTime >= idleTimeoutMillis && gameRegistry.removeGame(game)) {
+				idleCount++;
+				evictGame(game);
+			}
+		}
+		finishedGamesEvicted.increment(finishedCount);
+		idleGamesEvicted.increment(idleCount);
+		if (finishedCount + idleCount > 0) {
+			LOG.info("evicted [{}] finished and [{}] idle games, [{}] games remain", finishedCount, idleCount, gameRegistry.countGames());
+		}
+		return finishedCount + idleCount;
+	}
+
+	// record the removal, end any update streams and drop its json before recycling the game, recycling gives it a new id
+	private void evictGame(Game game) {
+
+		gameRepository.gameRemoved(game.getGameId());
+		gameUpdates.gameRemoved(game.getGameId());
+		gameViews.gameRemoved(game.getGameId());
+		gamePool.recycleGame(game);
+	}
+
+}
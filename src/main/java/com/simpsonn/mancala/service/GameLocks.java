@@ -0,0 +1,51 @@
+package com.simpsonn.mancala.service;
+
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * a fixed set of locks which games are spread across by their id. Holding the
+ * lock for a game means no other thread can change that game, so moves on the
+ * same game happen one after another while moves on other games carry on in
+ * parallel. Using a fixed number of locks rather than one per game keeps the
+ * memory cost the same however many games are live.
+ */
+@Component
+public class GameLocks {
+
+	private final Lock[] locks;
+	private final int mask;
+
+	/**
+	 * create the locks, the number of stripes is rounded up to a power of two
+	 *
+	 * @param stripes - the number of locks to spread the games across
+	 */
+	public GameLocks(@Value("${game.locks.stripes:1024}") int stripes) {
+
+		int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+		locks = new Lock[size];
+		for (int i = 0; i < size; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		mask = size - 1;
+	}
+
+	/**
+	 * get the lock which guards the game with this id
+	 * @param gameId - the id of the game
+	 * @return the lock to hold while reading or changing the game
+	 */
+	public Lock getLock(UUID gameId) {
+
+		// spread the bits of the hash so that ids which differ only in the high bits use different locks
+		int hash = gameId.hashCode();
+		hash ^= (hash >>> 16);
+		return locks[hash & mask];
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.simpsonn.mancala.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameIdGenerator;
+
+/**
+ * keeps hold of games which have been removed from the registry so that they
+ * can be used again for new games rather than being thrown away and created
+ * from scratch. The pool only holds up to a maximum number of games, when it
+ * is empty new games are created as normal.
+ *
+ * a game which is removed from the registry may still be in the hands of a
+ * request which looked it up just before, so a game is only recycled while
+ * holding its lock and it is given its new id straight away. Any request still
+ * holding on to it will see the id has changed once it gets the lock and treat
+ * the game as gone.
+ */
+@Component
+public class GamePool {
+
+	private final Queue<Game> games = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final GameLocks gameLocks;
+	private final int maxSize;
+
+	public GamePool(GameLocks gameLocks, @Value("${game.pool.max-size:10000}") int maxSize) {
+
+		this.gameLocks = gameLocks;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * get a game ready to be played, either a recycled one or a brand new one
+	 * @return a game with a new id set up for player 1 to make the first move
+	 */
+	public Game takeGame() {
+
+		Game game = games.poll();
+		if (game == null) {
+			return new Game();
+		}
+		size.decrementAndGet();
+		game.setLastActivityTime(System.currentTimeMillis());
+		return game;
+	}
+
+	/**
+	 * offer a game which has been removed from the registry back to the pool,
+	 * this never waits, if the game is in use or the pool is full it is left for
+	 * the garbage collector
+	 * @param game - the game which is no longer needed
+	 * @return true if the game was taken into the pool
+	 */
+	public boolean recycleGame(Game game) {
+
+		if (size.get() >= maxSize) {
+			return false;
+		}
+		Lock lock = gameLocks.getLock(game.getGameId());
+		if (!lock.tryLock()) {
+			return false;
+		}
+		try {
+			game.reset(GameIdGenerator.newGameId());
+		} finally {
+			lock.unlock();
+		}
+		size.incrementAndGet();
+		games.offer(game);
+		return true;
+	}
+
+	/**
+	 * count the games waiting in the pool
+	 * @return the number of games ready to be used again
+	 */
+	public int countGames() {
+
+		return size.get();
+	}
+
+}
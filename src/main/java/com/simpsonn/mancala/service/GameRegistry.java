@@ -0,0 +1,150 @@
+package com.simpsonn.mancala.service;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * an in-memory index of all the games in progress keyed by their id. Adding,
+ * finding and removing a game are constant time operations no matter how many
+ * games are live, and they are safe to call from many request threads at once.
+ * 
+ * the registry will only hold up to a maximum number of games, once it is full
+ * new games are turned away until finished or abandoned games are removed
+ */
+@Component
+public class GameRegistry {
+
+	private final ConcurrentHashMap<UUID, Game> games;
+	private final AtomicInteger liveGames = new AtomicInteger();
+	private final int maxGames;
+
+	/**
+	 * create a registry sized up front for the expected number of live games so
+	 * that the table does not have to keep resizing as games are added
+	 *
+	 * @param initialCapacity - the number of games to size the registry for
+	 * @param maxGames - the most games the registry will hold at once
+	 */
+	public GameRegistry(@Value("${game.registry.initial-capacity:65536}") int initialCapacity, 
+			@Value("${game.registry.max-games:100000}") int maxGames) {
+
+		this.games = new ConcurrentHashMap<>(Math.min(initialCapacity, maxGames));
+		this.maxGames = maxGames;
+	}
+
+	/**
+	 * add a game to the registry so it can be found by its id, unless the
+	 * registry is already full
+	 * @param game - the game to add
+	 * @return true if the game was added, false if the registry is full
+	 */
+	public boolean addGame(Game game) {
+
+		// reserve a place first so that racing threads can never take the registry past its limit
+		if (liveGames.incrementAndGet() > maxGames) {
+			liveGames.decrementAndGet();
+			return false;
+		}
+		if (games.put(game.getGameId(), game) != null) {
+			liveGames.decrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * add a batch of games to the registry, either all of them are added or if
+	 * there is not enough room for all of them then none are
+	 * @param newGames - the games to add
+	 * @return true if the games were added, false if there is not room for them all
+	 */
+	public boolean addGames(Collection<Game> newGames) {
+
+		int count = newGames.size();
+		if (liveGames.addAndGet(count) > maxGames) {
+			liveGames.addAndGet(-count);
+			return false;
+		}
+		for (Game game : newGames) {
+			if (games.put(game.getGameId(), game) != null) {
+				liveGames.decrementAndGet();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * find a game by its id
+	 * @param gameId - the id of the game to find
+	 * @return the game or null if there is no game with this id
+	 */
+	public Game getGame(UUID gameId) {
+
+		return games.get(gameId);
+	}
+
+	/**
+	 * remove a game from the registry, once removed it can no longer be played
+	 * @param gameId - the id of the game to remove
+	 * @return true if the game was found and removed, otherwise false
+	 */
+	public boolean removeGame(UUID gameId) {
+
+		if (games.remove(gameId) != null) {
+			liveGames.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * remove this game from the registry, but only if it is still the game
+	 * registered under its id
+	 * @param game - the game to remove
+	 * @return true if the game was found and removed, otherwise false
+	 */
+	public boolean removeGame(Game game) {
+
+		if (games.remove(game.getGameId(), game)) {
+			liveGames.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * get a live view of the games in the registry, iterating over it never
+	 * blocks other threads and games added or removed while iterating may or may
+	 * not be seen
+	 * @return all the games in the registry
+	 */
+	public Collection<Game> getGames() {
+
+		return games.values();
+	}
+
+	/**
+	 * count the games currently held in the registry
+	 * @return the number of live games
+	 */
+	public int countGames() {
+
+		return liveGames.get();
+	}
+
+	/**
+	 * get the most games the registry will hold at once
+	 * @return the maximum number of live games
+	 */
+	public int getMaxGames() {
+
+		return maxGames;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.simpsonn.mancala.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.persistence.GameRepository;
+
+/**
+ * stores a copy of every live game on the background scheduler so that the
+ * game repository can throw away its older records, which keeps the time it
+ * takes to put the games back after a restart short. Each game is only locked
+ * for as long as it takes to copy it
+ */
+@Component
+public class GameSnapshotTask {
+
+	private final GameRegistry gameRegistry;
+	private final GameLocks gameLocks;
+	private final GameRepository gameRepository;
+
+	public GameSnapshotTask(GameRegistry gameRegistry, GameLocks gameLocks, GameRepository gameRepository) {
+
+		this.gameRegistry = gameRegistry;
+		this.gameLocks = gameLocks;
+		this.gameRepository = gameRepository;
+	}
+
+	/**
+	 * store a copy of every live game
+	 */
+	@Scheduled(initialDelayString = "${game.store.snapshot-interval-ms:60000}", fixedDelayString = "${game.store.snapshot-interval-ms:60000}")
+	public void writeSnapshot() {
+
+		gameRepository.writeSnapshot(gameRegistry.getGames(), gameLocks);
+	}
+
+}
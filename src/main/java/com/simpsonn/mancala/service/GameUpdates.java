@@ -0,0 +1,476 @@
+package com.simpsonn.mancala.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * pushes the changes to a game to everyone watching it as server-sent events,
+ * so clients do not have to keep asking for the board.
+ *
+ * each watched game has a topic holding the board as last sent. When a move
+ * is made the positions which changed are turned into a <b>move</b> event
+ * once and the same event is handed to every subscriber of the game. Each
+ * subscriber has a small queue of its own and a few shared sender threads
+ * write the queued events out, so the thread making the move never waits for
+ * a client. If a client falls so far behind that its queue fills up, the
+ * queue is thrown away and the client is sent one <b>snapshot</b> event of the
+ * whole board when it catches up, so the memory held for a subscriber never
+ * grows however slow it is. A new subscriber is sent a snapshot first.
+ *
+ * writing an event blocks until the client's connection takes it, so a client
+ * which stops reading altogether would hold a sender thread until the
+ * container gives up on the write. A watchdog looks for writes which have
+ * taken longer than <b>game.updates.send-time-limit-ms</b>, cuts that client
+ * off and starts another sender thread in place of the stuck one until its
+ * write returns, so the other clients are never held up by it.
+ *
+ * events carry the move count as their id, and a move event holds the new
+ * stone counts of the pits which changed, not the difference, so applying an
+ * event twice does no harm. The stream ends when the game is over or removed.
+ */
+@Component
+public class GameUpdates {
+
+	private static final Logger LOG = LoggerFactory.getLogger(GameUpdates.class);
+
+	public static final String SNAPSHOT_EVENT = "snapshot";
+	public static final String MOVE_EVENT = "move";
+	private static final int MAP_INDEX_OFFSET = 1;
+
+	// a subscriber's send start time when it is not writing anything, and once it has been cut off
+	private static final long NOT_SENDING = Long.MIN_VALUE;
+	private static final long CUT_OFF = Long.MAX_VALUE;
+
+	private final ConcurrentHashMap<UUID, Topic> topics = new ConcurrentHashMap<>();
+	private final ThreadPoolExecutor senders;
+	private final ScheduledExecutorService watchdog;
+	private final int queueCapacity;
+	private final int maxSubscribers;
+	private final long timeoutMillis;
+	private final long sendTimeLimitNanos;
+	private final AtomicInteger subscribers = new AtomicInteger();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder cutOff = new LongAdder();
+
+	public GameUpdates(@Value("${game.updates.sender-threads:4}") int senderThreads,
+			@Value("${game.updates.queue-capacity:16}") int queueCapacity,
+			@Value("${game.updates.max-subscribers:50000}") int maxSubscribers,
+			@Value("${game.updates.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${game.updates.send-time-limit-ms:5000}") long sendTimeLimitMillis, MeterRegistry meterRegistry) {
+
+		if (senderThreads < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("game updates need at least one sender thread and room for one event per subscriber");
+		}
+		this.queueCapacity = queueCapacity;
+		this.maxSubscribers = maxSubscribers;
+		this.timeoutMillis = timeoutMillis;
+		this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMillis);
+		AtomicInteger threadCount = new AtomicInteger();
+		this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), task -> {
+			Thread thread = new Thread(task, "game-updates-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// a limit of 0 lets a write take as long as the container allows
+		if (sendTimeLimitMillis > 0) {
+			this.watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "game-updates-watchdog");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long checkInterval = Math.max(1, sendTimeLimitMillis / 2);
+			watchdog.scheduleWithFixedDelay(this::cutOffStuckSubscribers, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+		} else {
+			this.watchdog = null;
+		}
+		Gauge.builder("mancala.updates.subscribers", subscribers, AtomicInteger::get)
+				.description("clients watching games for updates")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.updates.coalesced", coalesced, LongAdder::sum)
+				.description("times a client fell behind and was sent a snapshot instead of the moves it missed")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.updates.cut-off", cutOff, LongAdder::sum)
+				.description("clients cut off because writing an update to them took longer than the send time limit")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * start watching a game, only call this while holding the lock for the game
+	 *
+	 * @param game - the game to watch
+	 * @return the event stream for the client
+	 */
+	public SseEmitter subscribe(Game game) {
+
+		return subscribe(game, new SseEmitter(timeoutMillis));
+	}
+
+	/**
+	 * start sending the updates to a game down an existing stream, only call
+	 * this while holding the lock for the game
+	 *
+	 * @param game - the game to watch
+	 * @param emitter - where to send the events
+	 * @return the emitter
+	 */
+	public SseEmitter subscribe(Game game, SseEmitter emitter) {
+
+		if (subscribers.incrementAndGet() > maxSubscribers) {
+			subscribers.decrementAndGet();
+			LOG.info("unable to watch game id [{}] as the limit of [{}] subscribers has been reached", game.getGameId(), maxSubscribers);
+			throw new ServiceBusyException("too many clients are watching games, please try again later");
+		}
+		UUID gameId = game.getGameId();
+		Subscriber subscriber = new Subscriber(gameId, emitter);
+		topics.compute(gameId, (id, existing) -> {
+			Topic watched = existing == null ? new Topic(game) : existing;
+			watched.subscribers.add(subscriber);
+			subscriber.topic = watched;
+			return watched;
+		});
+		emitter.onCompletion(subscriber::unsubscribe);
+		emitter.onTimeout(subscriber::unsubscribe);
+		emitter.onError(error -> subscriber.unsubscribe());
+		subscriber.sendSnapshot();
+		return emitter;
+	}
+
+	/**
+	 * tell everyone watching the game about the latest move, only call this
+	 * while holding the lock for the game
+	 *
+	 * @param game - the game which has changed
+	 */
+	public void gameChanged(Game game) {
+
+		Topic topic = topics.get(game.getGameId());
+		if (topic == null) {
+			return;
+		}
+		Event event = topic.update(game);
+		if (event == null) {
+			return;
+		}
+		for (Subscriber subscriber : topic.subscribers) {
+			subscriber.offer(event);
+		}
+	}
+
+	/**
+	 * end the streams of everyone watching a game which has been removed
+	 *
+	 * @param gameId - the id of the game
+	 */
+	public void gameRemoved(UUID gameId) {
+
+		Topic topic = topics.remove(gameId);
+		if (topic != null) {
+			for (Subscriber subscriber : topic.subscribers) {
+				subscriber.emitter.complete();
+				subscriber.unsubscribe();
+			}
+		}
+	}
+
+	/**
+	 * @return how many clients are watching games
+	 */
+	public int countSubscribers() {
+
+		return subscribers.get();
+	}
+
+	/**
+	 * @return how many times a client fell behind and was sent a snapshot instead
+	 */
+	public long countCoalesced() {
+
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return how many clients were cut off for not taking an update in time
+	 */
+	public long countCutOff() {
+
+		return cutOff.sum();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+
+		if (watchdog != null) {
+			watchdog.shutdownNow();
+		}
+		senders.shutdownNow();
+	}
+
+	// runs on the watchdog thread, only the subscribers still watching a game can be writing
+	private void cutOffStuckSubscribers() {
+
+		long now = System.nanoTime();
+		for (Topic topic : topics.values()) {
+			for (Subscriber subscriber : topic.subscribers) {
+				long started = subscriber.sendStarted.get();
+				if (started != NOT_SENDING && started != CUT_OFF && now - started > sendTimeLimitNanos) {
+					subscriber.cutOff(started);
+				}
+			}
+		}
+	}
+
+	// another sender for while one is stuck writing, the core size goes first as it must stay below the maximum
+	private void addSender() {
+
+		synchronized (senders) {
+			senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+			senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+		}
+	}
+
+	private void removeSender() {
+
+		synchronized (senders) {
+			senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+			senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+		}
+	}
+
+	/*
+	 * the board of one watched game as it was last sent out, only changed while
+	 * holding the game lock but read by the sender threads for snapshots
+	 */
+	private static final class Topic {
+
+		final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+		private final int[] stones = new int[BoardTopology.POSITIONS];
+		private int moveCount;
+		private GameState gameState;
+
+		Topic(Game game) {
+
+			System.arraycopy(game.getBoard().getStoneCounts(), 0, stones, 0, stones.length);
+			moveCount = game.getMoveCount();
+			gameState = game.getGameState();
+		}
+
+		// record the game as it is now, returns the event for what changed or null if nothing did
+		synchronized Event update(Game game) {
+
+			int[] current = game.getBoard().getStoneCounts();
+			StringBuilder data = new StringBuilder(128);
+			data.append("{\"moveCount\":").append(game.getMoveCount())
+					.append(",\"gameState\":\"").append(game.getGameState().getDescription())
+					.append("\",\"changes\":{");
+			boolean changed = false;
+			for (int position = 0; position < stones.length; position++) {
+				if (stones[position] != current[position]) {
+					if (changed) {
+						data.append(',');
+					}
+					data.append('"').append(position + MAP_INDEX_OFFSET).append("\":\"").append(current[position]).append('"');
+					stones[position] = current[position];
+					changed = true;
+				}
+			}
+			if (!changed && moveCount == game.getMoveCount() && gameState == game.getGameState()) {
+				return null;
+			}
+			moveCount = game.getMoveCount();
+			gameState = game.getGameState();
+			return new Event(MOVE_EVENT, moveCount, data.append("}}").toString(), isOver(gameState));
+		}
+
+		synchronized Event snapshot() {
+
+			StringBuilder data = new StringBuilder(256);
+			data.append("{\"moveCount\":").append(moveCount)
+					.append(",\"gameState\":\"").append(gameState.getDescription())
+					.append("\",\"status\":{");
+			for (int position = 0; position < stones.length; position++) {
+				if (position > 0) {
+					data.append(',');
+				}
+				data.append('"').append(position + MAP_INDEX_OFFSET).append("\":\"").append(stones[position]).append('"');
+			}
+			return new Event(SNAPSHOT_EVENT, moveCount, data.append("}}").toString(), isOver(gameState));
+		}
+
+		private static boolean isOver(GameState gameState) {
+
+			return gameState != GameState.PLAYER_1_TURN && gameState != GameState.PLAYER_2_TURN;
+		}
+	}
+
+	// an event written once and shared by every subscriber of the game
+	private static final class Event {
+
+		final String name;
+		final int moveCount;
+		final String data;
+		final boolean last;
+
+		Event(String name, int moveCount, String data, boolean last) {
+
+			this.name = name;
+			this.moveCount = moveCount;
+			this.data = data;
+			this.last = last;
+		}
+	}
+
+	/*
+	 * one client's stream, events are queued by the thread making the move and
+	 * written out by one sender thread at a time
+	 */
+	private final class Subscriber implements Runnable {
+
+		private final UUID gameId;
+		private final SseEmitter emitter;
+		private final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final AtomicBoolean subscribed = new AtomicBoolean(true);
+		private final AtomicLong sendStarted = new AtomicLong(NOT_SENDING);
+		private volatile boolean needsSnapshot;
+		private volatile Topic topic;
+
+		Subscriber(UUID gameId, SseEmitter emitter) {
+
+			this.gameId = gameId;
+			this.emitter = emitter;
+		}
+
+		void offer(Event event) {
+
+			if (!queue.offer(event)) {
+				// too far behind, everything queued is replaced by one snapshot
+				needsSnapshot = true;
+				queue.clear();
+				coalesced.increment();
+			}
+			schedule();
+		}
+
+		void sendSnapshot() {
+
+			needsSnapshot = true;
+			schedule();
+		}
+
+		private void schedule() {
+
+			if (subscribed.get() && scheduled.compareAndSet(false, true)) {
+				senders.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				send();
+			} finally {
+				scheduled.set(false);
+				if (needsSnapshot || !queue.isEmpty()) {
+					schedule();
+				}
+			}
+		}
+
+		private void send() {
+
+			while (subscribed.get()) {
+				Event event;
+				if (needsSnapshot) {
+					needsSnapshot = false;
+					queue.clear();
+					event = topic.snapshot();
+				} else {
+					event = queue.poll();
+					if (event == null) {
+						return;
+					}
+				}
+				boolean wasCutOff;
+				sendStarted.set(System.nanoTime());
+				try {
+					emitter.send(SseEmitter.event().id(String.valueOf(event.moveCount)).name(event.name).data(event.data));
+				} catch (IOException | IllegalStateException e) {
+					// the client has gone or the stream has already ended
+					LOG.debug("stopped sending updates for game id [{}]", gameId, e);
+					unsubscribe();
+					return;
+				} finally {
+					wasCutOff = sendStarted.getAndSet(NOT_SENDING) == CUT_OFF;
+					if (wasCutOff) {
+						removeSender();
+					}
+				}
+				if (wasCutOff) {
+					// the write got through in the end, but the client is too slow to keep
+					emitter.complete();
+					return;
+				}
+				if (event.last) {
+					emitter.complete();
+					unsubscribe();
+					return;
+				}
+			}
+		}
+
+		// called by the watchdog, the write may have finished since it looked so only cut off the one it saw
+		void cutOff(long started) {
+
+			if (sendStarted.compareAndSet(started, CUT_OFF)) {
+				cutOff.increment();
+				LOG.info("cut off a client watching game id [{}] which has not taken an update for [{}] ms", gameId,
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+				unsubscribe();
+				addSender();
+			}
+		}
+
+		void unsubscribe() {
+
+			if (subscribed.compareAndSet(true, false)) {
+				subscribers.decrementAndGet();
+				queue.clear();
+				topics.computeIfPresent(gameId, (id, watched) -> {
+					watched.subscribers.remove(this);
+					return watched.subscribers.isEmpty() ? null : watched;
+				});
+			}
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+package com.simpsonn.mancala.service;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.model.response.GameResponse;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * keeps the json for the latest version of each game which has been read, so
+ * clients polling a game are sent the same bytes until a move is made instead
+ * of the response being built and serialized for every request.
+ *
+ * a version is the move count of the game, which is also its etag. Only the
+ * newest version of a game is kept and it is dropped when the game is
+ * removed. How many reads were not modified, sent from the cache or had to be
+ * serialized is published as mancala.reads.
+ */
+@Component
+public class GameViews {
+
+	private final ObjectMapper objectMapper;
+	private final ConcurrentHashMap<UUID, View> views = new ConcurrentHashMap<>();
+	private final LongAdder notModified = new LongAdder();
+	private final LongAdder cached = new LongAdder();
+	private final LongAdder serialized = new LongAdder();
+
+	public GameViews(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+		this.objectMapper = objectMapper;
+		FunctionCounter.builder("mancala.reads", notModified, LongAdder::sum)
+				.description("games read")
+				.tag("response", "not-modified")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.reads", cached, LongAdder::sum)
+				.description("games read")
+				.tag("response", "cached")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.reads", serialized, LongAdder::sum)
+				.description("games read")
+				.tag("response", "serialized")
+				.register(meterRegistry);
+		Gauge.builder("mancala.reads.cache.size", views, ConcurrentHashMap::size)
+				.description("games with json held for them")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * the etag for a version of a game, a strong one as the bytes sent for a
+	 * version never change
+	 *
+	 * @param moveCount - the number of moves made in the game
+	 * @return the quoted etag
+	 */
+	public static String etag(int moveCount) {
+
+		return "\"" + moveCount + "\"";
+	}
+
+	/**
+	 * see if the etags a client already has include the current one, weak etags
+	 * are compared by their value as an If-None-Match header allows
+	 *
+	 * @param ifNoneMatch - the If-None-Match header, or null if there was none
+	 * @param moveCount - the number of moves made in the game
+	 * @return true if the client's copy is still current and nothing needs to be sent
+	 */
+	public boolean isNotModified(String ifNoneMatch, int moveCount) {
+
+		if (ifNoneMatch == null || !matches(ifNoneMatch, moveCount)) {
+			return false;
+		}
+		notModified.increment();
+		return true;
+	}
+
+	/**
+	 * get the json for a version of a game if it has already been serialized
+	 *
+	 * @param gameId - the id of the game
+	 * @param moveCount - the number of moves made in the game
+	 * @return the json, or null if it has not been kept for this version
+	 */
+	public byte[] getView(UUID gameId, int moveCount) {
+
+		View view = views.get(gameId);
+		if (view == null || view.moveCount != moveCount) {
+			return null;
+		}
+		cached.increment();
+		return view.json;
+	}
+
+	/**
+	 * serialize a version of a game and keep it in place of any older one, call
+	 * this while holding the game lock so versions are stored in order
+	 *
+	 * @param gameId - the id of the game
+	 * @param moveCount - the number of moves made in the game
+	 * @param response - the game as it is after that many moves
+	 * @return the json
+	 */
+	public byte[] storeView(UUID gameId, int moveCount, GameResponse response) {
+
+		byte[] json;
+		try {
+			json = objectMapper.writeValueAsBytes(response);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("unable to write game " + gameId, e);
+		}
+		serialized.increment();
+		views.put(gameId, new View(moveCount, json));
+		return json;
+	}
+
+	/**
+	 * forget the json kept for a game which has been removed
+	 *
+	 * @param gameId - the id of the game
+	 */
+	public void gameRemoved(UUID gameId) {
+
+		views.remove(gameId);
+	}
+
+	/**
+	 * @return the number of games with json kept for them
+	 */
+	public int countViews() {
+
+		return views.size();
+	}
+
+	// compare each etag in the header without building any strings, * matches any version
+	private static boolean matches(String ifNoneMatch, int moveCount) {
+
+		int length = ifNoneMatch.length();
+		int index = 0;
+		while (index < length) {
+			char c = ifNoneMatch.charAt(index);
+			if (c == '*') {
+				return true;
+			}
+			if (c == 'W' && ifNoneMatch.startsWith("W/\"", index)) {
+				index += 2;
+			}
+			if (ifNoneMatch.charAt(index) == '"') {
+				int end = ifNoneMatch.indexOf('"', index + 1);
+				if (end < 0) {
+					return false;
+				}
+				if (isNumber(ifNoneMatch, index + 1, end, moveCount)) {
+					return true;
+				}
+				index = end + 1;
+			} else {
+				index++;
+			}
+		}
+		return false;
+	}
+
+	// see if the characters from start to end are the decimal digits of the number
+	private static boolean isNumber(String text, int start, int end, int number) {
+
+		// leading zeros would make it a different etag
+		if (start == end || end - start > 10 || (end - start > 1 && text.charAt(start) == '0')) {
+			return false;
+		}
+		long value = 0;
+		for (int index = start; index < end; index++) {
+			char c = text.charAt(index);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value == number;
+	}
+
+	// the json for one version of a game
+	private static final class View {
+
+		final int moveCount;
+		final byte[] json;
+
+		View(int moveCount, byte[] json) {
+
+			this.moveCount = moveCount;
+			this.json = json;
+		}
+	}
+
+}
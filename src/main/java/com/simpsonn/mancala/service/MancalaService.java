@@ -1,12 +1,16 @@
 package com.simpsonn.mancala.service;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.simpsonn.mancala.model.components.Game;
 import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.model.response.HintResponse;
 import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.model.response.MakeMovesResponse;
 
 /**
  * defines the methods mancala implementation service will expose.
@@ -14,9 +18,29 @@ import com.simpsonn.mancala.model.response.MakeMoveResponse;
 public interface MancalaService {
 
 	ResponseEntity<CreateGameResponse> createNewGame();
+
+	ResponseEntity<CreateGameResponse> createNewGame(boolean againstComputer);
+
+	ResponseEntity<CreateGameResponse> createNewGame(boolean againstComputer, long timeBudgetMillis);
+
+	ResponseEntity<List<CreateGameResponse>> createNewGames(int count);
 	
 	ResponseEntity<MakeMoveResponse> makeMove(UUID gameId, int pitId);
 
+	ResponseEntity<MakeMovesResponse> makeMoves(UUID gameId, List<Integer> pitIds);
+
+	void tryMove(UUID gameId, int pitId, BoardView view);
+
+	void readBoard(UUID gameId, BoardView view);
+
+	ResponseEntity<byte[]> getGame(UUID gameId, String ifNoneMatch);
+
+	ResponseEntity<HintResponse> getHint(UUID gameId);
+
+	ResponseEntity<SseEmitter> watchGame(UUID gameId);
+
 	Game getGameById(UUID gameId);
+
+	boolean removeGame(UUID gameId);
 	
 }
@@ -1,24 +1,68 @@
 package com.simpsonn.mancala.service;
 
 import com.simpsonn.mancala.controller.GameController;
-import com.simpsonn.mancala.model.components.BoardComponent;
+import com.simpsonn.mancala.controller.IllegalMoveException;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.metrics.ServiceMetrics;
 import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.Player;
+import com.simpsonn.mancala.model.player.PlayerId;
+import com.simpsonn.mancala.model.response.BoardStatus;
 import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.model.response.GameResponse;
+import com.simpsonn.mancala.model.response.HintResponse;
 import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.model.response.MakeMovesResponse;
+import com.simpsonn.mancala.model.response.MoveResult;
+import com.simpsonn.mancala.persistence.GameRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
 
 /**
  * this implementation is responsible for creating new games and sending move
  * requests to existing games and then sending the responses back for these requests
  * illegal moves will be thrown up the chain as illegal argument exceptions and converted
- * into an appropriate http response by the error controller
+ * into an appropriate http response by the error controller, as will a
+ * {@link ServiceBusyException} when the limit of live games has been reached
+ * 
+ * requests arrive on many threads at once, so every move is made while holding
+ * the lock for its game. Moves on the same game are made one at a time and
+ * moves on different games are made in parallel, creating a game takes no lock
+ * at all.
+ * 
+ * every change is recorded in the {@link GameRepository} while holding the game
+ * lock, then the lock is let go before waiting for the change to be stored, so
+ * moves on the same game are not held up by the disk. Games stored before a
+ * restart are put back when the service starts.
+ * 
+ * every move made, including the computer's, is passed to {@link GameUpdates}
+ * while still holding the lock, so the clients watching a game see the moves
+ * in the order they were made.
+ * 
+ * the one exception to holding the lock for a whole request is the computer
+ * player, which can think for seconds. Its position is copied, the lock is let
+ * go while it searches and the move is only made if the game has not changed
+ * in the meantime. Moves sent while it is the computer's turn are refused.
+ * 
+ * reading a game is answered from {@link GameViews}, which keeps the json for
+ * the latest version of each game so polling clients do not cost a response
+ * each time.
  */
 @Service
 public class MancalaServiceImpl implements MancalaService {
@@ -29,15 +73,76 @@ public class MancalaServiceImpl implements MancalaService {
 	
 	@Value("${game.root.address}")
 	private String gameRootAddress;
+
+	@Value("${game.response.board-format:map}")
+	private BoardStatus.Format boardFormat = BoardStatus.Format.MAP;
 	
 	final
 	GameController gameController;
 		
-	private final List<Game> games = new ArrayList<>();
+	final
+	GameRegistry gameRegistry;
 
-	public MancalaServiceImpl(GameController gameController) {
+	final
+	GameLocks gameLocks;
+
+	final
+	GamePool gamePool;
+
+	final
+	SearchEngine searchEngine;
+
+	final
+	MoveHints moveHints;
+
+	final
+	ServiceMetrics serviceMetrics;
+
+	final
+	GameRepository gameRepository;
+
+	final
+	GameUpdates gameUpdates;
+
+	final
+	GameViews gameViews;
+
+	public MancalaServiceImpl(GameController gameController, GameRegistry gameRegistry, GameLocks gameLocks, GamePool gamePool,
+			SearchEngine searchEngine, MoveHints moveHints, ServiceMetrics serviceMetrics, GameRepository gameRepository,
+			GameUpdates gameUpdates, GameViews gameViews) {
 
 		this.gameController = gameController;
+		this.gameRegistry = gameRegistry;
+		this.gameLocks = gameLocks;
+		this.gamePool = gamePool;
+		this.searchEngine = searchEngine;
+		this.moveHints = moveHints;
+		this.serviceMetrics = serviceMetrics;
+		this.gameRepository = gameRepository;
+		this.gameUpdates = gameUpdates;
+		this.gameViews = gameViews;
+	}
+
+	/**
+	 * put back the games which were in progress when the application last
+	 * stopped, before any requests are handled
+	 */
+	@PostConstruct
+	public void recoverGames() {
+
+		int recovered = 0;
+		for (Game game : gameRepository.loadGames()) {
+			if (gameRegistry.addGame(game)) {
+				recovered++;
+				// a game stopped while the computer was thinking would otherwise wait for it forever
+				if (game.getWhoseTurnItIs() instanceof ComputerPlayer) {
+					finishComputerTurns(game);
+				}
+			}
+		}
+		if (recovered > 0) {
+			LOG.info("put back [{}] games which were in progress, [{}] games are live", recovered, gameRegistry.countGames());
+		}
 	}
 
 	/**
@@ -46,39 +151,397 @@ public class MancalaServiceImpl implements MancalaService {
 	@Override
 	public ResponseEntity<CreateGameResponse> createNewGame() {
 
-		Game game = new Game();
-		games.add(game);
-		LOG.info("successfully created game id [{}]", game.getGameId().toString());
+		return createNewGame(false);
+	}
+
+	/**
+	 * creates a new game of mancala, optionally with the computer playing as
+	 * player 2, and returns the details
+	 */
+	@Override
+	public ResponseEntity<CreateGameResponse> createNewGame(boolean againstComputer) {
+
+		return createNewGame(againstComputer, searchEngine.getTimeBudgetMillis());
+	}
+
+	/**
+	 * creates a new game of mancala, optionally with the computer playing as
+	 * player 2 and thinking for the given time about each move, and returns the details
+	 */
+	@Override
+	public ResponseEntity<CreateGameResponse> createNewGame(boolean againstComputer, long timeBudgetMillis) {
+
+		long start = serviceMetrics.startTiming();
+		Game game = gamePool.takeGame();
+		if (againstComputer) {
+			game.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, searchEngine, timeBudgetMillis));
+		}
+		if (!gameRegistry.addGame(game)) {
+			LOG.info("unable to create a new game as the limit of [{}] live games has been reached", gameRegistry.getMaxGames());
+			throw new ServiceBusyException("too many games are in progress, please try again later");
+		}
+		gameRepository.awaitCommit(gameRepository.gameCreated(game));
+		LOG.info("successfully created game id [{}]", game.getGameId());
+		serviceMetrics.gameCreated(start);
 		return new ResponseEntity<>(getNewGameCreatedResponse(game),HttpStatus.CREATED);
 	}
 
+	/**
+	 * creates a batch of new games of mancala and returns their details, either
+	 * all of the games are created or if there is not room for them all none are
+	 */
+	@Override
+	public ResponseEntity<List<CreateGameResponse>> createNewGames(int count) {
+
+		List<Game> newGames = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			newGames.add(gamePool.takeGame());
+		}
+		if (!gameRegistry.addGames(newGames)) {
+			LOG.info("unable to create [{}] new games as the limit of [{}] live games would be exceeded", count, gameRegistry.getMaxGames());
+			throw new ServiceBusyException("too many games are in progress, please try again later");
+		}
+		List<CreateGameResponse> responses = new ArrayList<>(count);
+		long ticket = 0;
+		for (Game game : newGames) {
+			ticket = gameRepository.gameCreated(game);
+			responses.add(getNewGameCreatedResponse(game));
+		}
+		gameRepository.awaitCommit(ticket);
+		LOG.info("successfully created [{}] games", count);
+		return new ResponseEntity<>(responses, HttpStatus.CREATED);
+	}
+
 	/**
 	 * attempts to make a move and returns the board status afterwards
 	 */
 	@Override
 	public ResponseEntity<MakeMoveResponse> makeMove(UUID gameId, int pitId) {
 		
+		long start = serviceMetrics.startTiming();
 		Game game = getGameById(gameId);
-		if (game == null) {
-			LOG.info("player tried to make a move for game id [{}] which does not exist", gameId.toString());
-			throw new IllegalArgumentException("game id " + gameId.toString() + " not found");
+		MakeMoveResponse response;
+		long ticket = 0;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			if (isComputersTurn(game)) {
+				throw new IllegalMoveException(IllegalMove.NOT_YOUR_PIT);
+			}
+			int moveCount = game.getMoveCount();
+			gameController.makeMove(game, pitId);
+			// a move in a finished game changes nothing, so there is nothing to record or send
+			if (game.getMoveCount() != moveCount) {
+				gameUpdates.gameChanged(game);
+				ticket = gameRepository.moveMade(game, pitId);
+				game.setLastActivityTime(System.currentTimeMillis());
+				ticket = playComputerTurns(game, gameId, lock, ticket);
+			}
+			response = new MakeMoveResponse(
+					gameId.toString(), getGameUri(game), game.getGameState());
+			response.setStatus(getBoardStatus(game));
+			response.setLegalMoves(getLegalMoves(game));
+		} finally {
+			lock.unlock();
+			// refused moves are timed too, they are counted by reason in the move metrics
+			serviceMetrics.moveHandled(start);
+		}
+		gameRepository.awaitCommit(ticket);
+		LOG.debug("successfully handled move for game id [{}] with pit id [{}]", gameId, pitId);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	/**
+	 * attempts to make a batch of moves one after the other without any other
+	 * move on the game getting in between, apart from while the computer is
+	 * thinking, stops at the first move which is not allowed and returns the
+	 * board status after the last move made
+	 */
+	@Override
+	public ResponseEntity<MakeMovesResponse> makeMoves(UUID gameId, List<Integer> pitIds) {
+
+		Game game = getGameById(gameId);
+		List<MoveResult> results = new ArrayList<>(pitIds.size());
+		MakeMovesResponse response;
+		long ticket = 0;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			for (int pitId : pitIds) {
+				if (game.isFinished()) {
+					results.add(new MoveResult(pitId, "the game is already finished"));
+					break;
+				}
+				if (isComputersTurn(game)) {
+					results.add(new MoveResult(pitId, IllegalMove.describe(IllegalMove.NOT_YOUR_PIT)));
+					break;
+				}
+				// a refused move comes back as a result code, no exception is thrown for it
+				int outcome = gameController.tryMove(game, pitId);
+				if (MoveOutcome.isIllegal(outcome)) {
+					results.add(new MoveResult(pitId, IllegalMove.describe(MoveOutcome.illegalReason(outcome))));
+					break;
+				}
+				results.add(new MoveResult(pitId, outcome));
+				gameUpdates.gameChanged(game);
+				ticket = playComputerTurns(game, gameId, lock, gameRepository.moveMade(game, pitId));
+			}
+			game.setLastActivityTime(System.currentTimeMillis());
+			response = new MakeMovesResponse(
+					gameId.toString(), getGameUri(game), game.getGameState(), results);
+			response.setStatus(getBoardStatus(game));
+			response.setLegalMoves(getLegalMoves(game));
+		} finally {
+			lock.unlock();
 		}
-		gameController.makeMove(game, pitId);
-		MakeMoveResponse response = new MakeMoveResponse(
-				gameId.toString(), getGameUri(game), game.getGameState());
-		response.setStatus(getBoardAsMap(gameId));
-		LOG.info("successfully handled move for game id [{}] with pit id [{}]", gameId.toString(), pitId);
+		gameRepository.awaitCommit(ticket);
+		LOG.debug("successfully handled [{}] of [{}] moves for game id [{}]", results.size(), pitIds.size(), gameId);
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
+	/**
+	 * attempts to make a move and copies the board afterwards into the view
+	 * instead of building a response, for clients which only want the bare
+	 * board. A move which breaks the rules is reported in the outcome instead
+	 * of being thrown, a game which does not exist is still thrown
+	 */
+	@Override
+	public void tryMove(UUID gameId, int pitId, BoardView view) {
+
+		long start = serviceMetrics.startTiming();
+		Game game = getGameById(gameId);
+		long ticket = 0;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			int moveCount = game.getMoveCount();
+			int outcome = isComputersTurn(game) ? MoveOutcome.illegal(IllegalMove.NOT_YOUR_PIT) : gameController.tryMove(game, pitId);
+			// nothing changes for a refused move or a move in a finished game
+			if (game.getMoveCount() != moveCount) {
+				gameUpdates.gameChanged(game);
+				ticket = gameRepository.moveMade(game, pitId);
+				game.setLastActivityTime(System.currentTimeMillis());
+				ticket = playComputerTurns(game, gameId, lock, ticket);
+			}
+			view.set(game.getBoard().getStoneCounts(), game.getGameState(), game.getMoveCount(), outcome);
+		} finally {
+			lock.unlock();
+			serviceMetrics.moveHandled(start);
+		}
+		gameRepository.awaitCommit(ticket);
+	}
+
+	/**
+	 * copies the board of a game into the view without making a move
+	 */
+	@Override
+	public void readBoard(UUID gameId, BoardView view) {
+
+		Game game = getGameById(gameId);
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			view.set(game.getBoard().getStoneCounts(), game.getGameState(), game.getMoveCount(), MoveOutcome.NONE);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * suggests the best move for the player whose turn it is, the position is
+	 * copied while holding the game lock and the search is done after letting
+	 * go of it so moves are not held up while the hint is worked out
+	 */
+	@Override
+	public ResponseEntity<HintResponse> getHint(UUID gameId) {
+
+		Game game = getGameById(gameId);
+		int[] stones;
+		int player;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			if (game.isFinished()) {
+				throw new IllegalArgumentException("the game is already finished");
+			}
+			stones = game.getBoard().getStoneCounts().clone();
+			player = game.getWhoseTurnItIs().getPlayerId().ordinal();
+		} finally {
+			lock.unlock();
+		}
+		SearchResult hint = moveHints.suggestMove(stones, player);
+		LOG.debug("suggested pit id [{}] for game id [{}]", hint.getPit() + MAP_INDEX_OFFSET, gameId);
+		return new ResponseEntity<>(new HintResponse(gameId.toString(), getGameUri(game), hint.getPit() + MAP_INDEX_OFFSET,
+				hint.getScore(), hint.getDepth()), HttpStatus.OK);
+	}
+
+	/**
+	 * reads a game without making a move. The move count is the etag, so a
+	 * client which already has the current version is told so without anything
+	 * being built, and the json for each version is only written once however
+	 * many clients read it. It is written while holding the game lock so an
+	 * older version can never replace a newer one
+	 */
+	@Override
+	public ResponseEntity<byte[]> getGame(UUID gameId, String ifNoneMatch) {
+
+		Game game = getGameById(gameId);
+		int moveCount;
+		byte[] json = null;
+		boolean stored = false;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			moveCount = game.getMoveCount();
+			if (!gameViews.isNotModified(ifNoneMatch, moveCount)) {
+				json = gameViews.getView(gameId, moveCount);
+				if (json == null) {
+					GameResponse response = new GameResponse(
+							gameId.toString(), getGameUri(game), game.getGameState(), moveCount);
+					response.setStatus(getBoardStatus(game));
+					response.setLegalMoves(getLegalMoves(game));
+					json = gameViews.storeView(gameId, moveCount, response);
+					stored = true;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		// removing a game does not take its lock, so a game removed while it was being read could have been stored again
+		if (stored && gameRegistry.getGame(gameId) == null) {
+			gameViews.gameRemoved(gameId);
+		}
+		String etag = GameViews.etag(moveCount);
+		if (json == null) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+		}
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).contentType(MediaType.APPLICATION_JSON).body(json);
+	}
+
+	/**
+	 * start streaming the moves made in a game, the subscription is made while
+	 * holding the game lock so no move can be missed between the first
+	 * snapshot and the updates after it. A stream started on a game which was
+	 * removed at the same time is ended straight away
+	 */
+	@Override
+	public ResponseEntity<SseEmitter> watchGame(UUID gameId) {
+
+		Game game = getGameById(gameId);
+		SseEmitter emitter;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			checkGameFound(game, gameId);
+			emitter = gameUpdates.subscribe(game);
+		} finally {
+			lock.unlock();
+		}
+		// removing a game does not take its lock, so the streams of a game removed while it was being watched may already have been ended
+		if (gameRegistry.getGame(gameId) == null) {
+			gameUpdates.gameRemoved(gameId);
+		}
+		LOG.debug("started streaming updates for game id [{}]", gameId);
+		return new ResponseEntity<>(emitter, HttpStatus.OK);
+	}
+
 	// find game by UUID
 	@Override
 	public Game getGameById(UUID gameId) {
 		
-		return games.stream()
-			.filter(game -> game.getGameId().equals(gameId))
-			.findFirst()
-			.orElse(null);
+		long start = serviceMetrics.startTiming();
+		Game game = gameRegistry.getGame(gameId);
+		serviceMetrics.gameFound(start);
+		return game;
+	}
+
+	// remove the game by UUID so it can no longer be played
+	@Override
+	public boolean removeGame(UUID gameId) {
+
+		Game game = gameRegistry.getGame(gameId);
+		if (game != null && gameRegistry.removeGame(game)) {
+			gameRepository.awaitCommit(gameRepository.gameRemoved(gameId));
+			gameUpdates.gameRemoved(gameId);
+			gameViews.gameRemoved(gameId);
+			LOG.info("removed game id [{}]", gameId);
+			gamePool.recycleGame(game);
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * if the other player is the computer, let it take its turn straight away so
+	 * the response shows the board when it is the human player's turn again.
+	 * Call this holding the game lock, the lock is let go while the computer
+	 * searches a copy of the board and is held again when this returns. If the
+	 * game changed while the computer was thinking it searches again from where
+	 * the game is now, returns the ticket for the last move recorded
+	 */
+	private long playComputerTurns(Game game, UUID gameId, Lock lock, long ticket) {
+
+		Player player = game.getWhoseTurnItIs();
+		while (player instanceof ComputerPlayer) {
+			int[] stones = game.getBoard().getStoneCounts().clone();
+			int moveCount = game.getMoveCount();
+			int pitId;
+			lock.unlock();
+			try {
+				pitId = ((ComputerPlayer) player).chooseMove(stones);
+			} finally {
+				lock.lock();
+			}
+			checkGameFound(game, gameId);
+			if (game.getMoveCount() == moveCount) {
+				LOG.debug("computer player chose pit id [{}] for game id [{}]", pitId, gameId);
+				gameController.makeMove(game, pitId);
+				gameUpdates.gameChanged(game);
+				ticket = gameRepository.moveMade(game, pitId);
+				game.setLastActivityTime(System.currentTimeMillis());
+			}
+			player = game.getWhoseTurnItIs();
+		}
+		return ticket;
+	}
+
+	// play the computer's turns in a game no request is waiting on and wait for them to be stored
+	private void finishComputerTurns(Game game) {
+
+		UUID gameId = game.getGameId();
+		long ticket;
+		Lock lock = gameLocks.getLock(gameId);
+		lock.lock();
+		try {
+			ticket = playComputerTurns(game, gameId, lock, 0);
+		} finally {
+			lock.unlock();
+		}
+		gameRepository.awaitCommit(ticket);
+	}
+
+	// moves sent by the player are refused while the computer is thinking about its own
+	private boolean isComputersTurn(Game game) {
+
+		return game.getWhoseTurnItIs() instanceof ComputerPlayer;
+	}
+
+	/*
+	 * make sure the game we looked up exists and, now that we hold its lock, that
+	 * it has not been removed and recycled into a different game in the meantime
+	 */
+	private void checkGameFound(Game game, UUID gameId) {
+
+		if (game == null || !game.getGameId().equals(gameId)) {
+			LOG.info("player tried to make a move for game id [{}] which does not exist", gameId.toString());
+			throw new IllegalArgumentException("game id " + gameId.toString() + " not found");
+		}
 	}
 
 	// wrap the create game up into a response body
@@ -94,25 +557,21 @@ public class MancalaServiceImpl implements MancalaService {
 				game.getGameId().toString();
 	}
 	
-	// return the game board for this game as a map
-	private Map<String,String> getBoardAsMap(UUID gameId) {
+	// copy the game board for this game into the response in the configured format
+	private BoardStatus getBoardStatus(Game game) {
 		
-		Game game = getGameById(gameId);
-		if(game !=null) {
-			return generateBoardMap(game.getBoard().getBoardComponents());
-		}
-		return null;
+		return new BoardStatus(game.getBoard().getStoneCounts(), boardFormat);
 	}
 	
-	// convert the board to a map, adding 1 to the indexes as they are internally zero based 
-	private Map<String,String> generateBoardMap(List<BoardComponent> components) {
-		
-		Map<String,String> boardMap = new LinkedHashMap<>(); 
-		for(BoardComponent component :  components) {			
-			boardMap.put(String.valueOf((components.indexOf(component) + MAP_INDEX_OFFSET)), 
-					String.valueOf(component.countStones()));
+	// list the pit numbers the player to move can choose from, 1 based like the board
+	private List<Integer> getLegalMoves(Game game) {
+
+		int legal = gameController.getLegalMoves(game);
+		List<Integer> pitIds = new ArrayList<>(Integer.bitCount(legal));
+		for (int remaining = legal; remaining != 0; remaining &= remaining - 1) {
+			pitIds.add(Integer.numberOfTrailingZeros(remaining) + MAP_INDEX_OFFSET);
 		}
-		return boardMap;
+		return pitIds;
 	}
 	
 }
@@ -0,0 +1,151 @@
+package com.simpsonn.mancala.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.engine.Zobrist;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * suggests the best move for a position using the search engine and remembers
+ * the answers, as lots of games go through the same positions, especially
+ * near the start.
+ *
+ * the answers are kept in a least recently used cache of a fixed size, keyed
+ * by the {@link Zobrist} key of the position. Positions are turned round so it
+ * is always player 1 to move before the key is worked out, which means a
+ * position and the same position seen from the other side share one entry.
+ * How often the cache is hit and how long hints take are published as metrics.
+ */
+@Component
+public class MoveHints {
+
+	private final SearchEngine searchEngine;
+	private final Map<Long, SearchResult> cache;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final Timer latency;
+
+	public MoveHints(SearchEngine searchEngine, @Value("${game.hint.cache-size:10000}") int cacheSize,
+			MeterRegistry meterRegistry) {
+
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("the hint cache size cannot be negative");
+		}
+		this.searchEngine = searchEngine;
+		this.cache = new LinkedHashMap<Long, SearchResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, SearchResult> eldest) {
+
+				return size() > cacheSize;
+			}
+		};
+		this.latency = Timer.builder("mancala.hints.latency")
+				.description("how long it takes to suggest a move")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.hints.requests", hits, LongAdder::sum)
+				.description("moves suggested")
+				.tag("cache", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder("mancala.hints.requests", misses, LongAdder::sum)
+				.description("moves suggested")
+				.tag("cache", "miss")
+				.register(meterRegistry);
+		Gauge.builder("mancala.hints.cache.hit-ratio", this, MoveHints::getHitRatio)
+				.description("the share of suggested moves which were found in the cache")
+				.register(meterRegistry);
+		Gauge.builder("mancala.hints.cache.size", this, MoveHints::countCachedPositions)
+				.description("positions held in the hint cache")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * suggest the best move for the player to move
+	 *
+	 * @param stones - the stone counts of the position, this is not changed
+	 * @param player - the player to move, 0 or 1
+	 * @return the best move found, the pit is zero based
+	 */
+	public SearchResult suggestMove(int[] stones, int player) {
+
+		long start = System.nanoTime();
+		try {
+			int[] canonical = turnRound(stones, player);
+			long key = Zobrist.hash(canonical, BoardTopology.PLAYER_1);
+			SearchResult result;
+			synchronized (cache) {
+				result = cache.get(key);
+			}
+			if (result != null) {
+				hits.increment();
+			} else {
+				misses.increment();
+				// search without holding the cache so other hints are not held up
+				result = searchEngine.search(canonical, BoardTopology.PLAYER_1);
+				synchronized (cache) {
+					cache.put(key, result);
+				}
+			}
+			if (player == BoardTopology.PLAYER_1) {
+				return result;
+			}
+			return new SearchResult((result.getPit() + shift(player)) % BoardTopology.POSITIONS, result.getScore(),
+					result.getDepth(), result.getNodes());
+		} finally {
+			latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * @return the share of hints which were found in the cache, 0 before any have been asked for
+	 */
+	public double getHitRatio() {
+
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * @return the number of positions in the cache
+	 */
+	public int countCachedPositions() {
+
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	// the position seen from the player to move's side, so they are player 1
+	private static int[] turnRound(int[] stones, int player) {
+
+		int[] turned = new int[BoardTopology.POSITIONS];
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			turned[position] = stones[(position + shift(player)) % BoardTopology.POSITIONS];
+		}
+		return turned;
+	}
+
+	// how far round the board the player's side is from player 1's
+	private static int shift(int player) {
+
+		return BoardTopology.firstPit(player);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.simpsonn.mancala.service;
+
+/**
+ * thrown when the service has reached one of its limits, such as the most
+ * live games or the most clients watching games, and cannot take on the
+ * request right now. The error controller sends it back as service
+ * unavailable so the client knows to try again later, any other illegal state
+ * is a fault and is not.
+ *
+ * being turned away is expected under load, so the stack trace is not filled
+ * in as that is most of the cost of throwing
+ */
+public class ServiceBusyException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param message - which limit was reached, this is sent back to the client
+	 */
+	public ServiceBusyException(String message) {
+
+		super(message);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+
+		return this;
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.simpsonn.mancala.simulation;
+
+import java.util.SplittableRandom;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+
+/**
+ * plays the move which puts the most stones into the player's kalah straight
+ * away, preferring a move which earns another turn when there is a tie and
+ * the pit nearest the kalah after that
+ */
+public class GreedyPolicy implements MovePolicy {
+
+	private final ThreadLocal<int[]> boards = ThreadLocal.withInitial(() -> new int[BoardTopology.POSITIONS]);
+
+	@Override
+	public int chooseMove(int[] stones, int player, int legalMoves, SplittableRandom random) {
+
+		int[] board = boards.get();
+		int kalah = BoardTopology.kalah(player);
+		int bestPit = -1;
+		int bestScore = Integer.MIN_VALUE;
+		for (int remaining = legalMoves; remaining != 0; remaining &= remaining - 1) {
+			int pit = Integer.numberOfTrailingZeros(remaining);
+			System.arraycopy(stones, 0, board, 0, BoardTopology.POSITIONS);
+			int outcome = KalahRules.sow(board, player, pit);
+			// twice the stones gained so an extra turn only breaks ties, later pits are nearer the kalah
+			int score = 2 * (board[kalah] - stones[kalah]) + (MoveOutcome.isExtraTurn(outcome) ? 1 : 0);
+			if (score >= bestScore) {
+				bestScore = score;
+				bestPit = pit;
+			}
+		}
+		return bestPit;
+	}
+
+	@Override
+	public String getName() {
+
+		return "greedy";
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.simpsonn.mancala.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * decides which move a player makes in a self-play game. Policies are shared
+ * by every thread running games so they must be safe to call from many threads
+ * at once
+ */
+public interface MovePolicy {
+
+	/**
+	 * choose a move
+	 *
+	 * @param stones - the stone counts, these must not be changed
+	 * @param player - the player to move, 0 or 1
+	 * @param legalMoves - the bitmask of legal pits from {@link com.simpsonn.mancala.engine.KalahRules#legalMoves(int[], int)}, never 0
+	 * @param random - the random numbers for this game
+	 * @return the position of the pit to play, zero based
+	 */
+	int chooseMove(int[] stones, int player, int legalMoves, SplittableRandom random);
+
+	/**
+	 * @return the name of the policy for the stats
+	 */
+	String getName();
+
+}
@@ -0,0 +1,27 @@
+package com.simpsonn.mancala.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * plays any legal move, each as likely as the others
+ */
+public class RandomPolicy implements MovePolicy {
+
+	@Override
+	public int chooseMove(int[] stones, int player, int legalMoves, SplittableRandom random) {
+
+		// drop a random number of the lowest set bits, the lowest one left is the move
+		int remaining = legalMoves;
+		for (int skip = random.nextInt(Integer.bitCount(legalMoves)); skip > 0; skip--) {
+			remaining &= remaining - 1;
+		}
+		return Integer.numberOfTrailingZeros(remaining);
+	}
+
+	@Override
+	public String getName() {
+
+		return "random";
+	}
+
+}
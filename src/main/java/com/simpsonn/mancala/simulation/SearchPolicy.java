@@ -0,0 +1,40 @@
+package com.simpsonn.mancala.simulation;
+
+import java.util.SplittableRandom;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+
+/**
+ * plays the move an {@link AlphaBetaSearch} to a fixed depth thinks is best.
+ * Each thread gets its own search, without a transposition table so every
+ * game is played the same way however the games are spread over the threads
+ */
+public class SearchPolicy implements MovePolicy {
+
+	private final int depth;
+	private final ThreadLocal<AlphaBetaSearch> searches = ThreadLocal.withInitial(AlphaBetaSearch::new);
+
+	/**
+	 * @param depth - how many moves ahead to look
+	 */
+	public SearchPolicy(int depth) {
+
+		if (depth < 1 || depth > AlphaBetaSearch.MAX_DEPTH) {
+			throw new IllegalArgumentException("the search depth must be between 1 and " + AlphaBetaSearch.MAX_DEPTH);
+		}
+		this.depth = depth;
+	}
+
+	@Override
+	public int chooseMove(int[] stones, int player, int legalMoves, SplittableRandom random) {
+
+		return searches.get().search(stones, player, depth).getPit();
+	}
+
+	@Override
+	public String getName() {
+
+		return "search:" + depth;
+	}
+
+}
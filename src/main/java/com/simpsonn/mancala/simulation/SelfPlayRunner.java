@@ -0,0 +1,242 @@
+package com.simpsonn.mancala.simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.simpsonn.mancala.configuration.GameSettings;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+
+/**
+ * plays huge numbers of games between two {@link MovePolicy}s with no
+ * application running, for tuning the computer player and checking the rules
+ * still behave.
+ *
+ * games are played straight on an array of stone counts with
+ * {@link KalahRules}, the same rules the game controller uses, so nothing is
+ * created or logged for each move. The games are split into batches which are
+ * played in parallel, one thread per core by default, and the running totals
+ * are written out as each batch finishes, as CSV or, if the file name ends
+ * in .json, as a JSON array. Every batch has its own random numbers worked out
+ * from the seed, so a run can be repeated exactly.
+ *
+ * run it from the command line with the number of games, the policy for each
+ * player (random, greedy or search:depth) and the file to write, through maven
+ * so the logging libraries are on the classpath, for example
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.simpsonn.mancala.simulation.SelfPlayRunner -Dexec.args="10000000 random greedy stats.csv"
+ * </pre>
+ */
+public class SelfPlayRunner {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SelfPlayRunner.class);
+
+	static final int BATCH_SIZE = 10_000;
+
+	private final MovePolicy player1;
+	private final MovePolicy player2;
+	private final int threads;
+	private final long seed;
+
+	/**
+	 * @param player1 - how player 1 chooses moves
+	 * @param player2 - how player 2 chooses moves
+	 * @param threads - how many games to play at once
+	 * @param seed - where the random numbers start from
+	 */
+	public SelfPlayRunner(MovePolicy player1, MovePolicy player2, int threads, long seed) {
+
+		if (threads < 1) {
+			throw new IllegalArgumentException("self-play needs at least 1 thread");
+		}
+		this.player1 = player1;
+		this.player2 = player2;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * play games and write the running totals after every batch
+	 *
+	 * @param games - the number of games to play
+	 * @param out - where to write the totals, not closed
+	 * @param json - true to write a JSON array, false to write CSV
+	 * @return the totals for every game
+	 * @throws IOException if the totals cannot be written
+	 */
+	public SelfPlayStats run(long games, Writer out, boolean json) throws IOException {
+
+		if (games < 1) {
+			throw new IllegalArgumentException("at least 1 game must be played");
+		}
+		long batches = (games + BATCH_SIZE - 1) / BATCH_SIZE;
+		SelfPlayStats totals = new SelfPlayStats();
+		out.write(json ? "[\n" : SelfPlayStats.CSV_HEADER + "\n");
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads, new SelfPlayThreadFactory());
+		try {
+			CompletionService<SelfPlayStats> finished = new ExecutorCompletionService<>(pool);
+			for (long batch = 0; batch < batches; batch++) {
+				long batchGames = Math.min(BATCH_SIZE, games - batch * BATCH_SIZE);
+				SplittableRandom random = new SplittableRandom(seed + batch);
+				finished.submit(() -> playGames(batchGames, random));
+			}
+			for (long batch = 0; batch < batches; batch++) {
+				totals.add(finished.take().get());
+				if (json) {
+					out.write((batch == 0 ? "" : ",\n") + totals.toJson(player1.getName(), player2.getName()));
+				} else {
+					out.write(totals.toCsv(player1.getName(), player2.getName()) + "\n");
+				}
+				out.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("self-play was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("a self-play game failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		if (json) {
+			out.write("\n]\n");
+		}
+		out.flush();
+		return totals;
+	}
+
+	/**
+	 * play a batch of games on the calling thread
+	 *
+	 * @param games - the number of games to play
+	 * @param random - the random numbers for the batch
+	 * @return the totals for the batch
+	 */
+	SelfPlayStats playGames(long games, SplittableRandom random) {
+
+		SelfPlayStats stats = new SelfPlayStats();
+		int[] stones = new int[BoardTopology.POSITIONS];
+		for (long game = 0; game < games; game++) {
+			playGame(stones, random, stats);
+		}
+		return stats;
+	}
+
+	// play one game from the start and add it to the totals
+	private void playGame(int[] stones, SplittableRandom random, SelfPlayStats stats) {
+
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			stones[position] = BoardTopology.isKalah(position) ? 0 : GameSettings.INITIAL_STONES;
+		}
+		int player = BoardTopology.PLAYER_1;
+		int moves = 0;
+		int captures = 0;
+		int extraTurns = 0;
+		while (true) {
+			int legalMoves = KalahRules.legalMoves(stones, player);
+			MovePolicy policy = player == BoardTopology.PLAYER_1 ? player1 : player2;
+			int pit = policy.chooseMove(stones, player, legalMoves, random);
+			if ((legalMoves & (1 << pit)) == 0) {
+				throw new IllegalStateException(policy.getName() + " chose pit " + pit + " which is not a legal move");
+			}
+			int outcome = KalahRules.sow(stones, player, pit);
+			moves++;
+			if (MoveOutcome.isCapture(outcome)) {
+				captures++;
+			}
+			if (MoveOutcome.isExtraTurn(outcome)) {
+				extraTurns++;
+			}
+			if (KalahRules.finishIfOver(stones)) {
+				break;
+			}
+			if (!MoveOutcome.isExtraTurn(outcome)) {
+				player = BoardTopology.otherPlayer(player);
+			}
+		}
+		int margin = stones[BoardTopology.kalah(BoardTopology.PLAYER_1)] - stones[BoardTopology.kalah(BoardTopology.PLAYER_2)];
+		stats.recordGame(moves, captures, extraTurns, margin);
+	}
+
+	/**
+	 * turn the name of a policy into the policy
+	 *
+	 * @param name - random, greedy or search: followed by the depth
+	 * @return the policy
+	 */
+	public static MovePolicy parsePolicy(String name) {
+
+		if ("random".equals(name)) {
+			return new RandomPolicy();
+		}
+		if ("greedy".equals(name)) {
+			return new GreedyPolicy();
+		}
+		if (name.startsWith("search:")) {
+			return new SearchPolicy(Integer.parseInt(name.substring("search:".length())));
+		}
+		throw new IllegalArgumentException("unknown move policy " + name + ", use random, greedy or search:depth");
+	}
+
+	/**
+	 * play games and write the totals to a file
+	 *
+	 * @param args - the number of games, player 1's policy, player 2's policy, the file to write and optionally the threads and seed
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 4 || args.length > 6) {
+			System.err.println("usage: SelfPlayRunner <games> <player 1 policy> <player 2 policy> <file> [threads] [seed]");
+			System.err.println("policies: random, greedy, search:<depth>");
+			System.exit(1);
+		}
+		long games = Long.parseLong(args[0]);
+		Path path = Paths.get(args[3]);
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+		SelfPlayRunner runner = new SelfPlayRunner(parsePolicy(args[1]), parsePolicy(args[2]), threads, seed);
+
+		long start = System.nanoTime();
+		SelfPlayStats totals;
+		try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			totals = runner.run(games, out, path.toString().endsWith(".json"));
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		LOG.info("played [{}] games on [{}] threads with seed [{}] in [{}] s, [{}] games a minute, stats written to [{}]",
+				totals.getGames(), threads, seed, String.format("%.1f", seconds), Math.round(totals.getGames() * 60 / seconds),
+				path.toAbsolutePath());
+	}
+
+	// self-play threads are daemons so they never keep the application running
+	private static class SelfPlayThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+
+			Thread thread = new Thread(runnable, "self-play-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
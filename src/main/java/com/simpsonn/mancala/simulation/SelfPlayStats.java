@@ -0,0 +1,184 @@
+package com.simpsonn.mancala.simulation;
+
+import java.util.Locale;
+
+/**
+ * running totals for a set of self-play games. Each thread keeps its own
+ * totals while it plays, they are only added together once a batch of games
+ * is done, so this is not safe to share between threads
+ */
+public class SelfPlayStats {
+
+	static final String CSV_HEADER = "player1,player2,games,player1Wins,player2Wins,draws,player1WinRate,player2WinRate,"
+			+ "drawRate,averageMoves,averageCaptures,averageExtraTurns,averageMargin";
+
+	private long games;
+	private long player1Wins;
+	private long player2Wins;
+	private long draws;
+	private long moves;
+	private long captures;
+	private long extraTurns;
+	private long margin;
+
+	/**
+	 * add the result of one game
+	 *
+	 * @param gameMoves - the number of moves made in the game
+	 * @param gameCaptures - the number of moves which captured stones
+	 * @param gameExtraTurns - the number of moves which earned another turn
+	 * @param gameMargin - player 1's stones less player 2's at the end of the game
+	 */
+	public void recordGame(int gameMoves, int gameCaptures, int gameExtraTurns, int gameMargin) {
+
+		games++;
+		if (gameMargin > 0) {
+			player1Wins++;
+		} else if (gameMargin < 0) {
+			player2Wins++;
+		} else {
+			draws++;
+		}
+		moves += gameMoves;
+		captures += gameCaptures;
+		extraTurns += gameExtraTurns;
+		margin += gameMargin;
+	}
+
+	/**
+	 * add another set of totals to these ones
+	 *
+	 * @param other - the totals to add
+	 */
+	public void add(SelfPlayStats other) {
+
+		games += other.games;
+		player1Wins += other.player1Wins;
+		player2Wins += other.player2Wins;
+		draws += other.draws;
+		moves += other.moves;
+		captures += other.captures;
+		extraTurns += other.extraTurns;
+		margin += other.margin;
+	}
+
+	/**
+	 * @param player1 - the policy player 1 used
+	 * @param player2 - the policy player 2 used
+	 * @return the totals as a row matching {@link #CSV_HEADER}
+	 */
+	public String toCsv(String player1, String player2) {
+
+		return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%.6f,%.6f,%.6f,%.4f,%.4f,%.4f,%.4f", player1, player2, games,
+				player1Wins, player2Wins, draws, getPlayer1WinRate(), getPlayer2WinRate(), getDrawRate(), getAverageMoves(),
+				getAverageCaptures(), getAverageExtraTurns(), getAverageMargin());
+	}
+
+	/**
+	 * @param player1 - the policy player 1 used
+	 * @param player2 - the policy player 2 used
+	 * @return the totals as a JSON object
+	 */
+	public String toJson(String player1, String player2) {
+
+		return String.format(Locale.ROOT, "{\"player1\":\"%s\",\"player2\":\"%s\",\"games\":%d,\"player1Wins\":%d,"
+				+ "\"player2Wins\":%d,\"draws\":%d,\"player1WinRate\":%.6f,\"player2WinRate\":%.6f,\"drawRate\":%.6f,"
+				+ "\"averageMoves\":%.4f,\"averageCaptures\":%.4f,\"averageExtraTurns\":%.4f,\"averageMargin\":%.4f}",
+				player1, player2, games, player1Wins, player2Wins, draws, getPlayer1WinRate(), getPlayer2WinRate(),
+				getDrawRate(), getAverageMoves(), getAverageCaptures(), getAverageExtraTurns(), getAverageMargin());
+	}
+
+	/**
+	 * @return the number of games played
+	 */
+	public long getGames() {
+
+		return games;
+	}
+
+	/**
+	 * @return the number of games player 1 won
+	 */
+	public long getPlayer1Wins() {
+
+		return player1Wins;
+	}
+
+	/**
+	 * @return the number of games player 2 won
+	 */
+	public long getPlayer2Wins() {
+
+		return player2Wins;
+	}
+
+	/**
+	 * @return the number of games drawn
+	 */
+	public long getDraws() {
+
+		return draws;
+	}
+
+	/**
+	 * @return the share of games player 1 won
+	 */
+	public double getPlayer1WinRate() {
+
+		return perGame(player1Wins);
+	}
+
+	/**
+	 * @return the share of games player 2 won
+	 */
+	public double getPlayer2WinRate() {
+
+		return perGame(player2Wins);
+	}
+
+	/**
+	 * @return the share of games drawn
+	 */
+	public double getDrawRate() {
+
+		return perGame(draws);
+	}
+
+	/**
+	 * @return the average number of moves in a game, an extra turn counts as a move
+	 */
+	public double getAverageMoves() {
+
+		return perGame(moves);
+	}
+
+	/**
+	 * @return the average number of captures in a game
+	 */
+	public double getAverageCaptures() {
+
+		return perGame(captures);
+	}
+
+	/**
+	 * @return the average number of extra turns earned in a game
+	 */
+	public double getAverageExtraTurns() {
+
+		return perGame(extraTurns);
+	}
+
+	/**
+	 * @return how many more stones player 1 finished with than player 2 on average, negative if fewer
+	 */
+	public double getAverageMargin() {
+
+		return perGame(margin);
+	}
+
+	private double perGame(long total) {
+
+		return games == 0 ? 0 : (double) total / games;
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.response.MakeMovesResponse;
+import com.simpsonn.mancala.model.response.MoveResult;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * Tests for making a batch of moves in one request
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BatchMoveTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	UUID gameId;
+
+	@BeforeEach
+	void setupTests() {
+
+		gameId = service.createNewGame().getBody().getId();
+	}
+
+	/*
+	 * Given: a new game
+	 * When: player 1 plays pit 1 then pit 2 and player 2 plays pit 8
+	 * Then: every move is made, the first earns an extra turn and the board reflects all three moves
+	 */
+	@Test
+	public void allLegalMovesAreMadeInOrder() {
+
+		MakeMovesResponse response = service.makeMoves(gameId, Arrays.asList(1, 2, 8)).getBody();
+
+		List<MoveResult> moves = response.getMoves();
+		assertEquals(3, moves.size());
+		assertTrue(moves.get(0).isExtraTurn());
+		assertFalse(moves.get(1).isExtraTurn());
+		assertNull(moves.get(2).getError());
+		assertEquals(GameState.PLAYER_1_TURN.getDescription(), response.getGameState());
+		assertEquals(1, response.getStatus().getStones(1));
+		assertEquals(0, response.getStatus().getStones(8));
+	}
+
+	/*
+	 * Given: a new game
+	 * When: player 1 plays pit 2 and then tries to play pit 3 although it is now player 2's turn
+	 * Then: the first move is made, the second is refused and the moves after it are not attempted
+	 */
+	@Test
+	public void batchStopsAtFirstIllegalMove() {
+
+		MakeMovesResponse response = service.makeMoves(gameId, Arrays.asList(2, 3, 8)).getBody();
+
+		List<MoveResult> moves = response.getMoves();
+		assertEquals(2, moves.size());
+		assertNull(moves.get(0).getError());
+		assertNotNull(moves.get(1).getError());
+		assertEquals(GameState.PLAYER_2_TURN.getDescription(), response.getGameState());
+		assertEquals(7, response.getStatus().getStones(8));
+	}
+
+	/*
+	 * Given: a new game
+	 * When: a batch of moves is posted to the moves endpoint
+	 * Then: the response contains the outcome of every move
+	 */
+	@Test
+	public void batchCanBePostedToTheMovesEndpoint() throws Exception {
+
+		mockMvc.perform(post("/games/" + gameId + "/moves")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[1, 2, 14]"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.moves.length()").value(3))
+			.andExpect(jsonPath("$.moves[0].extraTurn").value(true))
+			.andExpect(jsonPath("$.moves[2].error").value("you cannot start your turn at a kalah"));
+	}
+
+	/*
+	 * Given: a new game
+	 * When: an empty batch of moves is posted
+	 * Then: the request is rejected as a bad request
+	 */
+	@Test
+	public void emptyBatchIsRejected() throws Exception {
+
+		mockMvc.perform(post("/games/" + gameId + "/moves")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[]"))
+			.andExpect(status().isBadRequest());
+	}
+
+}
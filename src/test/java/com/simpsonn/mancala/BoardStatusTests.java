@@ -0,0 +1,74 @@
+package com.simpsonn.mancala;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.model.response.BoardStatus;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * Tests for writing the board in move responses
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BoardStatusTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	/*
+	 * Given: a new game and the default board format
+	 * When: player 1 plays pit 3
+	 * Then: the board is sent as it always has been, an object from pit number to stones as a string
+	 */
+	@Test
+	public void moveResponseKeepsTheMapFormat() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+
+		mockMvc.perform(put("/games/" + gameId + "/pits/3"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(
+						"\"status\":{\"1\":\"6\",\"2\":\"6\",\"3\":\"0\",\"4\":\"7\",\"5\":\"7\",\"6\":\"7\",\"7\":\"1\","
+						+ "\"8\":\"7\",\"9\":\"7\",\"10\":\"6\",\"11\":\"6\",\"12\":\"6\",\"13\":\"6\",\"14\":\"0\"}")))
+				.andExpect(jsonPath("$.status.length()").value(14));
+	}
+
+	/*
+	 * Given: boards with more stones in a pit than the whole game starts with
+	 * When: they are written in each format
+	 * Then: the map format falls back to working the count out and the array format is plain numbers
+	 */
+	@Test
+	public void boardIsWrittenInEitherFormat() throws Exception {
+
+		int[] stones = { 6, 0, 100, 7, 7, 7, 1, 7, 6, 6, 6, 6, 6, 0 };
+
+		String map = mapper.writeValueAsString(new BoardStatus(stones, BoardStatus.Format.MAP));
+		String array = mapper.writeValueAsString(new BoardStatus(stones, BoardStatus.Format.ARRAY));
+
+		assertEquals("100", mapper.readTree(map).get("3").asText());
+		assertEquals("0", mapper.readTree(map).get("14").asText());
+		assertEquals("[6,0,100,7,7,7,1,7,6,6,6,6,6,0]", array);
+		assertEquals(100, new BoardStatus(stones, BoardStatus.Format.ARRAY).getStones(3));
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.simpsonn.mancala;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -80,4 +81,32 @@ public class BoardTests {
 		assertTrue(board.getBoardComponents().get(13) instanceof Kalah);
 	}
 	
+	/*
+	 * Given: We have a freshly created board
+	 * When: We get the stone counts  
+	 * Then: Every pit should hold 6 stones and both kalahs should be empty
+	 */	
+	@Test
+	public void stoneCountsAreInitialisedCorrectly() {
+		
+		assertArrayEquals(new int[] {6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, board.getStoneCounts());
+	}
+
+	/*
+	 * Given: We have a freshly created board
+	 * When: We take the stones from a pit and add a stone to a kalah through the board components  
+	 * Then: The stone counts of the board should reflect the changes
+	 */	
+	@Test
+	public void boardComponentsAreViewsOverTheStoneCounts() {
+		
+		((Pit) board.getBoardComponents().get(0)).getStones();
+		board.getBoardComponents().get(13).addStone(null);
+		assertEquals(0, board.getStoneCounts()[0]);
+		assertEquals(1, board.getStoneCounts()[13]);
+		
+		board.getStoneCounts()[6] = 4;
+		assertEquals(4, board.getBoardComponents().get(6).countStones());
+	}
+	
 }
@@ -0,0 +1,66 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+
+/**
+ * Unit tests for the board topology tables
+ */
+@SpringBootTest
+public class BoardTopologyTests {
+
+	/*
+	 * Given: the standard board layout
+	 * When: we look up the kalahs and the first pit on each side
+	 * Then: player 1 owns positions 0 to 6 with the kalah at 6 and player 2 owns 7 to 13 with the kalah at 13
+	 */
+	@Test
+	public void kalahsAndPitRangesAreCorrect() {
+
+		assertEquals(6, BoardTopology.kalah(BoardTopology.PLAYER_1));
+		assertEquals(13, BoardTopology.kalah(BoardTopology.PLAYER_2));
+		assertEquals(0, BoardTopology.firstPit(BoardTopology.PLAYER_1));
+		assertEquals(7, BoardTopology.firstPit(BoardTopology.PLAYER_2));
+		assertEquals(BoardTopology.PLAYER_1, BoardTopology.owner(6));
+		assertEquals(BoardTopology.PLAYER_2, BoardTopology.owner(7));
+		assertTrue(BoardTopology.isKalah(13));
+		assertFalse(BoardTopology.isKalah(12));
+	}
+
+	/*
+	 * Given: the standard board layout
+	 * When: we look up the opposite of each pit
+	 * Then: pit 0 faces pit 12, pit 5 faces pit 7 and kalahs have no opposite
+	 */
+	@Test
+	public void oppositePitsAreCorrect() {
+
+		assertEquals(12, BoardTopology.opposite(0));
+		assertEquals(7, BoardTopology.opposite(5));
+		assertEquals(5, BoardTopology.opposite(7));
+		assertEquals(-1, BoardTopology.opposite(6));
+		assertEquals(-1, BoardTopology.opposite(13));
+	}
+
+	/*
+	 * Given: the standard board layout
+	 * When: each player sows past the end of their side
+	 * Then: they sow into their own kalah but skip over their opponent's and wrap around the board
+	 */
+	@Test
+	public void sowingSkipsTheOpponentsKalah() {
+
+		assertEquals(6, BoardTopology.next(BoardTopology.PLAYER_1, 5));
+		assertEquals(0, BoardTopology.next(BoardTopology.PLAYER_1, 12));
+		assertEquals(13, BoardTopology.next(BoardTopology.PLAYER_2, 12));
+		assertEquals(0, BoardTopology.next(BoardTopology.PLAYER_2, 13));
+		assertEquals(7, BoardTopology.next(BoardTopology.PLAYER_2, 5));
+	}
+
+}
@@ -0,0 +1,223 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.HumanPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+import com.simpsonn.mancala.model.response.MakeMoveResponse;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * Tests for the computer player and the search behind it
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ComputerPlayerTests {
+
+	private static final int TOTAL_STONES = 72;
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	/*
+	 * Given: random positions part way through a game
+	 * When: they are searched to a fixed depth with alpha-beta and with a plain minimax which looks at every move
+	 * Then: both give the same score
+	 */
+	@Test
+	public void alphaBetaScoreMatchesMinimax() {
+
+		Random random = new Random(20201010L);
+		AlphaBetaSearch search = new AlphaBetaSearch();
+		for (int i = 0; i < 200; i++) {
+			int[] stones = randomPosition(random);
+			int player = random.nextInt(2);
+			if (KalahRules.countPitStones(stones, player) == 0) {
+				continue;
+			}
+			int depth = 1 + random.nextInt(5);
+			SearchResult result = search.search(stones, player, depth);
+			assertEquals(minimax(stones, player, depth), result.getScore(), "score differs for " + Arrays.toString(stones));
+		}
+	}
+
+	/*
+	 * Given: an ending where player 1 can capture a full pit and player 2 has only a few stones left
+	 * When: the computer searches for player 1 with room to look 10 moves ahead
+	 * Then: it plays every line out to the end of the game, stops early and finds the exact winning margin
+	 */
+	@Test
+	public void searchSolvesShortEnding() {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		stones[0] = 1;
+		stones[5] = 1;
+		stones[11] = 10;
+		stones[12] = 3;
+		SearchResult result = new AlphaBetaSearch().search(stones, BoardTopology.PLAYER_1, 10);
+
+		assertEquals(minimax(stones, BoardTopology.PLAYER_1, 20), result.getScore());
+		assertTrue(result.getScore() > 0);
+		assertTrue(result.getDepth() < 10);
+	}
+
+	/*
+	 * Given: the opening position and a small time budget
+	 * When: the search engine looks for a move
+	 * Then: it returns a legal move soon after the budget runs out
+	 */
+	@Test
+	public void searchKeepsToTimeBudget() {
+
+		Game game = new Game();
+		long start = System.nanoTime();
+		SearchResult result = new SearchEngine(20, 1, 1).search(game.getBoard().getStoneCounts(), BoardTopology.PLAYER_1);
+		long tookMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(tookMillis < 500, "search took " + tookMillis + "ms");
+		assertTrue(result.getDepth() > 0);
+		assertTrue(result.getPit() >= 0 && result.getPit() < BoardTopology.PITS_PER_PLAYER);
+		assertEquals(6, game.getBoard().getStoneCounts()[result.getPit()]);
+	}
+
+	/*
+	 * Given: a game against the computer
+	 * When: player 1 makes a move which hands the turn over
+	 * Then: the computer replies straight away and it is player 1's turn again
+	 */
+	@Test
+	public void computerRepliesToMove() {
+
+		UUID gameId = service.createNewGame(true).getBody().getId();
+		assertTrue(service.getGameById(gameId).getPlayer2() instanceof ComputerPlayer);
+
+		int[] afterHumanMove = new Game().getBoard().getStoneCounts();
+		KalahRules.sow(afterHumanMove, BoardTopology.PLAYER_1, 1);
+		MakeMoveResponse response = service.makeMove(gameId, 2).getBody();
+
+		assertEquals(GameState.PLAYER_1_TURN.getDescription(), response.getGameState());
+		assertEquals(TOTAL_STONES, countStones(response));
+		assertFalse(Arrays.equals(afterHumanMove, service.getGameById(gameId).getBoard().getStoneCounts()));
+	}
+
+	/*
+	 * Given: a game against the computer
+	 * When: player 1 plays random legal moves until the game ends
+	 * Then: the game finishes with every stone accounted for and player 1 never has to wait for the computer
+	 */
+	@Test
+	public void gameAgainstComputerPlaysToTheEnd() {
+
+		Random random = new Random(20201011L);
+		UUID gameId = service.createNewGame(true).getBody().getId();
+		Game game = service.getGameById(gameId);
+
+		MakeMoveResponse response = null;
+		while (!game.isFinished()) {
+			assertEquals(GameState.PLAYER_1_TURN, game.getGameState());
+			int[] stones = game.getBoard().getStoneCounts();
+			int pit;
+			do {
+				pit = random.nextInt(BoardTopology.PITS_PER_PLAYER);
+			} while (stones[pit] == 0);
+			response = service.makeMove(gameId, pit + 1).getBody();
+		}
+		assertEquals(TOTAL_STONES, countStones(response));
+	}
+
+	/*
+	 * Given: a game against the computer which is removed and recycled
+	 * When: the recycled game is handed out for a game between two people
+	 * Then: player 2 is a human again
+	 */
+	@Test
+	public void recycledGameHasHumanOpponent() {
+
+		Game game = new Game();
+		game.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, new SearchEngine(10, 1, 1)));
+		game.reset(UUID.randomUUID());
+
+		assertTrue(game.getPlayer2() instanceof HumanPlayer);
+	}
+
+	/*
+	 * Given: the create game endpoint
+	 * When: an unknown opponent is asked for
+	 * Then: the request is refused
+	 */
+	@Test
+	public void unknownOpponentIsRefused() throws Exception {
+
+		mockMvc.perform(post("/games").param("opponent", "robot"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/games").param("opponent", "computer"))
+				.andExpect(status().isCreated());
+	}
+
+	private int countStones(MakeMoveResponse response) {
+
+		return response.getStatus().countStones();
+	}
+
+	private int[] randomPosition(Random random) {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		for (int position = 0; position < stones.length; position++) {
+			stones[position] = random.nextInt(3) == 0 ? 0 : random.nextInt(7);
+		}
+		return stones;
+	}
+
+	// the score found by looking at every move to the given depth without any pruning
+	private int minimax(int[] stones, int player, int depth) {
+
+		if (depth == 0) {
+			return stones[BoardTopology.kalah(player)] - stones[BoardTopology.kalah(BoardTopology.otherPlayer(player))];
+		}
+		int best = Integer.MIN_VALUE;
+		for (int pit = BoardTopology.firstPit(player); pit < BoardTopology.kalah(player); pit++) {
+			if (stones[pit] == 0) {
+				continue;
+			}
+			int[] child = stones.clone();
+			int outcome = KalahRules.sow(child, player, pit);
+			int score;
+			if (KalahRules.finishIfOver(child)) {
+				score = child[BoardTopology.kalah(player)] - child[BoardTopology.kalah(BoardTopology.otherPlayer(player))];
+			} else if (MoveOutcome.isExtraTurn(outcome)) {
+				score = minimax(child, player, depth - 1);
+			} else {
+				score = -minimax(child, BoardTopology.otherPlayer(player), depth - 1);
+			}
+			best = Math.max(best, score);
+		}
+		return best;
+	}
+
+}
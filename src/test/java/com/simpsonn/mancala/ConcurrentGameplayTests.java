@@ -0,0 +1,183 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.controller.IllegalMoveException;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.BoardView;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+
+/**
+ * Stress tests which make moves on the same games from many threads at once
+ * and check the games are never corrupted
+ */
+@SpringBootTest
+public class ConcurrentGameplayTests {
+
+	private static final int THREADS = 16;
+	private static final int MOVES_PER_THREAD = 20_000;
+	private static final int SHARED_GAMES = 4;
+	private static final int TOTAL_STONES = 72;
+
+	MancalaServiceImpl service;
+
+	@BeforeEach
+	void setupTests() {
+
+		// only a couple of lock stripes so that unrelated games are forced to share locks too
+		GameLocks locks = new GameLocks(2);
+		GameRegistry registry = new GameRegistry(64, 64);
+		service = TestServices.newService(locks, registry, new GamePool(locks, 16));
+	}
+
+	/*
+	 * Given: a handful of games shared by every thread and one game of its own for each thread
+	 * When: all the threads make random moves on both as fast as they can
+	 * Then: only illegal move errors are raised and every game still holds exactly 72 stones
+	 */
+	@Test
+	public void concurrentMovesNeverLoseOrCreateStones() throws Exception {
+
+		List<UUID> sharedGames = createGames(SHARED_GAMES);
+		List<UUID> ownGames = createGames(THREADS);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch startingGun = new CountDownLatch(1);
+		List<Future<?>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			UUID ownGame = ownGames.get(t);
+			results.add(executor.submit(() -> {
+				startingGun.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < MOVES_PER_THREAD; i++) {
+					UUID gameId = random.nextBoolean() ? ownGame : sharedGames.get(random.nextInt(SHARED_GAMES));
+					makeRandomMove(gameId, random);
+				}
+				return null;
+			}));
+		}
+		startingGun.countDown();
+		for (Future<?> result : results) {
+			// any exception other than an illegal move would be rethrown here and fail the test
+			result.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		List<UUID> allGames = new ArrayList<>(sharedGames);
+		allGames.addAll(ownGames);
+		for (UUID gameId : allGames) {
+			assertEquals(TOTAL_STONES, countStones(service.getGameById(gameId)));
+		}
+	}
+
+	/*
+	 * Given: one game shared by every thread
+	 * When: the threads take it in turns to play it until it is finished
+	 * Then: the game ends with all 72 stones in the two kalahs
+	 */
+	@Test
+	public void sharedGameCanBePlayedToTheEnd() throws Exception {
+
+		UUID gameId = createGames(1).get(0);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(executor.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (!service.getGameById(gameId).isFinished()) {
+					makeRandomMove(gameId, random);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> result : results) {
+			result.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		int[] stones = service.getGameById(gameId).getBoard().getStoneCounts();
+		assertEquals(TOTAL_STONES, stones[6] + stones[13]);
+		assertTrue(service.getGameById(gameId).isFinished());
+	}
+
+	/*
+	 * Given: a game against a computer which thinks for a second about each move
+	 * When: the player moves and the game is read and moved in while the computer is thinking
+	 * Then: the read is answered straight away, the move is refused, and the computer still makes its move
+	 */
+	@Test
+	public void computerThinksWithoutHoldingTheGame() throws Exception {
+
+		UUID gameId = service.createNewGame(true, 1000).getBody().getId();
+		Game game = service.getGameById(gameId);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> playerMove = executor.submit(() -> service.makeMove(gameId, 3));
+		while (game.getMoveCount() == 0) {
+			Thread.sleep(1);
+		}
+
+		BoardView view = new BoardView();
+		service.readBoard(gameId, view);
+		assertEquals(GameState.PLAYER_2_TURN, view.getGameState());
+		IllegalMoveException refused = assertThrows(IllegalMoveException.class, () -> service.makeMove(gameId, 9));
+		assertEquals(IllegalMove.NOT_YOUR_PIT, refused.getReason());
+		assertFalse(playerMove.isDone());
+
+		playerMove.get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+		assertTrue(game.getMoveCount() >= 2);
+		assertEquals(GameState.PLAYER_1_TURN, game.getGameState());
+		assertEquals(TOTAL_STONES, countStones(game));
+	}
+
+	private List<UUID> createGames(int count) {
+
+		List<UUID> gameIds = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			gameIds.add(service.createNewGame().getBody().getId());
+		}
+		return gameIds;
+	}
+
+	// pick a pit on either side of the board, if it is not a legal move the service will tell us so
+	private void makeRandomMove(UUID gameId, ThreadLocalRandom random) {
+
+		try {
+			service.makeMove(gameId, random.nextInt(14) + 1);
+		} catch (IllegalArgumentException e) {
+			// expected, the pit was empty, a kalah or belonged to the other player
+		}
+	}
+
+	private int countStones(Game game) {
+
+		int total = 0;
+		for (int stones : game.getBoard().getStoneCounts()) {
+			total += stones;
+		}
+		return total;
+	}
+
+}
@@ -0,0 +1,177 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.EndgameDatabase;
+import com.simpsonn.mancala.engine.EndgameDatabaseGenerator;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.SearchResult;
+
+/**
+ * Tests for generating, saving and looking up endings in the endgame database
+ */
+@SpringBootTest
+public class EndgameDatabaseTests {
+
+	private static final int MAX_STONES = 7;
+
+	static EndgameDatabase endgame;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeAll
+	static void generateDatabase() {
+
+		endgame = EndgameDatabaseGenerator.generate(MAX_STONES);
+	}
+
+	/*
+	 * Given: the number of stones in the database
+	 * When: the positions are counted
+	 * Then: there is one for every way of putting up to that many stones in twelve pits
+	 */
+	@Test
+	public void positionsAreCounted() {
+
+		assertEquals(1, EndgameDatabase.countPositions(0));
+		assertEquals(13, EndgameDatabase.countPositions(1));
+		// 19 choose 12
+		assertEquals(50388, EndgameDatabase.countPositions(MAX_STONES));
+	}
+
+	/*
+	 * Given: random endings with up to 7 stones left in the pits
+	 * When: they are searched right to the end of the game and looked up in the database
+	 * Then: the kalahs plus the database value is exactly the searched score
+	 */
+	@Test
+	public void databaseMatchesFullSearch() {
+
+		Random random = new Random(20201016L);
+		AlphaBetaSearch search = new AlphaBetaSearch();
+		for (int i = 0; i < 2000; i++) {
+			int[] stones = randomEnding(random);
+			int player = random.nextInt(2);
+			if (KalahRules.countPitStones(stones, player) == 0 || KalahRules.countPitStones(stones, BoardTopology.otherPlayer(player)) == 0) {
+				continue;
+			}
+			assertTrue(endgame.contains(stones));
+			int kalahs = stones[BoardTopology.kalah(player)] - stones[BoardTopology.kalah(BoardTopology.otherPlayer(player))];
+			int expected = search.search(stones, player, AlphaBetaSearch.MAX_DEPTH).getScore();
+			assertEquals(expected, kalahs + endgame.probe(stones, player));
+		}
+	}
+
+	/*
+	 * Given: an ending with more stones left than the database holds
+	 * When: it is checked
+	 * Then: the database does not contain it
+	 */
+	@Test
+	public void largerEndingsAreNotContained() {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		stones[0] = 4;
+		stones[7] = MAX_STONES - 3;
+
+		assertFalse(endgame.contains(stones));
+	}
+
+	/*
+	 * Given: a database saved to a file
+	 * When: it is loaded again
+	 * Then: it is memory mapped and gives the same values
+	 */
+	@Test
+	public void savedDatabaseLoadsTheSame() throws IOException {
+
+		Path file = tempDir.resolve("endgame.db");
+		endgame.save(file);
+		EndgameDatabase loaded = EndgameDatabase.load(file);
+
+		assertEquals(MAX_STONES, loaded.getMaxStones());
+		Random random = new Random(20201017L);
+		for (int i = 0; i < 1000; i++) {
+			int[] stones = randomEnding(random);
+			int player = random.nextInt(2);
+			assertEquals(endgame.probe(stones, player), loaded.probe(stones, player));
+		}
+	}
+
+	/*
+	 * Given: files which are not complete endgame databases
+	 * When: they are loaded
+	 * Then: they are refused
+	 */
+	@Test
+	public void badFilesAreRefused() throws IOException {
+
+		Path notADatabase = tempDir.resolve("not.db");
+		Files.write(notADatabase, "this is not an endgame database".getBytes());
+		assertThrows(IOException.class, () -> EndgameDatabase.load(notADatabase));
+
+		Path truncated = tempDir.resolve("truncated.db");
+		endgame.save(truncated);
+		byte[] bytes = Files.readAllBytes(truncated);
+		Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> EndgameDatabase.load(truncated));
+	}
+
+	/*
+	 * Given: an ending just outside the database
+	 * When: it is searched with and without the database
+	 * Then: both find the same exact score and the search with the database looks at fewer positions
+	 */
+	@Test
+	public void searchUsesDatabase() {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		int[] pits = {2, 0, 1, 1, 0, 2, 0, 1, 1, 0, 2, 1};
+		for (int i = 0; i < BoardTopology.PITS_PER_PLAYER; i++) {
+			stones[i] = pits[i];
+			stones[BoardTopology.firstPit(BoardTopology.PLAYER_2) + i] = pits[BoardTopology.PITS_PER_PLAYER + i];
+		}
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_1)] = 30;
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_2)] = 31;
+
+		SearchResult without = new AlphaBetaSearch().search(stones, BoardTopology.PLAYER_1, AlphaBetaSearch.MAX_DEPTH);
+		SearchResult with = new AlphaBetaSearch(null, endgame, 0, null).search(stones, BoardTopology.PLAYER_1, AlphaBetaSearch.MAX_DEPTH);
+
+		assertEquals(without.getScore(), with.getScore());
+		assertTrue(with.getNodes() < without.getNodes());
+	}
+
+	private int[] randomEnding(Random random) {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		int left = random.nextInt(MAX_STONES + 1);
+		while (left > 0) {
+			int pit = random.nextInt(BoardTopology.POSITIONS);
+			if (!BoardTopology.isKalah(pit)) {
+				stones[pit]++;
+				left--;
+			}
+		}
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_1)] = random.nextInt(36);
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_2)] = random.nextInt(36);
+		return stones;
+	}
+
+}
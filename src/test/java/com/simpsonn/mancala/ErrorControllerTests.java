@@ -0,0 +1,79 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.NestedServletException;
+
+import com.simpsonn.mancala.controller.ErrorController;
+import com.simpsonn.mancala.service.ServiceBusyException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the http responses errors are turned into
+ */
+@SpringBootTest
+public class ErrorControllerTests {
+
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+			.setControllerAdvice(new ErrorController(meterRegistry))
+			.build();
+
+	/*
+	 * Given: a request which is turned away because a limit has been reached
+	 * When: the error is handled
+	 * Then: the client is told the service is unavailable, with the reason, and it is counted
+	 */
+	@Test
+	public void busyServiceIsUnavailable() throws Exception {
+
+		mockMvc.perform(get("/busy"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.message").value("too many games are in progress, please try again later"));
+
+		assertEquals(1, meterRegistry.get("mancala.errors").tag("exception", "ServiceBusyException").counter().count());
+	}
+
+	/*
+	 * Given: a request which fails with some other illegal state
+	 * When: the error is handled
+	 * Then: it is not turned into service unavailable, it is left as a fault
+	 */
+	@Test
+	public void otherIllegalStatesAreNotUnavailable() {
+
+		NestedServletException e = assertThrows(NestedServletException.class, () -> mockMvc.perform(get("/broken")));
+
+		assertEquals(IllegalStateException.class, e.getCause().getClass());
+		assertEquals(0, meterRegistry.find("mancala.errors").counters().size());
+	}
+
+	@RestController
+	static class FailingController {
+
+		@GetMapping("/busy")
+		String busy() {
+
+			throw new ServiceBusyException("too many games are in progress, please try again later");
+		}
+
+		@GetMapping("/broken")
+		String broken() {
+
+			throw new IllegalStateException("the game log has been closed");
+		}
+	}
+
+}
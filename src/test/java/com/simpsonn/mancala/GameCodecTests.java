@@ -0,0 +1,150 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+import com.simpsonn.mancala.persistence.GameCodec;
+import com.simpsonn.mancala.persistence.GameSnapshot;
+
+/**
+ * Tests for the fixed width binary encoding of games
+ */
+@SpringBootTest
+public class GameCodecTests {
+
+	SearchEngine searchEngine = new SearchEngine(10, 1, 1);
+	GameController controller = new GameController();
+
+	/*
+	 * Given: games part way through, one against the computer
+	 * When: they are encoded one after another into a buffer and decoded again
+	 * Then: each takes exactly the encoded size and comes back exactly as it was
+	 */
+	@Test
+	public void gamesSurviveEncodingAndDecoding() {
+
+		List<Game> games = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Game game = new Game();
+			playMoves(game, 5 + i * 7);
+			games.add(game);
+		}
+		games.get(1).setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, searchEngine, 250));
+		ByteBuffer buffer = ByteBuffer.allocate(games.size() * GameCodec.ENCODED_SIZE);
+		for (Game game : games) {
+			GameCodec.encode(game, buffer);
+		}
+		assertEquals(buffer.capacity(), buffer.position());
+		buffer.flip();
+
+		for (Game game : games) {
+			Game decoded = GameCodec.decode(buffer).restore(searchEngine);
+			assertEquals(game.getGameId(), decoded.getGameId());
+			assertArrayEquals(game.getBoard().getStoneCounts(), decoded.getBoard().getStoneCounts());
+			assertEquals(game.getGameState(), decoded.getGameState());
+			assertEquals(game.getMoveCount(), decoded.getMoveCount());
+			assertEquals(game.getLastActivityTime(), decoded.getLastActivityTime());
+			assertEquals(GameSnapshot.opponentTimeBudget(game), GameSnapshot.opponentTimeBudget(decoded));
+		}
+		assertEquals(0, buffer.remaining());
+	}
+
+	/*
+	 * Given: a game encoded into a direct buffer
+	 * When: single fields are read from the buffer
+	 * Then: they match the game without the rest being decoded
+	 */
+	@Test
+	public void fieldsCanBeReadWithoutDecoding() {
+
+		Game game = new Game();
+		playMoves(game, 9);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(10 + GameCodec.ENCODED_SIZE);
+		buffer.position(10);
+		GameCodec.encode(game, buffer);
+
+		assertEquals(game.getGameId(), GameCodec.getGameId(buffer, 10));
+		assertEquals(game.getGameState(), GameCodec.getGameState(buffer, 10));
+		assertEquals(game.getMoveCount(), GameCodec.getMoveCount(buffer, 10));
+		for (int position = 0; position < 14; position++) {
+			assertEquals(game.getBoard().getStoneCounts()[position], GameCodec.getStones(buffer, 10, position));
+		}
+	}
+
+	/*
+	 * Given: a game encoded into a little endian buffer
+	 * When: the bytes are read back big endian and decoded from another little endian buffer
+	 * Then: the game was written big endian with its state code, and comes back as it was
+	 */
+	@Test
+	public void gamesAreAlwaysBigEndian() {
+
+		Game game = new Game();
+		playMoves(game, 9);
+		ByteBuffer buffer = ByteBuffer.allocate(GameCodec.ENCODED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		GameCodec.encode(game, buffer);
+
+		ByteBuffer bigEndian = ByteBuffer.wrap(buffer.array());
+		assertEquals(game.getGameState().getCode(), bigEndian.get(1));
+		assertEquals(game.getGameId().getMostSignificantBits(), bigEndian.getLong(16));
+		assertEquals(game.getMoveCount(), bigEndian.getInt(32));
+
+		ByteBuffer littleEndian = ByteBuffer.wrap(buffer.array()).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(game.getMoveCount(), GameCodec.getMoveCount(littleEndian, 0));
+		Game decoded = GameCodec.decode(littleEndian).restore(searchEngine);
+		assertEquals(game.getGameId(), decoded.getGameId());
+		assertEquals(game.getMoveCount(), decoded.getMoveCount());
+		assertArrayEquals(game.getBoard().getStoneCounts(), decoded.getBoard().getStoneCounts());
+	}
+
+	/*
+	 * Given: an encoded game with an unknown version, one with an unknown state, and a buffer which is too short
+	 * When: they are decoded
+	 * Then: each is refused
+	 */
+	@Test
+	public void badEncodingsAreRefused() {
+
+		ByteBuffer buffer = ByteBuffer.allocate(GameCodec.ENCODED_SIZE);
+		GameCodec.encode(new Game(), buffer);
+		buffer.put(0, (byte) (GameCodec.VERSION + 1));
+		buffer.flip();
+		assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(buffer));
+
+		buffer.put(0, GameCodec.VERSION);
+		buffer.put(1, (byte) GameState.values().length);
+		assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(buffer));
+
+		ByteBuffer tooShort = ByteBuffer.allocate(GameCodec.ENCODED_SIZE - 1);
+		assertThrows(IllegalArgumentException.class, () -> GameCodec.encode(new Game(), tooShort));
+		assertEquals(0, tooShort.position());
+	}
+
+	// make up to the given number of moves, always from the first pit which has stones in it
+	private void playMoves(Game game, int moves) {
+
+		for (int i = 0; i < moves && !game.isFinished(); i++) {
+			int pitId = game.getWhoseTurnItIs() == game.getPlayer1() ? 1 : 8;
+			while (game.getBoard().getStoneCounts()[pitId - 1] == 0) {
+				pitId++;
+			}
+			controller.makeMove(game, pitId);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameIdGenerator;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.response.CreateGameResponse;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+import com.simpsonn.mancala.service.ServiceBusyException;
+
+/**
+ * Tests for creating games in bulk and recycling removed games
+ */
+@SpringBootTest
+public class GameCreationTests {
+
+	GameRegistry registry;
+	GamePool pool;
+	MancalaServiceImpl service;
+
+	@BeforeEach
+	void setupTests() {
+
+		GameLocks locks = new GameLocks(16);
+		registry = new GameRegistry(16, 10);
+		pool = new GamePool(locks, 4);
+		service = TestServices.newService(locks, registry, pool);
+	}
+
+	/*
+	 * Given: a generator of game ids
+	 * When: we generate lots of ids
+	 * Then: they are all different version 4 GUIDs which pass the game id validation
+	 */
+	@Test
+	public void generatedIdsAreUniqueVersion4Guids() {
+
+		Set<UUID> ids = new HashSet<>();
+		for (int i = 0; i < 10_000; i++) {
+			UUID id = GameIdGenerator.newGameId();
+			assertEquals(4, id.version());
+			assertEquals(2, id.variant());
+			assertTrue(id.toString().matches("^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$"));
+			ids.add(id);
+		}
+		assertEquals(10_000, ids.size());
+	}
+
+	/*
+	 * Given: an empty registry with room for 10 games
+	 * When: we create 8 games in one go and then try to create another 3
+	 * Then: the 8 games are created and can be found, the 3 are refused and none of them are added
+	 */
+	@Test
+	public void bulkCreateAddsAllGamesOrNone() {
+
+		List<CreateGameResponse> created = service.createNewGames(8).getBody();
+		assertEquals(8, created.size());
+		for (CreateGameResponse game : created) {
+			assertEquals(GameState.PLAYER_1_TURN, service.getGameById(game.getId()).getGameState());
+		}
+		assertThrows(ServiceBusyException.class, () -> service.createNewGames(3));
+		assertEquals(8, registry.countGames());
+	}
+
+	/*
+	 * Given: a game which has had a move made and is then removed
+	 * When: a new game is created
+	 * Then: the removed game is reused with a new id and a fresh board, and the old id can no longer be played
+	 */
+	@Test
+	public void removedGameIsRecycledWithNewIdAndFreshBoard() {
+
+		UUID oldId = service.createNewGame().getBody().getId();
+		Game game = service.getGameById(oldId);
+		service.makeMove(oldId, 3);
+		service.removeGame(oldId);
+		assertEquals(1, pool.countGames());
+
+		UUID newId = service.createNewGame().getBody().getId();
+		assertSame(game, service.getGameById(newId));
+		assertNotEquals(oldId, newId);
+		assertEquals(GameState.PLAYER_1_TURN, game.getGameState());
+		assertArrayEquals(new int[] {6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, game.getBoard().getStoneCounts());
+		assertThrows(IllegalArgumentException.class, () -> service.makeMove(oldId, 1));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.persistence.InMemoryGameRepository;
+import com.simpsonn.mancala.service.GameEvictionTask;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.GameUpdates;
+import com.simpsonn.mancala.service.GameViews;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for clearing finished and abandoned games out of memory
+ */
+@SpringBootTest
+public class GameEvictionTests {
+
+	private static final long IDLE_TIMEOUT = 1000;
+	private static final long FINISHED_TIMEOUT = 100;
+
+	GameRegistry registry;
+	MeterRegistry meters;
+	GameEvictionTask evictionTask;
+	Game game;
+
+	@BeforeEach
+	void setupTests() {
+
+		registry = new GameRegistry(16, 16);
+		meters = new SimpleMeterRegistry();
+		evictionTask = new GameEvictionTask(registry, new GamePool(new GameLocks(1), 0),
+				new InMemoryGameRepository(new SearchEngine(100, 1, 1)), new GameUpdates(1, 16, 1000, 0, 0, meters),
+				new GameViews(new ObjectMapper(), meters), meters,
+				IDLE_TIMEOUT, FINISHED_TIMEOUT);
+		game = new Game();
+		registry.addGame(game);
+	}
+
+	/*
+	 * Given: a game in progress which had a move made recently
+	 * When: the eviction task runs
+	 * Then: the game is left alone
+	 */
+	@Test
+	public void activeGameIsNotEvicted() {
+
+		assertEquals(0, evictionTask.evictGames(game.getLastActivityTime() + FINISHED_TIMEOUT));
+		assertNotNull(registry.getGame(game.getGameId()));
+	}
+
+	/*
+	 * Given: a game in progress which nobody has made a move in for longer than the idle timeout
+	 * When: the eviction task runs
+	 * Then: the game is removed and counted as an idle eviction
+	 */
+	@Test
+	public void idleGameIsEvicted() {
+
+		assertEquals(1, evictionTask.evictGames(game.getLastActivityTime() + IDLE_TIMEOUT));
+		assertNull(registry.getGame(game.getGameId()));
+		assertEquals(1.0, meters.get("mancala.games.evicted").tag("reason", "idle").counter().count());
+		assertEquals(0.0, meters.get("mancala.games.live").gauge().value());
+	}
+
+	/*
+	 * Given: a game which finished longer ago than the finished timeout
+	 * When: the eviction task runs
+	 * Then: the game is removed well before the idle timeout and counted as a finished eviction
+	 */
+	@Test
+	public void finishedGameIsEvictedQuickly() {
+
+		game.setGameState(GameState.DRAW);
+		assertEquals(1, evictionTask.evictGames(game.getLastActivityTime() + FINISHED_TIMEOUT));
+		assertNull(registry.getGame(game.getGameId()));
+		assertEquals(1.0, meters.get("mancala.games.evicted").tag("reason", "finished").counter().count());
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.service.GameRegistry;
+
+/**
+ * Unit tests for the game registry
+ */
+@SpringBootTest
+public class GameRegistryTests {
+
+	GameRegistry registry;
+	Game game;
+
+	@BeforeEach
+	void setupTests() {
+
+		registry = new GameRegistry(16, 2);
+		game = new Game();
+	}
+
+	/*
+	 * Given: a game has been added to the registry
+	 * When: we look the game up by its id
+	 * Then: we get back the same game
+	 */
+	@Test
+	public void addedGameCanBeFoundById() {
+
+		registry.addGame(game);
+		assertSame(game, registry.getGame(game.getGameId()));
+		assertEquals(1, registry.countGames());
+	}
+
+	/*
+	 * Given: an empty registry
+	 * When: we look up an id which was never added
+	 * Then: the result is null
+	 */
+	@Test
+	public void unknownGameIdReturnsNull() {
+
+		assertNull(registry.getGame(UUID.randomUUID()));
+	}
+
+	/*
+	 * Given: a game has been added to the registry
+	 * When: we remove it twice
+	 * Then: the first remove succeeds, the second does not and the game can no longer be found
+	 */
+	@Test
+	public void removedGameCanNoLongerBeFound() {
+
+		registry.addGame(game);
+		assertTrue(registry.removeGame(game.getGameId()));
+		assertFalse(registry.removeGame(game.getGameId()));
+		assertNull(registry.getGame(game.getGameId()));
+		assertEquals(0, registry.countGames());
+	}
+
+	/*
+	 * Given: a registry which can hold two games
+	 * When: we try to add a third game
+	 * Then: the third game is turned away until one of the others is removed
+	 */
+	@Test
+	public void registryRefusesGamesOnceFull() {
+
+		Game secondGame = new Game();
+		Game thirdGame = new Game();
+		assertTrue(registry.addGame(game));
+		assertTrue(registry.addGame(secondGame));
+		assertFalse(registry.addGame(thirdGame));
+		assertNull(registry.getGame(thirdGame.getGameId()));
+
+		registry.removeGame(game);
+		assertTrue(registry.addGame(thirdGame));
+		assertEquals(2, registry.countGames());
+	}
+
+}
@@ -0,0 +1,348 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.model.player.ComputerPlayer;
+import com.simpsonn.mancala.model.player.PlayerId;
+import com.simpsonn.mancala.persistence.WriteAheadLogGameRepository;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+
+/**
+ * Tests for storing games in the write-ahead log and putting them back after a restart
+ */
+@SpringBootTest
+public class GameRepositoryTests {
+
+	// small enough that the tests start lots of segments
+	private static final int SEGMENT_BYTES = 40 * 16;
+
+	@TempDir
+	Path directory;
+
+	SearchEngine searchEngine = new SearchEngine(10, 1, 1);
+	GameController controller = new GameController();
+	WriteAheadLogGameRepository repository;
+	volatile boolean diskFails;
+
+	@BeforeEach
+	void setupTests() {
+
+		repository = new WriteAheadLogGameRepository(directory, SEGMENT_BYTES, true, searchEngine);
+	}
+
+	@AfterEach
+	void closeRepository() {
+
+		repository.close();
+	}
+
+	/*
+	 * Given: games with moves made in them spread over several log segments, and one game which was removed
+	 * When: the log is opened again and the games are loaded
+	 * Then: every game which was not removed is back exactly as it was
+	 */
+	@Test
+	public void gamesAreRecoveredFromTheLog() {
+
+		List<Game> games = playGames(5, 30);
+		Game removed = games.remove(4);
+		repository.awaitCommit(repository.gameRemoved(removed.getGameId()));
+		repository.close();
+
+		Map<UUID, Game> recovered = reopenAndLoad();
+
+		assertEquals(4, recovered.size());
+		assertNull(recovered.get(removed.getGameId()));
+		for (Game game : games) {
+			assertSameGame(game, recovered.get(game.getGameId()));
+		}
+	}
+
+	/*
+	 * Given: games which have had a snapshot taken part way through
+	 * When: more moves are made, the log is opened again and the games are loaded
+	 * Then: the games are back as they were after the last move, and only the segments since the snapshot are kept
+	 */
+	@Test
+	public void gamesAreRecoveredFromASnapshotAndTheLogAfterIt() throws IOException {
+
+		List<Game> games = playGames(3, 20);
+		repository.writeSnapshot(games, new GameLocks(1));
+		for (Game game : games) {
+			makeMoves(game, 10);
+		}
+		Game computerGame = new Game();
+		computerGame.setPlayer2(new ComputerPlayer(PlayerId.PLAYER_2, searchEngine, 250));
+		repository.awaitCommit(repository.gameCreated(computerGame));
+		games.add(computerGame);
+		repository.close();
+
+		assertEquals(1, countFiles("snapshot-*.snap"));
+		Map<UUID, Game> recovered = reopenAndLoad();
+
+		assertEquals(4, recovered.size());
+		for (Game game : games) {
+			assertSameGame(game, recovered.get(game.getGameId()));
+		}
+		ComputerPlayer opponent = (ComputerPlayer) recovered.get(computerGame.getGameId()).getPlayer2();
+		assertEquals(250, opponent.getTimeBudgetMillis());
+	}
+
+	/*
+	 * Given: a game whose last move was only partly written when the application stopped
+	 * When: the games are loaded
+	 * Then: the game is back as it was before that move
+	 */
+	@Test
+	public void partlyWrittenMoveIsIgnored() throws IOException {
+
+		Game game = new Game();
+		repository.gameCreated(game);
+		controller.makeMove(game, 2);
+		repository.awaitCommit(repository.moveMade(game, 2));
+		int[] before = game.getBoard().getStoneCounts().clone();
+		controller.makeMove(game, 8);
+		repository.awaitCommit(repository.moveMade(game, 8));
+		repository.close();
+
+		// scribble over the end of the last record as if the write was cut off
+		Path segment = directory.resolve("moves-000000000000.wal");
+		try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			file.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }), 2 * 40 + 36);
+		}
+		Game recovered = reopenAndLoad().get(game.getGameId());
+
+		assertArrayEquals(before, recovered.getBoard().getStoneCounts());
+		assertEquals(1, recovered.getMoveCount());
+		assertEquals(GameState.PLAYER_2_TURN, recovered.getGameState());
+	}
+
+	/*
+	 * Given: lots of threads making moves at the same time and each waiting for its move to be stored
+	 * When: the moves are all made
+	 * Then: every move is stored but the log was forced to disk fewer times than there were moves
+	 */
+	@Test
+	public void concurrentMovesShareCommits() throws Exception {
+
+		repository.close();
+		repository = new WriteAheadLogGameRepository(directory, 1 << 20, true, searchEngine);
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		List<Future<Game>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(threads.submit(() -> {
+				Game game = new Game();
+				repository.awaitCommit(repository.gameCreated(game));
+				makeMoves(game, 40);
+				return game;
+			}));
+		}
+		List<Game> games = new ArrayList<>();
+		for (Future<Game> future : futures) {
+			games.add(future.get());
+		}
+		threads.shutdown();
+		int moves = games.stream().mapToInt(Game::getMoveCount).sum();
+		assertTrue(repository.countCommits() < moves + games.size());
+		repository.close();
+
+		Map<UUID, Game> recovered = reopenAndLoad();
+		for (Game game : games) {
+			assertSameGame(game, recovered.get(game.getGameId()));
+		}
+	}
+
+	/*
+	 * Given: the service storing games in the log, with a game against the computer in progress
+	 * When: the application is started again on the same log
+	 * Then: the game is put back and play carries on from where it was
+	 */
+	@Test
+	public void serviceRecoversGamesOnStart() {
+
+		MancalaServiceImpl service = newService(repository);
+		UUID gameId = service.createNewGame(true, 10).getBody().getId();
+		service.makeMove(gameId, 3);
+		service.makeMove(gameId, 4);
+		Game game = service.getGameById(gameId);
+		repository.close();
+
+		repository = new WriteAheadLogGameRepository(directory, SEGMENT_BYTES, true, searchEngine);
+		MancalaServiceImpl restarted = newService(repository);
+		restarted.recoverGames();
+
+		Game recovered = restarted.getGameById(gameId);
+		assertSameGame(game, recovered);
+		assertTrue(recovered.getPlayer2() instanceof ComputerPlayer);
+		int pitId = 1;
+		while (recovered.getBoard().getStoneCounts()[pitId - 1] == 0) {
+			pitId++;
+		}
+		int movesBefore = recovered.getMoveCount();
+		restarted.makeMove(gameId, pitId);
+		assertTrue(recovered.getMoveCount() > movesBefore);
+	}
+
+	/*
+	 * Given: the service storing games in the log, with a game played to the end
+	 * When: another move is sent for the finished game
+	 * Then: the board is sent back but nothing is written to the log
+	 */
+	@Test
+	public void moveInAFinishedGameIsNotStored() {
+
+		MancalaServiceImpl service = newService(repository);
+		UUID gameId = service.createNewGame().getBody().getId();
+		Game game = service.getGameById(gameId);
+		while (!game.isFinished()) {
+			int pitId = game.getWhoseTurnItIs() == game.getPlayer1() ? 1 : 8;
+			while (game.getBoard().getStoneCounts()[pitId - 1] == 0) {
+				pitId++;
+			}
+			service.makeMove(gameId, pitId);
+		}
+		int moveCount = game.getMoveCount();
+		long commits = repository.countCommits();
+
+		assertEquals(game.getGameState().getDescription(), service.makeMove(gameId, 1).getBody().getGameState());
+		assertEquals(moveCount, game.getMoveCount());
+		assertEquals(commits, repository.countCommits());
+		repository.close();
+
+		assertSameGame(game, reopenAndLoad().get(gameId));
+	}
+
+	/*
+	 * Given: a game stored in the log and a disk which then stops accepting writes
+	 * When: a move is recorded and the request waits for it to be stored
+	 * Then: the wait ends with an error instead of hanging, and nothing more can be recorded
+	 */
+	@Test
+	public void failedCommitWakesWaiters() {
+
+		repository.close();
+		repository = new WriteAheadLogGameRepository(directory, 1 << 20, true, searchEngine) {
+
+			@Override
+			protected void forceSegment(MappedByteBuffer buffer) {
+
+				if (diskFails) {
+					throw new UncheckedIOException(new IOException("disk full"));
+				}
+				super.forceSegment(buffer);
+			}
+		};
+		Game game = new Game();
+		repository.awaitCommit(repository.gameCreated(game));
+		diskFails = true;
+
+		controller.makeMove(game, 3);
+		long ticket = repository.moveMade(game, 3);
+		IllegalStateException failed = assertTimeoutPreemptively(Duration.ofSeconds(5),
+				() -> assertThrows(IllegalStateException.class, () -> repository.awaitCommit(ticket)));
+		assertTrue(failed.getCause() instanceof UncheckedIOException);
+		assertThrows(IllegalStateException.class, () -> repository.moveMade(game, 4));
+	}
+
+	// create games and make moves in them, recording everything in the log
+	private List<Game> playGames(int count, int moves) {
+
+		List<Game> games = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Game game = new Game();
+			repository.gameCreated(game);
+			games.add(game);
+		}
+		for (Game game : games) {
+			makeMoves(game, moves);
+		}
+		return games;
+	}
+
+	// make up to the given number of moves, always from the first pit which has stones in it
+	private void makeMoves(Game game, int moves) {
+
+		for (int i = 0; i < moves && !game.isFinished(); i++) {
+			int firstPit = game.getWhoseTurnItIs() == game.getPlayer1() ? 1 : 8;
+			int pitId = firstPit;
+			while (game.getBoard().getStoneCounts()[pitId - 1] == 0) {
+				pitId++;
+			}
+			controller.makeMove(game, pitId);
+			repository.awaitCommit(repository.moveMade(game, pitId));
+		}
+	}
+
+	private Map<UUID, Game> reopenAndLoad() {
+
+		repository = new WriteAheadLogGameRepository(directory, SEGMENT_BYTES, true, searchEngine);
+		Map<UUID, Game> games = new HashMap<>();
+		for (Game game : repository.loadGames()) {
+			games.put(game.getGameId(), game);
+		}
+		return games;
+	}
+
+	private MancalaServiceImpl newService(WriteAheadLogGameRepository gameRepository) {
+
+		GameLocks locks = new GameLocks(4);
+		GameRegistry registry = new GameRegistry(4, 4);
+		return TestServices.newService(locks, registry, new GamePool(locks, 0), searchEngine, gameRepository);
+	}
+
+	private long countFiles(String pattern) throws IOException {
+
+		long count = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+			for (Path ignored : files) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void assertSameGame(Game expected, Game actual) {
+
+		assertArrayEquals(expected.getBoard().getStoneCounts(), actual.getBoard().getStoneCounts());
+		assertEquals(expected.getGameState(), actual.getGameState());
+		assertEquals(expected.getMoveCount(), actual.getMoveCount());
+	}
+
+}
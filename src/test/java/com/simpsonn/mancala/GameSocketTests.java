@@ -0,0 +1,228 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import com.simpsonn.mancala.controller.GameSocketProtocol;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * Tests for playing games over the binary web socket protocol
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "game.socket.allowed-origins=http://mancala.example")
+public class GameSocketTests {
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	MancalaService service;
+
+	Client player1;
+	Client player2;
+	UUID gameId;
+
+	@BeforeEach
+	void setupTests() throws Exception {
+
+		gameId = service.createNewGame().getBody().getId();
+		player1 = new Client();
+		player2 = new Client();
+	}
+
+	@AfterEach
+	void closeClients() throws Exception {
+
+		player1.session.close();
+		player2.session.close();
+		service.removeGame(gameId);
+	}
+
+	/*
+	 * Given: two players who have joined the same game over web sockets
+	 * When: player 1 makes a move
+	 * Then: both are sent the 16 byte board after the move, each with their own slot for the game
+	 */
+	@Test
+	public void movesAreSentToEveryoneInTheGame() throws Exception {
+
+		player2.send(GameSocketProtocol.join(UUID.randomUUID()));
+		assertEquals(GameSocketProtocol.UNKNOWN_GAME, GameSocketProtocol.getResult(player2.receive()));
+		player1.send(GameSocketProtocol.join(gameId));
+		ByteBuffer joined = player1.receive();
+		assertEquals(0, GameSocketProtocol.getSlot(joined));
+		assertEquals(GameState.PLAYER_1_TURN, GameSocketProtocol.getGameState(joined));
+		assertEquals(6, GameSocketProtocol.getStones(joined, 0));
+		player2.send(GameSocketProtocol.join(gameId));
+		player2.receive();
+
+		player1.send(GameSocketProtocol.move(0, 3));
+
+		for (Client client : new Client[] { player1, player2 }) {
+			ByteBuffer update = client.receive();
+			assertEquals(GameSocketProtocol.UPDATE_SIZE, update.remaining());
+			assertEquals(0, GameSocketProtocol.getSlot(update));
+			assertEquals(GameSocketProtocol.OK, GameSocketProtocol.getResult(update));
+			assertEquals(GameState.PLAYER_2_TURN, GameSocketProtocol.getGameState(update));
+			assertEquals(0, GameSocketProtocol.getStones(update, 2));
+			assertEquals(1, GameSocketProtocol.getStones(update, 6));
+			assertEquals(7, GameSocketProtocol.getStones(update, 8));
+		}
+		assertEquals(1, service.getGameById(gameId).getMoveCount());
+	}
+
+	/*
+	 * Given: a player who has joined a game
+	 * When: they move from a pit which is not theirs, use a slot they have not joined and send a frame which is not in the protocol
+	 * Then: each is refused with its own result and the game is unchanged
+	 */
+	@Test
+	public void badMovesAndFramesAreRefused() throws Exception {
+
+		player1.send(GameSocketProtocol.join(gameId));
+		player1.receive();
+
+		player1.send(GameSocketProtocol.move(0, 9));
+		ByteBuffer refused = player1.receive();
+		assertEquals(IllegalMove.NOT_YOUR_PIT, GameSocketProtocol.getResult(refused));
+		assertEquals(6, GameSocketProtocol.getStones(refused, 8));
+
+		player1.send(GameSocketProtocol.move(1, 3));
+		assertEquals(GameSocketProtocol.UNKNOWN_GAME, GameSocketProtocol.getResult(player1.receive()));
+
+		player1.send(new byte[] { 9, 9 });
+		assertEquals(GameSocketProtocol.BAD_FRAME, GameSocketProtocol.getResult(player1.receive()));
+		assertEquals(0, service.getGameById(gameId).getMoveCount());
+	}
+
+	/*
+	 * Given: two players and someone watching who have all joined the same game
+	 * When: the players make their moves as soon as the last one has been made, without waiting for the updates
+	 * Then: the last board each of them is sent is the board the game ended up with
+	 */
+	@Test
+	public void updatesNeverArriveOutOfOrder() throws Exception {
+
+		Client watcher = new Client();
+		for (Client client : new Client[] { player1, player2, watcher }) {
+			client.send(GameSocketProtocol.join(gameId));
+			client.receive();
+		}
+		Game game = service.getGameById(gameId);
+
+		for (int move = 0; move < 30 && !game.isFinished(); move++) {
+			boolean player1Turn = game.getWhoseTurnItIs() == game.getPlayer1();
+			int pitId = player1Turn ? 1 : 8;
+			while (game.getBoard().getStoneCounts()[pitId - 1] == 0) {
+				pitId++;
+			}
+			(player1Turn ? player1 : player2).send(GameSocketProtocol.move(0, pitId));
+			while (game.getMoveCount() == move) {
+				Thread.sleep(1);
+			}
+		}
+
+		int[] stones = game.getBoard().getStoneCounts();
+		for (Client client : new Client[] { player1, player2, watcher }) {
+			ByteBuffer last = client.receiveLast();
+			for (int position = 0; position < stones.length; position++) {
+				assertEquals(stones[position], GameSocketProtocol.getStones(last, position));
+			}
+		}
+		watcher.session.close();
+	}
+
+	/*
+	 * Given: the application allows one other origin to open game sockets
+	 * When: browsers on that origin and on another site connect
+	 * Then: the allowed origin can play and the other site is refused the connection
+	 */
+	@Test
+	public void onlyAllowedOriginsCanConnect() throws Exception {
+
+		Client allowed = new Client("http://mancala.example");
+		allowed.send(GameSocketProtocol.join(gameId));
+		assertEquals(GameSocketProtocol.OK, GameSocketProtocol.getResult(allowed.receive()));
+		allowed.session.close();
+
+		assertThrows(ExecutionException.class, () -> new Client("http://elsewhere.example"));
+	}
+
+	// a web socket client which keeps the updates it is sent until the test asks for them
+	private class Client extends BinaryWebSocketHandler {
+
+		final BlockingQueue<ByteBuffer> updates = new LinkedBlockingQueue<>();
+		final WebSocketSession session;
+
+		Client() throws Exception {
+
+			this(null);
+		}
+
+		// a client in a browser sends the origin of the page it is running on
+		Client(String origin) throws Exception {
+
+			WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+			if (origin != null) {
+				headers.setOrigin(origin);
+			}
+			session = new StandardWebSocketClient().doHandshake(this, headers, URI.create("ws://localhost:" + port + "/games/socket"))
+					.get(10, TimeUnit.SECONDS);
+		}
+
+		@Override
+		protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+
+			updates.add(message.getPayload());
+		}
+
+		void send(byte[] frame) throws Exception {
+
+			session.sendMessage(new BinaryMessage(frame));
+		}
+
+		ByteBuffer receive() throws InterruptedException {
+
+			ByteBuffer update = updates.poll(10, TimeUnit.SECONDS);
+			assertNotNull(update, "no update was sent");
+			return update;
+		}
+
+		// the update sent last, once nothing more has arrived for a while
+		ByteBuffer receiveLast() throws InterruptedException {
+
+			ByteBuffer last = receive();
+			ByteBuffer next;
+			while ((next = updates.poll(500, TimeUnit.MILLISECONDS)) != null) {
+				last = next;
+			}
+			return last;
+		}
+	}
+
+}
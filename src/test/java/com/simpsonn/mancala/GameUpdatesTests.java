@@ -0,0 +1,321 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.GameUpdates;
+import com.simpsonn.mancala.service.MancalaService;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+import com.simpsonn.mancala.service.ServiceBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for streaming the moves made in a game to the clients watching it
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class GameUpdatesTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	GameController controller = new GameController();
+	GameUpdates gameUpdates;
+
+	@BeforeEach
+	void setupTests() {
+
+		gameUpdates = new GameUpdates(1, 4, 10, 0, 5000, new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void stopSenders() {
+
+		gameUpdates.shutdown();
+	}
+
+	/*
+	 * Given: a client watching a game through the api
+	 * When: a move is made in the game
+	 * Then: the client is sent a snapshot of the board followed by the pits the move changed
+	 */
+	@Test
+	public void watcherIsSentSnapshotThenMoves() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+		MockHttpServletResponse stream = mockMvc.perform(get("/games/" + gameId + "/events"))
+				.andExpect(request().asyncStarted())
+				.andReturn().getResponse();
+		awaitTrue(() -> readEvents(stream).contains("event:snapshot"));
+
+		mockMvc.perform(put("/games/" + gameId + "/pits/3")).andExpect(status().isOk());
+
+		// an event is written in several parts, so wait for the whole of it
+		String move = "id:1\nevent:move\ndata:{\"moveCount\":1,\"gameState\":\"Player two turn\","
+				+ "\"changes\":{\"3\":\"0\",\"4\":\"7\",\"5\":\"7\",\"6\":\"7\",\"7\":\"1\",\"8\":\"7\",\"9\":\"7\"}}";
+		awaitTrue(() -> readEvents(stream).contains(move));
+		assertTrue(readEvents(stream).contains("\"status\":{\"1\":\"6\",\"2\":\"6\",\"3\":\"6\""));
+		service.removeGame(gameId);
+	}
+
+	/*
+	 * Given: a game nobody is watching, and a game id which does not exist
+	 * When: a move is made in the first and the second is watched
+	 * Then: the move is not held up and watching the missing game is refused
+	 */
+	@Test
+	public void missingGameCannotBeWatched() throws Exception {
+
+		Game game = new Game();
+		controller.makeMove(game, 1);
+		gameUpdates.gameChanged(game);
+		assertEquals(0, gameUpdates.countSubscribers());
+
+		mockMvc.perform(get("/games/" + UUID.randomUUID() + "/events").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+
+	/*
+	 * Given: a client which stops reading while the game carries on
+	 * When: more moves are made than its queue can hold and the client then reads again
+	 * Then: the moves it missed are replaced by one snapshot of the latest board, and memory held for it stays bounded
+	 */
+	@Test
+	public void slowWatcherIsSentSnapshotInsteadOfMissedMoves() throws Exception {
+
+		Game game = new Game();
+		CountDownLatch reading = new CountDownLatch(1);
+		RecordingEmitter emitter = new RecordingEmitter(reading);
+		gameUpdates.subscribe(game, emitter);
+		// the first snapshot gets stuck on the way out until the client reads again
+		awaitTrue(() -> emitter.attempts > 0);
+
+		for (int move = 0; move < 20 && !game.isFinished(); move++) {
+			makeFirstMove(game);
+			gameUpdates.gameChanged(game);
+		}
+		reading.countDown();
+
+		String latest = "\"moveCount\":" + game.getMoveCount() + ",";
+		awaitTrue(() -> emitter.events.stream().anyMatch(event -> event.contains(latest)));
+		assertTrue(gameUpdates.countCoalesced() > 0);
+		assertTrue(emitter.events.size() < 10);
+		assertTrue(emitter.events.stream().skip(1).anyMatch(event -> event.contains("event:" + GameUpdates.SNAPSHOT_EVENT)));
+	}
+
+	/*
+	 * Given: clients watching a game, up to the limit of subscribers
+	 * When: another client tries to watch and then the game ends
+	 * Then: the extra client is refused, and every stream is ended once the last move is sent
+	 */
+	@Test
+	public void streamsEndWithTheGameAndSubscribersAreLimited() {
+
+		Game game = new Game();
+		List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+			gameUpdates.subscribe(game, emitter);
+			emitters.add(emitter);
+		}
+		assertThrows(ServiceBusyException.class, () -> gameUpdates.subscribe(game, new SseEmitter()));
+
+		while (!game.isFinished()) {
+			makeFirstMove(game);
+			gameUpdates.gameChanged(game);
+		}
+
+		awaitTrue(() -> gameUpdates.countSubscribers() == 0);
+		for (RecordingEmitter emitter : emitters) {
+			String last = emitter.events.get(emitter.events.size() - 1);
+			assertTrue(last.contains("\"moveCount\":" + game.getMoveCount() + ","), last);
+		}
+	}
+
+	/*
+	 * Given: a client which never reads, sharing the only sender thread with a client which does
+	 * When: writing to the first client takes longer than the send time limit
+	 * Then: it is cut off and its stream ended once the write returns, and the other client is sent its events meanwhile
+	 */
+	@Test
+	public void clientWhichNeverReadsIsCutOff() throws Exception {
+
+		gameUpdates.shutdown();
+		gameUpdates = new GameUpdates(1, 4, 10, 0, 200, new SimpleMeterRegistry());
+		Game stuckGame = new Game();
+		CountDownLatch neverReads = new CountDownLatch(1);
+		RecordingEmitter stuck = new RecordingEmitter(neverReads);
+		gameUpdates.subscribe(stuckGame, stuck);
+		awaitTrue(() -> stuck.attempts > 0);
+
+		Game game = new Game();
+		RecordingEmitter reading = new RecordingEmitter(new CountDownLatch(0));
+		gameUpdates.subscribe(game, reading);
+		makeFirstMove(game);
+		gameUpdates.gameChanged(game);
+
+		awaitTrue(() -> reading.events.stream().anyMatch(event -> event.contains("\"moveCount\":1,")));
+		assertEquals(1, gameUpdates.countCutOff());
+		assertEquals(1, gameUpdates.countSubscribers());
+		makeFirstMove(stuckGame);
+		gameUpdates.gameChanged(stuckGame);
+
+		neverReads.countDown();
+		awaitTrue(() -> stuck.completed);
+		assertEquals(1, stuck.events.size());
+	}
+
+	/*
+	 * Given: a game which is removed after a client has looked it up to watch it but before it subscribes
+	 * When: the client subscribes to the game
+	 * Then: its stream is ended straight away instead of being left open on a game which is gone
+	 */
+	@Test
+	public void watchingARemovedGameEndsTheStream() {
+
+		GameLocks locks = new GameLocks(4);
+		RemovedOnLookup registry = new RemovedOnLookup();
+		MancalaServiceImpl watched = TestServices.newService(locks, registry, new GamePool(locks, 0), gameUpdates);
+		UUID gameId = watched.createNewGame().getBody().getId();
+		registry.removeOnLookup = true;
+
+		SseEmitter emitter = watched.watchGame(gameId).getBody();
+
+		assertEquals(0, gameUpdates.countSubscribers());
+		// an emitter which has been completed refuses anything more
+		assertThrows(IllegalStateException.class, () -> emitter.send("move"));
+	}
+
+	// make the move from the first pit with stones in it for the player whose turn it is
+	private void makeFirstMove(Game game) {
+
+		int pitId = game.getWhoseTurnItIs() == game.getPlayer1() ? 1 : 8;
+		while (game.getBoard().getStoneCounts()[pitId - 1] == 0) {
+			pitId++;
+		}
+		controller.makeMove(game, pitId);
+	}
+
+	private static String readEvents(MockHttpServletResponse response) {
+
+		try {
+			return response.getContentAsString();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) {
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out waiting for the game updates");
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/*
+	 * a registry where the next lookup of a game finds it but removes it as it
+	 * does, as if another request removed the game straight after the lookup
+	 */
+	private static class RemovedOnLookup extends GameRegistry {
+
+		volatile boolean removeOnLookup;
+
+		RemovedOnLookup() {
+
+			super(16, 16);
+		}
+
+		@Override
+		public Game getGame(UUID gameId) {
+
+			Game game = super.getGame(gameId);
+			if (removeOnLookup && game != null) {
+				removeOnLookup = false;
+				removeGame(game);
+			}
+			return game;
+		}
+	}
+
+	/*
+	 * an emitter which keeps the events it is asked to send as text instead of
+	 * writing them to a response, waiting until the client is reading first
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		final List<String> events = new CopyOnWriteArrayList<>();
+		final CountDownLatch reading;
+		volatile int attempts;
+		volatile boolean completed;
+
+		RecordingEmitter(CountDownLatch reading) {
+
+			this.reading = reading;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+
+			attempts++;
+			try {
+				reading.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			StringBuilder event = new StringBuilder();
+			builder.build().forEach(part -> event.append(part.getData()));
+			events.add(event.toString());
+		}
+
+		@Override
+		public synchronized void complete() {
+
+			completed = true;
+			super.complete();
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.service.GameViews;
+import com.simpsonn.mancala.service.MancalaService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for reading a game with conditional requests
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class GameViewTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	GameViews gameViews;
+
+	/*
+	 * Given: a game with one move made in it
+	 * When: it is read, read again with the etag it was sent, and read again after another move
+	 * Then: the first read has the board and an etag of the move count, the second is not modified
+	 * and the third is the new board with the next etag
+	 */
+	@Test
+	public void readingAGameIsConditionalOnTheMoveCount() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+		service.makeMove(gameId, 3);
+
+		mockMvc.perform(get("/games/" + gameId))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+				.andExpect(jsonPath("$.id").value(gameId.toString()))
+				.andExpect(jsonPath("$.moveCount").value(1))
+				.andExpect(jsonPath("$.gameState").value("Player two turn"))
+				.andExpect(jsonPath("$.status.9").value("7"))
+				.andExpect(jsonPath("$.legalMoves[0]").value(8));
+		mockMvc.perform(get("/games/" + gameId).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+				.andExpect(content().bytes(new byte[0]));
+
+		service.makeMove(gameId, 9);
+
+		mockMvc.perform(get("/games/" + gameId).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+				.andExpect(jsonPath("$.status.9").value("0"));
+		mockMvc.perform(get("/games/" + UUID.randomUUID()))
+				.andExpect(status().isBadRequest());
+	}
+
+	/*
+	 * Given: a game which has been read once
+	 * When: it is read again without an etag and then removed
+	 * Then: the same bytes are sent without serializing again, and they are dropped with the game
+	 */
+	@Test
+	public void eachVersionIsSerializedOnce() {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+		byte[] first = service.getGame(gameId, null).getBody();
+
+		ResponseEntity<byte[]> second = service.getGame(gameId, null);
+
+		assertEquals(HttpStatus.OK, second.getStatusCode());
+		assertSame(first, second.getBody());
+		assertSame(first, gameViews.getView(gameId, 0));
+		service.removeGame(gameId);
+		assertNull(gameViews.getView(gameId, 0));
+	}
+
+	/*
+	 * Given: If-None-Match headers in the forms clients send them
+	 * When: they are compared with a game after 12 moves
+	 * Then: lists, weak etags and * match, other versions and different spellings of the number do not
+	 */
+	@Test
+	public void ifNoneMatchHeadersAreCompared() {
+
+		GameViews views = new GameViews(new ObjectMapper(), new SimpleMeterRegistry());
+
+		assertTrue(views.isNotModified("\"12\"", 12));
+		assertTrue(views.isNotModified("\"3\", W/\"12\"", 12));
+		assertTrue(views.isNotModified("*", 12));
+		assertFalse(views.isNotModified("\"1\", \"2\"", 12));
+		assertFalse(views.isNotModified("\"012\"", 12));
+		assertFalse(views.isNotModified("12", 12));
+		assertFalse(views.isNotModified("\"12", 12));
+		assertFalse(views.isNotModified(null, 12));
+		assertNull(views.getView(UUID.randomUUID(), 0));
+	}
+
+}
@@ -2,7 +2,6 @@ package com.simpsonn.mancala;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import com.simpsonn.mancala.controller.GameController;
@@ -19,13 +18,13 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 public class GameplayTests {
 	
-	@InjectMocks
 	GameController controller;
 	
 	Game game;
 	
 	@BeforeEach
 	void setupTests() {
+		controller = new GameController();
 		game = new Game();
 	}
 	
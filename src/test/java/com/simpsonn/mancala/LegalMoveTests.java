@@ -0,0 +1,151 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.controller.IllegalMoveException;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.MancalaService;
+
+/**
+ * Tests for finding legal moves and refusing illegal ones without exceptions
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LegalMoveTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	GameController controller;
+	Game game;
+
+	@BeforeEach
+	void setupTests() {
+
+		controller = new GameController();
+		game = new Game();
+	}
+
+	/*
+	 * Given: random boards
+	 * When: the legal moves are worked out as a bitmask
+	 * Then: exactly the player's pits with stones in them are set
+	 */
+	@Test
+	public void legalMovesAreThePlayersNonEmptyPits() {
+
+		Random random = new Random(20201018L);
+		for (int i = 0; i < 1000; i++) {
+			int[] stones = new int[BoardTopology.POSITIONS];
+			for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+				stones[position] = random.nextInt(3) == 0 ? 0 : random.nextInt(20);
+			}
+			int player = random.nextInt(2);
+			int legal = KalahRules.legalMoves(stones, player);
+			for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+				boolean expected = BoardTopology.owner(position) == player && !BoardTopology.isKalah(position) && stones[position] > 0;
+				assertEquals(expected, (legal & (1 << position)) != 0);
+				assertEquals(expected, KalahRules.checkMove(stones, player, position) == IllegalMove.NONE);
+			}
+		}
+	}
+
+	/*
+	 * Given: it is player 1's turn
+	 * When: moves which break each rule are tried
+	 * Then: each is refused with its reason and the board is not changed
+	 */
+	@Test
+	public void illegalMovesAreReturnedAsCodes() {
+
+		game.getBoard().getStoneCounts()[2] = 0;
+		int[] before = game.getBoard().getStoneCounts().clone();
+
+		assertEquals(IllegalMove.OFF_BOARD, MoveOutcome.illegalReason(controller.tryMove(game, 15)));
+		assertEquals(IllegalMove.KALAH, MoveOutcome.illegalReason(controller.tryMove(game, 7)));
+		assertEquals(IllegalMove.NOT_YOUR_PIT, MoveOutcome.illegalReason(controller.tryMove(game, 8)));
+		assertEquals(IllegalMove.EMPTY_PIT, MoveOutcome.illegalReason(controller.tryMove(game, 3)));
+		assertTrue(MoveOutcome.isIllegal(controller.tryMove(game, 3)));
+		assertArrayEquals(before, game.getBoard().getStoneCounts());
+		assertEquals(GameState.PLAYER_1_TURN, game.getGameState());
+
+		int outcome = controller.tryMove(game, 1);
+		assertFalse(MoveOutcome.isIllegal(outcome));
+		assertEquals(IllegalMove.NONE, MoveOutcome.illegalReason(outcome));
+	}
+
+	/*
+	 * Given: it is player 1's turn
+	 * When: a single move is made from player 2's pit
+	 * Then: it is thrown as an illegal move with its reason and no stack trace
+	 */
+	@Test
+	public void singleIllegalMoveIsThrownWithoutStackTrace() {
+
+		IllegalMoveException e = assertThrows(IllegalMoveException.class, () -> controller.makeMove(game, 8));
+
+		assertEquals(IllegalMove.NOT_YOUR_PIT, e.getReason());
+		assertEquals("that pit does not belong to you", e.getMessage());
+		assertEquals(0, e.getStackTrace().length);
+	}
+
+	/*
+	 * Given: a game which is over
+	 * When: the legal moves are asked for
+	 * Then: there are none
+	 */
+	@Test
+	public void finishedGameHasNoLegalMoves() {
+
+		game.setGameState(GameState.DRAW);
+
+		assertEquals(0, controller.getLegalMoves(game));
+	}
+
+	/*
+	 * Given: a new game
+	 * When: player 1 plays pit 1, which empties it and earns another turn
+	 * Then: the response lists the pits player 1 can play next
+	 */
+	@Test
+	public void moveResponseListsLegalMoves() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+
+		assertEquals(Arrays.asList(2, 3, 4, 5, 6), service.makeMove(gameId, 1).getBody().getLegalMoves());
+		mockMvc.perform(put("/games/" + gameId + "/pits/2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.legalMoves.length()").value(6))
+				.andExpect(jsonPath("$.legalMoves[0]").value(8));
+		mockMvc.perform(put("/games/" + gameId + "/pits/2"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
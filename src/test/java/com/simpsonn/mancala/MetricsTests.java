@@ -0,0 +1,143 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.IllegalMove;
+import com.simpsonn.mancala.logging.MoveEventLog;
+import com.simpsonn.mancala.metrics.MoveMetrics;
+import com.simpsonn.mancala.metrics.ServiceMetrics;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.MancalaService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the metrics published about games, moves and errors
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	/*
+	 * Given: a controller counting its moves
+	 * When: a move earning another turn, a capture and moves breaking each rule are made
+	 * Then: each is counted under its outcome
+	 */
+	@Test
+	public void movesAreCountedByOutcome() {
+
+		MeterRegistry registry = new SimpleMeterRegistry();
+		MoveMetrics moveMetrics = new MoveMetrics(registry);
+		GameController controller = new GameController(MoveEventLog.disabled(), moveMetrics);
+		Game game = new Game();
+
+		controller.tryMove(game, 1);
+		controller.tryMove(game, 8);
+		controller.tryMove(game, 7);
+		controller.tryMove(game, 1);
+		controller.tryMove(game, 15);
+
+		assertEquals(1, moveMetrics.countValidMoves());
+		assertEquals(1, moveMetrics.countIllegalMoves(IllegalMove.NOT_YOUR_PIT));
+		assertEquals(1, moveMetrics.countIllegalMoves(IllegalMove.KALAH));
+		assertEquals(1, moveMetrics.countIllegalMoves(IllegalMove.EMPTY_PIT));
+		assertEquals(1, moveMetrics.countIllegalMoves(IllegalMove.OFF_BOARD));
+		assertEquals(1, registry.get("mancala.moves.events").tag("event", "extra_turn").functionCounter().count());
+		assertEquals(0, registry.get("mancala.moves.events").tag("event", "capture").functionCounter().count());
+		assertEquals(1, registry.get("mancala.moves").tag("result", "illegal").tag("reason", "not_your_pit")
+				.functionCounter().count());
+	}
+
+	/*
+	 * Given: live games which are in different states
+	 * When: the games are counted by state
+	 * Then: each state has the right number of games
+	 */
+	@Test
+	public void liveGamesAreCountedByState() {
+
+		GameRegistry registry = new GameRegistry(4, 4);
+		Game finished = new Game();
+		finished.setGameState(GameState.DRAW);
+		registry.addGame(new Game());
+		registry.addGame(new Game());
+		registry.addGame(finished);
+		ServiceMetrics serviceMetrics = new ServiceMetrics(new SimpleMeterRegistry(), registry);
+
+		assertEquals(2, serviceMetrics.countGames(GameState.PLAYER_1_TURN));
+		assertEquals(1, serviceMetrics.countGames(GameState.DRAW));
+		assertEquals(0, serviceMetrics.countGames(GameState.PLAYER_2_WIN));
+	}
+
+	/*
+	 * Given: service metrics which time every call and service metrics which time none
+	 * When: a move is timed with each
+	 * Then: only the first one records it
+	 */
+	@Test
+	public void onlySampledCallsAreTimed() {
+
+		MeterRegistry everyCall = new SimpleMeterRegistry();
+		MeterRegistry noCalls = new SimpleMeterRegistry();
+		ServiceMetrics timingEveryCall = new ServiceMetrics(everyCall, new GameRegistry(1, 1), 1);
+		ServiceMetrics timingNoCalls = new ServiceMetrics(noCalls, new GameRegistry(1, 1), 0);
+
+		timingEveryCall.moveHandled(timingEveryCall.startTiming());
+		timingNoCalls.moveHandled(timingNoCalls.startTiming());
+
+		assertEquals(1, everyCall.get("mancala.service.latency").tag("operation", "makeMove").timer().count());
+		assertEquals(0, noCalls.get("mancala.service.latency").tag("operation", "makeMove").timer().count());
+	}
+
+	/*
+	 * Given: the application is running
+	 * When: a game is created, a move is made, an illegal move is tried and the prometheus endpoint is scraped
+	 * Then: the service timers, move counters, games by state and errors are all published
+	 */
+	@Test
+	public void metricsArePublishedForPrometheus() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+		mockMvc.perform(put("/games/" + gameId + "/pits/1")).andExpect(status().isOk());
+		mockMvc.perform(put("/games/" + gameId + "/pits/8")).andExpect(status().isBadRequest());
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertTrue(scrape.contains("mancala_service_latency_seconds{operation=\"makeMove\",quantile=\"0.99\""));
+		assertTrue(scrape.contains("mancala_service_latency_seconds_count{operation=\"createNewGame\""));
+		assertTrue(scrape.contains("mancala_service_latency_seconds_count{operation=\"getGameById\""));
+		assertTrue(scrape.contains("mancala_moves_total{reason=\"none\",result=\"valid\""));
+		assertTrue(scrape.contains("mancala_moves_events_total{event=\"extra_turn\""));
+		assertTrue(scrape.contains("mancala_games_state{state=\"player_2_turn\""));
+		assertTrue(scrape.contains("mancala_errors_total{exception=\"IllegalMoveException\",status=\"400\""));
+		assertTrue(meterRegistry.get("mancala.errors").tag("status", "400").counter().count() >= 1);
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.logging.MoveEventLog;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * Tests for recording moves as structured events off the move thread
+ */
+@SpringBootTest
+public class MoveEventLogTests {
+
+	ObjectMapper mapper = new ObjectMapper();
+
+	/*
+	 * Given: every game is sampled
+	 * When: a move which earns another turn and a move from the other player's pit are made
+	 * Then: both are written as JSON events in the order they were made, with the game id, pit and outcome
+	 */
+	@Test
+	public void movesAreWrittenAsJson() throws Exception {
+
+		List<String> events = new CopyOnWriteArrayList<>();
+		MoveEventLog moveEvents = new MoveEventLog(16, 1, events::add);
+		GameController controller = new GameController(moveEvents);
+		Game game = new Game();
+
+		controller.makeMove(game, 1);
+		controller.tryMove(game, 8);
+		moveEvents.shutdown();
+
+		assertEquals(2, events.size());
+		JsonNode move = mapper.readTree(events.get(0));
+		assertEquals(game.getGameId().toString(), move.get("gameId").asText());
+		assertEquals("move", move.get("event").asText());
+		assertEquals(1, move.get("player").asInt());
+		assertEquals(1, move.get("pit").asInt());
+		assertTrue(move.get("extraTurn").asBoolean());
+		assertFalse(move.get("capture").asBoolean());
+		assertEquals(1, move.get("kalahs").get(0).asInt());
+		JsonNode illegal = mapper.readTree(events.get(1));
+		assertEquals("illegal", illegal.get("event").asText());
+		assertEquals(8, illegal.get("pit").asInt());
+		assertEquals("that pit does not belong to you", illegal.get("reason").asText());
+	}
+
+	/*
+	 * Given: a sample rate of a quarter
+	 * When: lots of games are checked, twice
+	 * Then: about a quarter are sampled and each game gets the same answer both times
+	 */
+	@Test
+	public void gamesAreSampledByTheirId() {
+
+		MoveEventLog moveEvents = new MoveEventLog(16, 0.25, event -> { });
+		int sampled = 0;
+		for (int i = 0; i < 10_000; i++) {
+			UUID gameId = UUID.randomUUID();
+			boolean first = moveEvents.isSampled(gameId);
+			assertEquals(first, moveEvents.isSampled(gameId));
+			sampled += first ? 1 : 0;
+		}
+		moveEvents.shutdown();
+
+		assertTrue(sampled > 2000 && sampled < 3000);
+		assertFalse(MoveEventLog.disabled().isSampled(UUID.randomUUID()));
+		assertThrows(IllegalArgumentException.class, () -> new MoveEventLog(16, 2, event -> { }));
+	}
+
+	/*
+	 * Given: a buffer of 4 events and a writer which is held up
+	 * When: more moves are recorded than the buffer holds
+	 * Then: the extra events are dropped and counted, and the rest are written once the writer carries on
+	 */
+	@Test
+	public void eventsAreDroppedWhenTheBufferIsFull() throws Exception {
+
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> events = new CopyOnWriteArrayList<>();
+		MoveEventLog moveEvents = new MoveEventLog(4, 1, event -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			events.add(event);
+		});
+		UUID gameId = UUID.randomUUID();
+		int[] stones = new Game().getBoard().getStoneCounts();
+
+		for (int i = 0; i < 20; i++) {
+			moveEvents.moveMade(gameId, 0, 1, 0, stones);
+		}
+		release.countDown();
+		moveEvents.shutdown();
+
+		assertTrue(moveEvents.getDropped() > 0);
+		assertEquals(20, events.size() + moveEvents.getDropped());
+	}
+
+}
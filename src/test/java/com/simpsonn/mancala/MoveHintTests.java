@@ -0,0 +1,157 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.response.HintResponse;
+import com.simpsonn.mancala.service.MancalaService;
+import com.simpsonn.mancala.service.MoveHints;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for suggesting moves and caching the suggestions
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MoveHintTests {
+
+	@Autowired
+	MancalaService service;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	MeterRegistry meters;
+	MoveHints hints;
+
+	@BeforeEach
+	void setupTests() {
+
+		meters = new SimpleMeterRegistry();
+		hints = new MoveHints(new SearchEngine(20, 1, 1), 2, meters);
+	}
+
+	/*
+	 * Given: a position which has been asked about before
+	 * When: it is asked about again
+	 * Then: the same answer comes from the cache and the metrics show one hit and one miss
+	 */
+	@Test
+	public void repeatedPositionIsCached() {
+
+		int[] stones = new Game().getBoard().getStoneCounts();
+
+		SearchResult first = hints.suggestMove(stones, BoardTopology.PLAYER_1);
+		SearchResult second = hints.suggestMove(stones, BoardTopology.PLAYER_1);
+
+		assertTrue(first == second);
+		assertEquals(0.5, hints.getHitRatio());
+		assertEquals(1, meters.get("mancala.hints.requests").tag("cache", "hit").functionCounter().count());
+		assertEquals(1, meters.get("mancala.hints.requests").tag("cache", "miss").functionCounter().count());
+		assertEquals(0.5, meters.get("mancala.hints.cache.hit-ratio").gauge().value());
+		assertEquals(2, meters.get("mancala.hints.latency").timer().count());
+	}
+
+	/*
+	 * Given: a position with player 2 to move and the same position with the sides swapped and player 1 to move
+	 * When: both are asked about
+	 * Then: they share a cache entry and each is told to play the matching pit on their own side
+	 */
+	@Test
+	public void mirroredPositionsShareAnEntry() {
+
+		int[] stones = new Game().getBoard().getStoneCounts();
+		KalahRules.sow(stones, BoardTopology.PLAYER_1, 3);
+		int[] mirrored = new int[BoardTopology.POSITIONS];
+		for (int position = 0; position < BoardTopology.POSITIONS; position++) {
+			mirrored[position] = stones[(position + BoardTopology.firstPit(BoardTopology.PLAYER_2)) % BoardTopology.POSITIONS];
+		}
+
+		SearchResult player2 = hints.suggestMove(stones, BoardTopology.PLAYER_2);
+		SearchResult player1 = hints.suggestMove(mirrored, BoardTopology.PLAYER_1);
+
+		assertEquals(0.5, hints.getHitRatio());
+		assertEquals(1, hints.countCachedPositions());
+		assertEquals(player1.getPit() + BoardTopology.firstPit(BoardTopology.PLAYER_2), player2.getPit());
+		assertEquals(player1.getScore(), player2.getScore());
+	}
+
+	/*
+	 * Given: a cache with room for 2 positions
+	 * When: 3 positions are asked about and then the first again
+	 * Then: the cache never holds more than 2 and the least recently used one has been dropped
+	 */
+	@Test
+	public void leastRecentlyUsedIsDropped() {
+
+		int[] start = new Game().getBoard().getStoneCounts();
+		for (int pit = 0; pit < 3; pit++) {
+			int[] stones = start.clone();
+			KalahRules.sow(stones, BoardTopology.PLAYER_1, pit);
+			hints.suggestMove(stones, BoardTopology.PLAYER_2);
+		}
+		assertEquals(2, hints.countCachedPositions());
+
+		int[] first = start.clone();
+		KalahRules.sow(first, BoardTopology.PLAYER_1, 0);
+		hints.suggestMove(first, BoardTopology.PLAYER_2);
+
+		assertEquals(0, hints.getHitRatio());
+		assertEquals(2, hints.countCachedPositions());
+	}
+
+	/*
+	 * Given: a new game
+	 * When: a hint is asked for through the api
+	 * Then: one of player 1's pits is suggested
+	 */
+	@Test
+	public void hintIsReturnedForGame() throws Exception {
+
+		UUID gameId = service.createNewGame().getBody().getId();
+
+		HintResponse hint = service.getHint(gameId).getBody();
+		assertTrue(hint.getPitId() >= 1 && hint.getPitId() <= BoardTopology.PITS_PER_PLAYER);
+
+		mockMvc.perform(get("/games/" + gameId + "/hint"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.pitId").value(hint.getPitId()))
+				.andExpect(jsonPath("$.score").value(hint.getScore()));
+	}
+
+	/*
+	 * Given: a game id which does not exist and one which is not a GUID
+	 * When: a hint is asked for
+	 * Then: the request is refused
+	 */
+	@Test
+	public void hintForUnknownGameIsRefused() throws Exception {
+
+		assertThrows(IllegalArgumentException.class, () -> service.getHint(UUID.randomUUID()));
+		mockMvc.perform(get("/games/" + UUID.randomUUID() + "/hint"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/games/not-a-game/hint"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
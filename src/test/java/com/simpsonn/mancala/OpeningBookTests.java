@@ -0,0 +1,128 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.engine.OpeningBook;
+import com.simpsonn.mancala.engine.OpeningBookGenerator;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.engine.TranspositionTable;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * Tests for generating, saving and using the opening book
+ */
+@SpringBootTest
+public class OpeningBookTests {
+
+	private static final int PLIES = 2;
+	private static final int DEPTH = 8;
+
+	static OpeningBook book;
+
+	@Autowired
+	SearchEngine searchEngine;
+
+	@BeforeAll
+	static void generateBook() {
+
+		book = OpeningBookGenerator.generate(PLIES, DEPTH, null);
+	}
+
+	/*
+	 * Given: a book of the first 2 moves
+	 * When: the starting position and each position after player 1's first move are looked up
+	 * Then: they are all in the book with the same result as searching them directly
+	 */
+	@Test
+	public void bookMatchesSearch() {
+
+		// the starting position and the 6 first moves, one of which is an extra turn
+		assertEquals(7, book.size());
+		int[] start = new Game().getBoard().getStoneCounts();
+		assertBooked(start, BoardTopology.PLAYER_1);
+		for (int pit = 0; pit < BoardTopology.PITS_PER_PLAYER; pit++) {
+			int[] stones = start.clone();
+			boolean extraTurn = MoveOutcome.isExtraTurn(KalahRules.sow(stones, BoardTopology.PLAYER_1, pit));
+			assertBooked(stones, extraTurn ? BoardTopology.PLAYER_1 : BoardTopology.PLAYER_2);
+		}
+	}
+
+	/*
+	 * Given: a position further into the game than the book covers
+	 * When: it is looked up
+	 * Then: it is not found
+	 */
+	@Test
+	public void laterPositionsAreNotBooked() {
+
+		int[] stones = new Game().getBoard().getStoneCounts();
+		KalahRules.sow(stones, BoardTopology.PLAYER_1, 0);
+		KalahRules.sow(stones, BoardTopology.PLAYER_2, 7);
+
+		assertNull(book.lookUp(stones, BoardTopology.PLAYER_1));
+	}
+
+	/*
+	 * Given: a book which has been saved
+	 * When: it is loaded again
+	 * Then: it has the same positions and results, and anything else is refused
+	 */
+	@Test
+	public void savedBookLoadsTheSame() throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		book.save(out);
+		OpeningBook loaded = OpeningBook.load(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(book.size(), loaded.size());
+		int[] start = new Game().getBoard().getStoneCounts();
+		assertEquals(book.lookUp(start, BoardTopology.PLAYER_1).toString(), loaded.lookUp(start, BoardTopology.PLAYER_1).toString());
+		assertThrows(IOException.class, () -> OpeningBook.load(new ByteArrayInputStream("not a book at all".getBytes())));
+	}
+
+	/*
+	 * Given: the application with the opening book on the classpath
+	 * When: the computer is asked for a move from the starting position
+	 * Then: the move comes from the book without searching
+	 */
+	@Test
+	public void engineAnswersOpeningFromBook() {
+
+		assertNotNull(searchEngine.getOpeningBook());
+		int[] start = new Game().getBoard().getStoneCounts();
+
+		SearchResult result = searchEngine.search(start, BoardTopology.PLAYER_1);
+
+		assertEquals(0, result.getNodes());
+		assertEquals(searchEngine.getOpeningBook().lookUp(start, BoardTopology.PLAYER_1).getPit(), result.getPit());
+	}
+
+	private void assertBooked(int[] stones, int player) {
+
+		SearchResult booked = book.lookUp(stones, player);
+		TranspositionTable table = new TranspositionTable(OpeningBookGenerator.TABLE_SIZE_MEGABYTES);
+		SearchResult searched = new AlphaBetaSearch(table, null, 0, null).search(stones, player, DEPTH);
+		assertNotNull(booked);
+		assertEquals(searched.getScore(), booked.getScore());
+		assertEquals(searched.getPit(), booked.getPit());
+		assertEquals(DEPTH, booked.getDepth());
+	}
+
+}
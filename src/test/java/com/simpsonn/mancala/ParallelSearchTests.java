@@ -0,0 +1,122 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * Tests for searching one position on several threads at once
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ParallelSearchTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	SearchEngine engine;
+
+	@BeforeEach
+	void setupTests() {
+
+		engine = new SearchEngine(50, 4, 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+
+		engine.shutdown();
+	}
+
+	/*
+	 * Given: endings small enough to search right to the end of the game
+	 * When: they are searched with four threads sharing a table
+	 * Then: the exact score is the same as a single threaded search without a table
+	 */
+	@Test
+	public void parallelSearchFindsExactScores() {
+
+		Random random = new Random(20201015L);
+		for (int i = 0; i < 50; i++) {
+			int[] stones = new int[BoardTopology.POSITIONS];
+			for (int pit = 0; pit < BoardTopology.POSITIONS; pit++) {
+				if (!BoardTopology.isKalah(pit)) {
+					stones[pit] = random.nextInt(3);
+				}
+			}
+			if (KalahRules.countPitStones(stones, BoardTopology.PLAYER_2) == 0) {
+				continue;
+			}
+			int expected = new AlphaBetaSearch().search(stones, BoardTopology.PLAYER_2, AlphaBetaSearch.MAX_DEPTH).getScore();
+			assertEquals(expected, engine.searchToDepth(stones, BoardTopology.PLAYER_2, AlphaBetaSearch.MAX_DEPTH).getScore());
+		}
+	}
+
+	/*
+	 * Given: the opening position and a search engine with four threads
+	 * When: it searches with a small time budget
+	 * Then: it returns a legal move soon after the budget runs out
+	 */
+	@Test
+	public void parallelSearchKeepsToTimeBudget() {
+
+		int[] stones = new Game().getBoard().getStoneCounts();
+		long start = System.nanoTime();
+		SearchResult result = engine.search(stones, BoardTopology.PLAYER_1, 30);
+		long tookMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(tookMillis < 1000, "search took " + tookMillis + "ms");
+		assertTrue(result.getDepth() > 0);
+		assertEquals(6, stones[result.getPit()]);
+	}
+
+	/*
+	 * Given: a position where the player to move has no stones in their pits
+	 * When: the search engine is asked for a move
+	 * Then: it is refused before any helper threads are started
+	 */
+	@Test
+	public void positionWithNoMovesIsRefused() {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		stones[BoardTopology.firstPit(BoardTopology.PLAYER_2)] = 1;
+
+		assertThrows(IllegalArgumentException.class, () -> engine.search(stones, BoardTopology.PLAYER_1, 10));
+	}
+
+	/*
+	 * Given: the create game endpoint
+	 * When: a game against the computer is asked for with a time budget in and out of range
+	 * Then: the game is created for the budget in range and refused for the other
+	 */
+	@Test
+	public void timeBudgetIsChecked() throws Exception {
+
+		mockMvc.perform(post("/games").param("opponent", "computer").param("timeBudgetMs", "25"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/games").param("opponent", "computer").param("timeBudgetMs", "0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/games").param("opponent", "computer").param("timeBudgetMs", "60000"))
+				.andExpect(status().isBadRequest());
+	}
+
+}
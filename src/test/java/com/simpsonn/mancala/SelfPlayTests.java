@@ -0,0 +1,129 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.simulation.GreedyPolicy;
+import com.simpsonn.mancala.simulation.MovePolicy;
+import com.simpsonn.mancala.simulation.RandomPolicy;
+import com.simpsonn.mancala.simulation.SelfPlayRunner;
+import com.simpsonn.mancala.simulation.SelfPlayStats;
+
+/**
+ * Tests for playing games between move policies offline
+ */
+@SpringBootTest
+public class SelfPlayTests {
+
+	/*
+	 * Given: two random players and a seed
+	 * When: the same games are played twice, once on 1 thread and once on 4
+	 * Then: every game is counted once and both runs give exactly the same totals
+	 */
+	@Test
+	public void runsWithTheSameSeedMatch() throws IOException {
+
+		SelfPlayStats first = new SelfPlayRunner(new RandomPolicy(), new RandomPolicy(), 1, 7L)
+				.run(25_000, new StringWriter(), false);
+		SelfPlayStats second = new SelfPlayRunner(new RandomPolicy(), new RandomPolicy(), 4, 7L)
+				.run(25_000, new StringWriter(), false);
+
+		assertEquals(25_000, first.getGames());
+		assertEquals(first.getGames(), first.getPlayer1Wins() + first.getPlayer2Wins() + first.getDraws());
+		assertEquals(first.toCsv("a", "b"), second.toCsv("a", "b"));
+		assertTrue(first.getAverageMoves() > 0);
+	}
+
+	/*
+	 * Given: a greedy player and a random player
+	 * When: they play each other
+	 * Then: the greedy player wins most games as either player
+	 */
+	@Test
+	public void greedyBeatsRandom() throws IOException {
+
+		SelfPlayStats greedyFirst = new SelfPlayRunner(new GreedyPolicy(), new RandomPolicy(), 2, 11L)
+				.run(5_000, new StringWriter(), false);
+		SelfPlayStats greedySecond = new SelfPlayRunner(new RandomPolicy(), new GreedyPolicy(), 2, 11L)
+				.run(5_000, new StringWriter(), false);
+
+		assertTrue(greedyFirst.getPlayer1WinRate() > 0.8);
+		assertTrue(greedySecond.getPlayer2WinRate() > 0.8);
+	}
+
+	/*
+	 * Given: a player who searches 6 moves ahead and a random player
+	 * When: they play each other
+	 * Then: the searching player wins nearly every game
+	 */
+	@Test
+	public void searchBeatsRandom() throws IOException {
+
+		SelfPlayStats stats = new SelfPlayRunner(SelfPlayRunner.parsePolicy("search:6"), new RandomPolicy(), 2, 13L)
+				.run(200, new StringWriter(), false);
+
+		assertTrue(stats.getPlayer1WinRate() > 0.95);
+	}
+
+	/*
+	 * Given: enough games for two batches
+	 * When: the totals are written as CSV and as JSON
+	 * Then: there is a header and a row of running totals for each batch, and the JSON is an array of the same totals
+	 */
+	@Test
+	public void totalsAreStreamedAfterEachBatch() throws IOException {
+
+		StringWriter csv = new StringWriter();
+		new SelfPlayRunner(new RandomPolicy(), new GreedyPolicy(), 2, 17L).run(15_000, csv, false);
+		String[] lines = csv.toString().split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("player1,player2,games,"));
+		assertTrue(lines[2].startsWith("random,greedy,15000,"));
+
+		StringWriter json = new StringWriter();
+		new SelfPlayRunner(new RandomPolicy(), new GreedyPolicy(), 2, 17L).run(15_000, json, true);
+		JsonNode rows = new ObjectMapper().readTree(json.toString());
+		assertEquals(2, rows.size());
+		assertEquals(15_000, rows.get(1).get("games").asLong());
+		assertEquals("greedy", rows.get(1).get("player2").asText());
+	}
+
+	/*
+	 * Given: a policy which breaks the rules and a policy name which does not exist
+	 * When: they are used
+	 * Then: the run fails rather than counting a broken game, and the name is refused
+	 */
+	@Test
+	public void brokenPoliciesAreRefused() {
+
+		MovePolicy kalahPlayer = new MovePolicy() {
+
+			@Override
+			public int chooseMove(int[] stones, int player, int legalMoves, SplittableRandom random) {
+
+				return 6;
+			}
+
+			@Override
+			public String getName() {
+
+				return "kalah";
+			}
+		};
+
+		assertThrows(IllegalStateException.class,
+				() -> new SelfPlayRunner(kalahPlayer, new RandomPolicy(), 1, 1L).run(1, new StringWriter(), false));
+		assertThrows(IllegalArgumentException.class, () -> SelfPlayRunner.parsePolicy("clever"));
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.model.components.Game;
+import com.simpsonn.mancala.model.components.GameState;
+
+/**
+ * Property tests which check the game controller gives exactly the same result
+ * as sowing the stones one at a time, for lots of random positions including
+ * ones with far more stones in a pit than the standard game ever has
+ */
+@SpringBootTest
+public class SowingPropertyTests {
+
+	private static final int POSITIONS_TO_TRY = 100_000;
+
+	GameController controller = new GameController();
+
+	/*
+	 * Given: random boards with up to 60 stones in each pit and either player to move
+	 * When: a random legal move is made with the game controller and with the one stone at a time reference
+	 * Then: the boards and the game states are identical
+	 */
+	@Test
+	public void sowingMatchesOneStoneAtATimeReference() {
+
+		Random random = new Random(20201008L);
+		for (int i = 0; i < POSITIONS_TO_TRY; i++) {
+			// mostly small piles with the odd large one so that laps, captures and game overs all come up
+			int maxStones = random.nextInt(4) == 0 ? 60 : 8;
+			int[] stones = new int[BoardTopology.POSITIONS];
+			for (int position = 0; position < stones.length; position++) {
+				stones[position] = random.nextInt(4) == 0 ? 0 : random.nextInt(maxStones + 1);
+			}
+			int side = random.nextInt(2);
+			int pit = BoardTopology.firstPit(side) + random.nextInt(BoardTopology.PITS_PER_PLAYER);
+			if (stones[pit] == 0) {
+				stones[pit] = 1 + random.nextInt(maxStones);
+			}
+
+			Game game = new Game();
+			System.arraycopy(stones, 0, game.getBoard().getStoneCounts(), 0, stones.length);
+			game.setGameState(side == BoardTopology.PLAYER_1 ? GameState.PLAYER_1_TURN : GameState.PLAYER_2_TURN);
+			controller.makeMove(game, pit + 1);
+
+			GameState expectedState = referenceMove(stones, side, pit);
+			assertArrayEquals(stones, game.getBoard().getStoneCounts(), "board differs after sowing pit " + pit);
+			assertEquals(expectedState, game.getGameState(), "state differs after sowing pit " + pit + " of " + Arrays.toString(stones));
+		}
+	}
+
+	/*
+	 * Given: player 1 has exactly 13 stones in pit 1 and nothing else on their side
+	 * When: pit 1 is played
+	 * Then: the last stone lands back in the now empty starting pit and captures it and the opposite pit
+	 */
+	@Test
+	public void fullLapEndingInStartingPitCaptures() {
+
+		Game game = new Game();
+		int[] stones = game.getBoard().getStoneCounts();
+		Arrays.fill(stones, 0, 6, 0);
+		stones[0] = 13;
+		controller.makeMove(game, 1);
+
+		// every position but player 2's kalah got one stone, then pit 1 and pit 13 (6 + 1) were captured
+		assertEquals(0, stones[0]);
+		assertEquals(0, stones[12]);
+		assertEquals(1 + 1 + 7, stones[6]);
+		assertEquals(GameState.PLAYER_2_TURN, game.getGameState());
+	}
+
+	// the rules as they were first written, sowing one stone at a time, returning the state afterwards
+	private GameState referenceMove(int[] stones, int side, int pit) {
+
+		int hand = stones[pit];
+		stones[pit] = 0;
+		while (hand > 0) {
+			pit = (pit + 1) % BoardTopology.POSITIONS;
+			if (pit == BoardTopology.kalah(BoardTopology.otherPlayer(side))) {
+				pit = (pit + 1) % BoardTopology.POSITIONS;
+			}
+			stones[pit]++;
+			hand--;
+		}
+		int kalah = BoardTopology.kalah(side);
+		if (pit != kalah && BoardTopology.owner(pit) == side && stones[pit] == 1) {
+			int opposite = (BoardTopology.POSITIONS - 2) - pit;
+			stones[kalah] += stones[pit] + stones[opposite];
+			stones[pit] = 0;
+			stones[opposite] = 0;
+		}
+		GameState state;
+		if (pit == kalah) {
+			state = side == BoardTopology.PLAYER_1 ? GameState.PLAYER_1_TURN : GameState.PLAYER_2_TURN;
+		} else {
+			state = side == BoardTopology.PLAYER_1 ? GameState.PLAYER_2_TURN : GameState.PLAYER_1_TURN;
+		}
+
+		boolean finished = false;
+		if (sumPits(stones, 0) == 0) {
+			sweep(stones, 1);
+			finished = true;
+		}
+		if (sumPits(stones, 1) == 0) {
+			sweep(stones, 0);
+			finished = true;
+		}
+		if (finished) {
+			int player1 = stones[BoardTopology.kalah(0)];
+			int player2 = stones[BoardTopology.kalah(1)];
+			state = player1 == player2 ? GameState.DRAW : player1 > player2 ? GameState.PLAYER_1_WIN : GameState.PLAYER_2_WIN;
+		}
+		return state;
+	}
+
+	private int sumPits(int[] stones, int side) {
+
+		int total = 0;
+		for (int pit = BoardTopology.firstPit(side); pit < BoardTopology.kalah(side); pit++) {
+			total += stones[pit];
+		}
+		return total;
+	}
+
+	private void sweep(int[] stones, int side) {
+
+		for (int pit = BoardTopology.firstPit(side); pit < BoardTopology.kalah(side); pit++) {
+			stones[BoardTopology.kalah(side)] += stones[pit];
+			stones[pit] = 0;
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.simpsonn.mancala;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simpsonn.mancala.controller.GameController;
+import com.simpsonn.mancala.engine.SearchEngine;
+import com.simpsonn.mancala.metrics.ServiceMetrics;
+import com.simpsonn.mancala.persistence.GameRepository;
+import com.simpsonn.mancala.persistence.InMemoryGameRepository;
+import com.simpsonn.mancala.service.GameLocks;
+import com.simpsonn.mancala.service.GamePool;
+import com.simpsonn.mancala.service.GameRegistry;
+import com.simpsonn.mancala.service.GameUpdates;
+import com.simpsonn.mancala.service.GameViews;
+import com.simpsonn.mancala.service.MancalaServiceImpl;
+import com.simpsonn.mancala.service.MoveHints;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * builds the mancala service outside of spring for the tests and benchmarks
+ * which need their own registry, locks or pool. The rest of the collaborators
+ * are small ones which do not record metrics anywhere, so a new collaborator
+ * of the service only has to be added here
+ */
+public final class TestServices {
+
+	private TestServices() {
+	}
+
+	/**
+	 * @param locks - the game locks
+	 * @param registry - the live games
+	 * @param pool - the pool games are taken from and recycled into
+	 * @return a service keeping its games in memory, with a 100ms computer player
+	 */
+	public static MancalaServiceImpl newService(GameLocks locks, GameRegistry registry, GamePool pool) {
+
+		SearchEngine searchEngine = new SearchEngine(100, 1, 1);
+		return newService(locks, registry, pool, searchEngine, new InMemoryGameRepository(searchEngine));
+	}
+
+	/**
+	 * @param locks - the game locks
+	 * @param registry - the live games
+	 * @param pool - the pool games are taken from and recycled into
+	 * @param gameUpdates - the streams of updates to games
+	 * @return a service keeping its games in memory and sending updates through the given streams
+	 */
+	public static MancalaServiceImpl newService(GameLocks locks, GameRegistry registry, GamePool pool, GameUpdates gameUpdates) {
+
+		SearchEngine searchEngine = new SearchEngine(100, 1, 1);
+		return newService(locks, registry, pool, searchEngine, new InMemoryGameRepository(searchEngine), gameUpdates);
+	}
+
+	/**
+	 * @param locks - the game locks
+	 * @param registry - the live games
+	 * @param pool - the pool games are taken from and recycled into
+	 * @param searchEngine - the search used by the computer player and for hints
+	 * @param gameRepository - where the games are stored
+	 * @return a service using the given repository
+	 */
+	public static MancalaServiceImpl newService(GameLocks locks, GameRegistry registry, GamePool pool, SearchEngine searchEngine,
+			GameRepository gameRepository) {
+
+		return newService(locks, registry, pool, searchEngine, gameRepository, new GameUpdates(1, 16, 1000, 0, 0, new SimpleMeterRegistry()));
+	}
+
+	private static MancalaServiceImpl newService(GameLocks locks, GameRegistry registry, GamePool pool, SearchEngine searchEngine,
+			GameRepository gameRepository, GameUpdates gameUpdates) {
+
+		return new MancalaServiceImpl(new GameController(), registry, locks, pool, searchEngine,
+				new MoveHints(searchEngine, 16, new SimpleMeterRegistry()), new ServiceMetrics(new SimpleMeterRegistry(), registry),
+				gameRepository, gameUpdates, new GameViews(new ObjectMapper(), new SimpleMeterRegistry()));
+	}
+
+}
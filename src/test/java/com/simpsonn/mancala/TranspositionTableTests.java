@@ -0,0 +1,204 @@
+package com.simpsonn.mancala;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.simpsonn.mancala.engine.AlphaBetaSearch;
+import com.simpsonn.mancala.engine.BoardTopology;
+import com.simpsonn.mancala.engine.KalahRules;
+import com.simpsonn.mancala.engine.MoveOutcome;
+import com.simpsonn.mancala.engine.SearchResult;
+import com.simpsonn.mancala.engine.TranspositionTable;
+import com.simpsonn.mancala.engine.Zobrist;
+import com.simpsonn.mancala.model.components.Game;
+
+/**
+ * Tests for position keys and the transposition table the search uses to remember them
+ */
+@SpringBootTest
+public class TranspositionTableTests {
+
+	/*
+	 * Given: random games played from the opening position
+	 * When: the key is updated after each move from the positions which changed
+	 * Then: it always matches the key worked out from scratch
+	 */
+	@Test
+	public void updatedKeyMatchesKeyFromScratch() {
+
+		Random random = new Random(20201012L);
+		for (int game = 0; game < 500; game++) {
+			int[] stones = new Game().getBoard().getStoneCounts();
+			int player = BoardTopology.PLAYER_1;
+			long key = Zobrist.hash(stones, player);
+			while (KalahRules.countPitStones(stones, player) > 0) {
+				int pit;
+				do {
+					pit = BoardTopology.firstPit(player) + random.nextInt(BoardTopology.PITS_PER_PLAYER);
+				} while (stones[pit] == 0);
+				int[] before = stones.clone();
+				int outcome = KalahRules.sow(stones, player, pit);
+				key = Zobrist.update(key, before, stones);
+				if (!MoveOutcome.isExtraTurn(outcome)) {
+					player = BoardTopology.otherPlayer(player);
+					key = Zobrist.changePlayer(key);
+				}
+				assertEquals(Zobrist.hash(stones, player), key);
+				if (KalahRules.finishIfOver(stones)) {
+					break;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Given: the same stones with a different player to move
+	 * When: their keys are worked out
+	 * Then: the keys are different
+	 */
+	@Test
+	public void playerToMoveChangesKey() {
+
+		int[] stones = new Game().getBoard().getStoneCounts();
+
+		assertNotEquals(Zobrist.hash(stones, BoardTopology.PLAYER_1), Zobrist.hash(stones, BoardTopology.PLAYER_2));
+	}
+
+	/*
+	 * Given: a result saved in the table
+	 * When: it is looked up by its key and by a different key
+	 * Then: every part of the result comes back for its key and nothing comes back for the other
+	 */
+	@Test
+	public void storedResultIsFound() {
+
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(12345L, 7, -23, TranspositionTable.LOWER_BOUND, 4);
+
+		long result = table.probe(12345L);
+		assertEquals(7, TranspositionTable.depth(result));
+		assertEquals(-23, TranspositionTable.score(result));
+		assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(result));
+		assertEquals(4, TranspositionTable.move(result));
+		assertEquals(0, table.probe(54321L));
+	}
+
+	/*
+	 * Given: a deep result in the table
+	 * When: two shallower results for other positions in the same bucket are saved in the same search
+	 * Then: the deep result is kept and the newest shallow result is kept alongside it
+	 */
+	@Test
+	public void deepResultIsKeptInTheSameSearch() {
+
+		TranspositionTable table = new TranspositionTable(1);
+		long bucketSize = table.getCapacity() / 2;
+		long deepKey = 99L;
+		table.newSearch();
+		table.store(deepKey, 20, 5, TranspositionTable.EXACT, 1);
+		table.store(deepKey + bucketSize, 3, 1, TranspositionTable.EXACT, 2);
+		table.store(deepKey + 2 * bucketSize, 2, 2, TranspositionTable.EXACT, 3);
+
+		assertEquals(20, TranspositionTable.depth(table.probe(deepKey)));
+		assertEquals(0, table.probe(deepKey + bucketSize));
+		assertEquals(2, TranspositionTable.depth(table.probe(deepKey + 2 * bucketSize)));
+
+		// in a later search the old deep result is the first to go
+		table.newSearch();
+		table.store(deepKey + bucketSize, 1, 1, TranspositionTable.EXACT, 2);
+		assertEquals(0, table.probe(deepKey));
+	}
+
+	/*
+	 * Given: endings small enough to search right to the end of the game
+	 * When: they are searched with and without a transposition table
+	 * Then: both find the same exact score and the table records hits
+	 */
+	@Test
+	public void searchWithTableMatchesSearchWithout() {
+
+		Random random = new Random(20201013L);
+		TranspositionTable table = new TranspositionTable(4);
+		AlphaBetaSearch withTable = new AlphaBetaSearch(table);
+		AlphaBetaSearch withoutTable = new AlphaBetaSearch();
+		for (int i = 0; i < 100; i++) {
+			int[] stones = randomEnding(random);
+			int player = random.nextInt(2);
+			if (KalahRules.countPitStones(stones, player) == 0) {
+				continue;
+			}
+			SearchResult expected = withoutTable.search(stones, player, AlphaBetaSearch.MAX_DEPTH);
+			SearchResult actual = withTable.search(stones, player, AlphaBetaSearch.MAX_DEPTH);
+			assertEquals(expected.getScore(), actual.getScore());
+		}
+		assertTrue(table.getHits() > 0);
+		assertTrue(table.getHitRate() > 0 && table.getHitRate() <= 1);
+	}
+
+	/*
+	 * Given: one table shared by searches on several threads at once
+	 * When: they all search the same endings
+	 * Then: every thread finds the same exact scores as a search on its own
+	 */
+	@Test
+	public void sharedTableGivesSameScores() throws Exception {
+
+		Random random = new Random(20201014L);
+		List<int[]> endings = new ArrayList<>();
+		List<Integer> expectedScores = new ArrayList<>();
+		while (endings.size() < 50) {
+			int[] stones = randomEnding(random);
+			if (KalahRules.countPitStones(stones, BoardTopology.PLAYER_1) > 0) {
+				endings.add(stones);
+				expectedScores.add(new AlphaBetaSearch().search(stones, BoardTopology.PLAYER_1, AlphaBetaSearch.MAX_DEPTH).getScore());
+			}
+		}
+
+		TranspositionTable table = new TranspositionTable(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<Integer>>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				futures.add(executor.submit(() -> {
+					AlphaBetaSearch search = new AlphaBetaSearch(table);
+					List<Integer> scores = new ArrayList<>();
+					for (int[] stones : endings) {
+						scores.add(search.search(stones, BoardTopology.PLAYER_1, AlphaBetaSearch.MAX_DEPTH).getScore());
+					}
+					return scores;
+				}));
+			}
+			for (Future<List<Integer>> future : futures) {
+				assertEquals(expectedScores, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// a few stones left in each pit, the kalahs hold the rest
+	private int[] randomEnding(Random random) {
+
+		int[] stones = new int[BoardTopology.POSITIONS];
+		for (int pit = 0; pit < BoardTopology.POSITIONS; pit++) {
+			if (!BoardTopology.isKalah(pit)) {
+				stones[pit] = random.nextInt(3) == 0 ? 0 : random.nextInt(3);
+			}
+		}
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_1)] = random.nextInt(30);
+		stones[BoardTopology.kalah(BoardTopology.PLAYER_2)] = random.nextInt(30);
+		return stones;
+	}
+
+}